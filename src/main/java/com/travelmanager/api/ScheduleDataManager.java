@@ -9,6 +9,7 @@ import com.travelmanager.model.BusSchedule;
 import com.travelmanager.model.Schedule;
 import com.travelmanager.model.TrainSchedule;
 import com.travelmanager.service.rest.RestScheduleService;
+import com.travelmanager.util.LocationRegistry;
 
 import java.io.*;
 import java.nio.charset.StandardCharsets;
@@ -100,9 +101,10 @@ public class ScheduleDataManager {
      * Get bus schedules for a specific route - now from REST API
      */
     public List<BusSchedule> getBusSchedules(String origin, String destination) {
+        LocationRegistry locations = LocationRegistry.getInstance();
         return getAllBusSchedules().stream()
-            .filter(s -> s.getOrigin().equalsIgnoreCase(origin) 
-                && s.getDestination().equalsIgnoreCase(destination))
+            .filter(s -> locations.sameLocation(s.getOrigin(), origin)
+                && locations.sameLocation(s.getDestination(), destination))
             .collect(Collectors.toList());
     }
     
@@ -110,9 +112,10 @@ public class ScheduleDataManager {
      * Get train schedules for a specific route - now from REST API
      */
     public List<TrainSchedule> getTrainSchedules(String origin, String destination) {
+        LocationRegistry locations = LocationRegistry.getInstance();
         return getAllTrainSchedules().stream()
-            .filter(s -> s.getOrigin().equalsIgnoreCase(origin) 
-                && s.getDestination().equalsIgnoreCase(destination))
+            .filter(s -> locations.sameLocation(s.getOrigin(), origin)
+                && locations.sameLocation(s.getDestination(), destination))
             .collect(Collectors.toList());
     }
     
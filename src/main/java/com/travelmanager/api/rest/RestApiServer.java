@@ -1,6 +1,12 @@
 package com.travelmanager.api.rest;
 
+import com.travelmanager.model.rest.CacheStatsDTO;
+import com.travelmanager.util.CacheManager;
 import io.javalin.Javalin;
+import io.javalin.http.Context;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 /**
  * Embedded REST API Server using Javalin
@@ -88,6 +94,8 @@ public class RestApiServer {
             System.out.println("  PUT    /api/schedules/train/{trainName}");
             System.out.println("  DELETE /api/schedules/train/{trainName}");
             System.out.println("  GET    /api/routes?start={start}&destination={destination}");
+            System.out.println("  GET    /api/locations/suggest?q={text}");
+            System.out.println("  GET    /api/cache/stats");
             System.out.println("----------------------------------------------");
             System.out.println("Authentication Endpoints (for Android app):");
             System.out.println("  POST   /api/auth/login");
@@ -121,6 +129,9 @@ public class RestApiServer {
             )
         ));
 
+        // Cache statistics per region
+        app.get("/api/cache/stats", this::getCacheStats);
+
         // ============= UNIFIED ENDPOINTS =============
         
         // GET /api/schedules - Returns all schedules (bus + train)
@@ -129,6 +140,9 @@ public class RestApiServer {
         // GET /api/routes - Search routes across bus and train
         app.get("/api/routes", scheduleController::searchRoutes);
 
+        // GET /api/locations/suggest?q= - Type-ahead location names
+        app.get("/api/locations/suggest", scheduleController::suggestLocations);
+
         // ============= BUS ENDPOINTS =============
         
         // GET /api/schedules/bus - Get all bus schedules
@@ -198,6 +212,16 @@ public class RestApiServer {
         });
     }
 
+    /**
+     * GET /api/cache/stats
+     * Statistics per cache region, mapped to DTOs so Gson only reflects on model.rest
+     */
+    private void getCacheStats(Context ctx) {
+        Map<String, CacheStatsDTO> stats = new LinkedHashMap<>();
+        CacheManager.getInstance().getStats().forEach((name, region) -> stats.put(name, CacheStatsDTO.fromStats(region)));
+        ctx.json(stats);
+    }
+
     /**
      * Stop the REST API server
      */
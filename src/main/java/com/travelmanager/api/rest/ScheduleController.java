@@ -2,6 +2,8 @@ package com.travelmanager.api.rest;
 
 import com.travelmanager.model.rest.*;
 import com.travelmanager.service.rest.ScheduleService;
+import com.travelmanager.storage.TimetableSnapshot;
+import com.travelmanager.util.LocationSuggestIndex;
 import io.javalin.http.Context;
 
 import java.util.*;
@@ -11,6 +13,9 @@ import java.util.*;
  * Handles all HTTP requests for schedule operations
  */
 public class ScheduleController {
+    private static final String VERSION_HEADER = "X-Timetable-Version";
+    private static final int MAX_SUGGESTIONS = 50;
+
     private final ScheduleService scheduleService;
 
     public ScheduleController() {
@@ -25,7 +30,9 @@ public class ScheduleController {
      */
     public void getAllSchedules(Context ctx) {
         try {
-            List<UnifiedScheduleDTO> schedules = scheduleService.getAllSchedules();
+            TimetableSnapshot snapshot = scheduleService.snapshot();
+            List<UnifiedScheduleDTO> schedules = scheduleService.getAllSchedules(snapshot);
+            ctx.header(VERSION_HEADER, String.valueOf(snapshot.getVersion()));
             ctx.json(schedules);
         } catch (Exception e) {
             ctx.status(500).json(Map.of("error", "Failed to retrieve schedules", "message", e.getMessage()));
@@ -47,13 +54,48 @@ public class ScheduleController {
         }
 
         try {
-            List<UnifiedScheduleDTO> results = scheduleService.searchRoutes(start.trim(), destination.trim());
+            TimetableSnapshot snapshot = scheduleService.snapshot();
+            List<UnifiedScheduleDTO> results = scheduleService.searchRoutes(snapshot, start.trim(), destination.trim());
+            ctx.header(VERSION_HEADER, String.valueOf(snapshot.getVersion()));
             ctx.json(results);
         } catch (Exception e) {
             ctx.status(500).json(Map.of("error", "Failed to search routes", "message", e.getMessage()));
         }
     }
 
+    /**
+     * GET /api/locations/suggest?q={text}&limit={n}
+     * Location names for type-ahead, most relevant first (typos tolerated)
+     */
+    public void suggestLocations(Context ctx) {
+        String query = ctx.queryParam("q");
+        if (query == null || query.trim().isEmpty()) {
+            ctx.status(400).json(Map.of("error", "Missing required parameter",
+                                       "message", "The 'q' query parameter is required"));
+            return;
+        }
+
+        int limit = LocationSuggestIndex.DEFAULT_LIMIT;
+        String limitParam = ctx.queryParam("limit");
+        if (limitParam != null) {
+            try {
+                limit = Math.max(1, Math.min(Integer.parseInt(limitParam.trim()), MAX_SUGGESTIONS));
+            } catch (NumberFormatException e) {
+                ctx.status(400).json(Map.of("error", "Invalid parameter", "message", "'limit' must be a number"));
+                return;
+            }
+        }
+
+        try {
+            TimetableSnapshot snapshot = scheduleService.snapshot();
+            List<String> suggestions = scheduleService.suggestLocations(snapshot, query, limit);
+            ctx.header(VERSION_HEADER, String.valueOf(snapshot.getVersion()));
+            ctx.json(suggestions);
+        } catch (Exception e) {
+            ctx.status(500).json(Map.of("error", "Failed to suggest locations", "message", e.getMessage()));
+        }
+    }
+
     // ============= BUS ENDPOINTS =============
 
     /**
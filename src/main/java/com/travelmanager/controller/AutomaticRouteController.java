@@ -4,9 +4,13 @@ import com.travelmanager.model.Schedule;
 import com.travelmanager.model.TrainSchedule;
 import com.travelmanager.model.BusSchedule;
 import com.travelmanager.model.Route;
-import com.travelmanager.util.RouteGraph;
-import com.travelmanager.util.RouteGraph.JourneyPlan;
-import com.travelmanager.util.RouteGraph.RouteEdge;
+import com.travelmanager.domain.CompiledTimetable;
+import com.travelmanager.domain.EngineType;
+import com.travelmanager.domain.JourneyQuery;
+import com.travelmanager.domain.PathfindingEngine;
+import com.travelmanager.util.Constants;
+import com.travelmanager.util.LocationSuggestIndex;
+import com.travelmanager.service.TimetableRepository;
 import com.travelmanager.service.rest.RestScheduleService;
 import com.travelmanager.database.DatabaseManager;
 import javafx.fxml.FXML;
@@ -20,10 +24,10 @@ import java.sql.SQLException;
 import java.time.Duration;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
-import java.util.Set;
-import java.util.TreeSet;
-import java.util.stream.Collectors;
+import java.util.Map;
 
 /**
  * Controller for automatic route generation with multi-leg pathfinding
@@ -42,6 +46,9 @@ public class AutomaticRouteController {
     @FXML
     private ComboBox<String> maxLegsCombo;
     
+    @FXML
+    private ComboBox<EngineType> engineCombo;
+    
     @FXML
     private Label statusLabel;
     
@@ -49,7 +56,7 @@ public class AutomaticRouteController {
     private VBox resultsContainer;
     
     private final RestScheduleService scheduleService = new RestScheduleService();
-    private Set<String> availableCities = new TreeSet<>();
+    private volatile LocationSuggestIndex cityIndex = LocationSuggestIndex.of(Collections.emptyList());
 
     @FXML
     public void initialize() {
@@ -57,6 +64,8 @@ public class AutomaticRouteController {
         datePicker.setValue(LocalDate.now());
         maxLegsCombo.getItems().addAll("1 (Direct only)", "2 (1 transfer)", "3 (2 transfers)");
         maxLegsCombo.setValue("3 (2 transfers)");
+        engineCombo.getItems().addAll(EngineType.values());
+        engineCombo.setValue(EngineType.LEGACY);
         statusLabel.setText("Enter your journey details and click Generate Routes");
         
         // Load cities for autocomplete in background
@@ -71,14 +80,14 @@ public class AutomaticRouteController {
         new Thread(() -> {
             try {
                 List<Schedule> allSchedules = scheduleService.getAllSchedules();
-                Set<String> cities = allSchedules.stream()
-                    .flatMap(s -> List.of(s.getOrigin(), s.getDestination()).stream())
-                    .collect(Collectors.toCollection(TreeSet::new));
                 
-                javafx.application.Platform.runLater(() -> {
-                    availableCities.clear();
-                    availableCities.addAll(cities);
-                });
+                // Rank cities by how many schedules start or end there
+                Map<String, Integer> popularity = new HashMap<>();
+                for (Schedule schedule : allSchedules) {
+                    popularity.merge(schedule.getOrigin(), 1, Integer::sum);
+                    popularity.merge(schedule.getDestination(), 1, Integer::sum);
+                }
+                cityIndex = new LocationSuggestIndex(popularity);
             } catch (Exception e) {
                 e.printStackTrace();
             }
@@ -96,11 +105,7 @@ public class AutomaticRouteController {
                 return;
             }
             
-            // Filter cities that match the input
-            List<String> matches = availableCities.stream()
-                .filter(city -> city.toLowerCase().startsWith(input.toLowerCase()))
-                .limit(8)
-                .collect(Collectors.toList());
+            List<String> matches = cityIndex.suggest(input, 8);
             
             if (matches.isEmpty()) {
                 contextMenu.hide();
@@ -156,6 +161,8 @@ public class AutomaticRouteController {
         // Extract max legs from combo box
         String selected = maxLegsCombo.getValue();
         int maxLegs = Integer.parseInt(selected.substring(0, 1));
+        JourneyQuery query = new JourneyQuery(start, destination, engineCombo.getValue(),
+            PathfindingEngine.OptimizationCriteria.SHORTEST_TIME, maxLegs, Constants.DEFAULT_MAX_ROUTES);
         
         statusLabel.setText("🔍 Searching for routes...");
         statusLabel.setTextFill(Color.web("#3498db"));
@@ -164,16 +171,16 @@ public class AutomaticRouteController {
         // Perform search in background thread
         new Thread(() -> {
             try {
-                List<Schedule> allSchedules = scheduleService.getAllSchedules();
+                // Same compiled timetable the REST API plans on, kept current by schedule changes
+                CompiledTimetable timetable = TimetableRepository.getInstance().getTimetable(date, "ALL");
                 
-                if (allSchedules.isEmpty()) {
+                if (timetable.getSchedules().isEmpty()) {
                     javafx.application.Platform.runLater(() -> 
-                        showError("No schedules available. Please check your internet connection."));
+                        showError("No schedules available for " + date + "."));
                     return;
                 }
                 
-                RouteGraph graph = new RouteGraph(allSchedules, date);
-                List<JourneyPlan> routes = graph.findRoutes(start, destination, maxLegs);
+                List<Route> routes = timetable.findRoutes(query);
                 
                 javafx.application.Platform.runLater(() -> {
                     if (routes.isEmpty()) {
@@ -205,14 +212,15 @@ public class AutomaticRouteController {
         }).start();
     }
     
-    private void displayRoutes(List<JourneyPlan> routes, String start, String destination, LocalDate date) {
+    private void displayRoutes(List<Route> routes, String start, String destination, LocalDate date) {
         statusLabel.setText("✅ Found " + routes.size() + " route(s) from " + start + " to " + destination);
         statusLabel.setTextFill(Color.web("#27ae60"));
         
         DateTimeFormatter timeFormatter = DateTimeFormatter.ofPattern("hh:mm a");
         
         for (int i = 0; i < routes.size(); i++) {
-            JourneyPlan journey = routes.get(i);
+            Route journey = routes.get(i);
+            List<Schedule> legs = journey.getSchedules();
             
             VBox journeyBox = new VBox(12);
             journeyBox.setStyle("-fx-background-color: white; -fx-padding: 18; -fx-background-radius: 8; " +
@@ -225,10 +233,10 @@ public class AutomaticRouteController {
             Label optionLabel = new Label("Option " + (i + 1));
             optionLabel.setStyle("-fx-font-size: 15px; -fx-font-weight: bold; -fx-text-fill: #1a1a1a;");
             
-            Label legsLabel = new Label(journey.getNumberOfLegs() + " leg" + (journey.getNumberOfLegs() > 1 ? "s" : ""));
+            Label legsLabel = new Label(legs.size() + " leg" + (legs.size() > 1 ? "s" : ""));
             legsLabel.setStyle("-fx-background-color: #e8f4fd; -fx-text-fill: #2196F3; -fx-padding: 4 10; -fx-background-radius: 12; -fx-font-size: 11px; -fx-font-weight: bold;");
             
-            Duration totalDuration = Duration.ofMinutes(journey.getTotalTravelTime());
+            Duration totalDuration = journey.getTotalDuration();
             Label timeLabel = new Label("⏱ " + formatDuration(totalDuration));
             timeLabel.setStyle("-fx-text-fill: #666; -fx-font-size: 13px;");
             
@@ -254,10 +262,8 @@ public class AutomaticRouteController {
             journeyBox.getChildren().add(sep1);
             
             // Legs details
-            List<RouteEdge> legs = journey.getLegs();
             for (int legIndex = 0; legIndex < legs.size(); legIndex++) {
-                RouteEdge leg = legs.get(legIndex);
-                Schedule schedule = leg.schedule;
+                Schedule schedule = legs.get(legIndex);
                 
                 VBox legBox = new VBox(6);
                 legBox.setStyle("-fx-padding: 12; -fx-background-color: #f8f9fa; -fx-background-radius: 6;");
@@ -302,9 +308,9 @@ public class AutomaticRouteController {
                 
                 // Transfer point (if not last leg)
                 if (legIndex < legs.size() - 1) {
-                    String transferCity = journey.getTransferPoints().get(legIndex);
-                    RouteEdge nextLeg = legs.get(legIndex + 1);
-                    long waitMinutes = java.time.Duration.between(schedule.getArrivalTime(), nextLeg.schedule.getDepartureTime()).toMinutes();
+                    String transferCity = schedule.getDestination();
+                    Schedule nextLeg = legs.get(legIndex + 1);
+                    long waitMinutes = java.time.Duration.between(schedule.getArrivalTime(), nextLeg.getDepartureTime()).toMinutes();
                     
                     HBox transferBox = new HBox(8);
                     transferBox.setStyle("-fx-alignment: center-left; -fx-padding: 8; -fx-background-color: #fff9e6; -fx-background-radius: 5;");
@@ -330,7 +336,7 @@ public class AutomaticRouteController {
         return String.format("%dh %dm", hours, minutes);
     }
     
-    private void handleSavePlan(JourneyPlan journey, int optionNumber) {
+    private void handleSavePlan(Route route, int optionNumber) {
         TextInputDialog dialog = new TextInputDialog("Multi-leg Route Option " + optionNumber);
         dialog.setTitle("Save Travel Plan");
         dialog.setHeaderText("Save this route to your plans");
@@ -343,15 +349,9 @@ public class AutomaticRouteController {
             }
             
             try {
-                // Convert JourneyPlan to Route
-                Route route = new Route();
-                for (Schedule schedule : journey.getSchedules()) {
-                    route.addSchedule(schedule);
-                }
-                
                 // Save to database
                 DatabaseManager.getInstance().savePlan(planName, route, 
-                    "Multi-leg route with " + journey.getNumberOfLegs() + " transfer(s)");
+                    "Multi-leg route with " + route.getSchedules().size() + " transfer(s)");
                 
                 // Show success message
                 Alert alert = new Alert(Alert.AlertType.INFORMATION);
@@ -377,6 +377,7 @@ public class AutomaticRouteController {
         destinationField.clear();
         datePicker.setValue(LocalDate.now());
         maxLegsCombo.setValue("3 (2 transfers)");
+        engineCombo.setValue(EngineType.LEGACY);
         resultsContainer.getChildren().clear();
         statusLabel.setText("Enter your journey details and click Generate Routes");
         statusLabel.setTextFill(Color.web("#7f8c8d"));
@@ -5,6 +5,7 @@ import com.travelmanager.model.BusSchedule;
 import com.travelmanager.model.Route;
 import com.travelmanager.model.Schedule;
 import com.travelmanager.model.TrainSchedule;
+import com.travelmanager.util.LocationRegistry;
 import javafx.fxml.FXML;
 import javafx.scene.control.*;
 import javafx.scene.layout.HBox;
@@ -245,7 +246,7 @@ public class SummarizePlanController {
             Schedule next = schedules.get(i + 1);
             
             // Check if current destination matches next origin
-            if (!current.getDestination().equalsIgnoreCase(next.getOrigin())) {
+            if (!LocationRegistry.getInstance().sameLocation(current.getDestination(), next.getOrigin())) {
                 return "Invalid connection: Leg " + (i + 1) + " ends at " + current.getDestination() + 
                        " but Leg " + (i + 2) + " starts at " + next.getOrigin() + ".\n" +
                        "Each leg must start where the previous leg ended.";
@@ -0,0 +1,264 @@
+package com.travelmanager.domain;
+
+import com.travelmanager.model.Route;
+import com.travelmanager.model.Schedule;
+import com.travelmanager.model.TrainSchedule;
+import com.travelmanager.util.LocationRegistry;
+
+import java.time.LocalDate;
+import java.util.*;
+
+/**
+ * One day's schedules compiled once and shared by every journey engine
+ * The CSR graph is built eagerly; the route pattern index (RAPTOR, McRAPTOR), the
+ * connection array (CSA) and the legacy leg enumerator are built on first use.
+ * Cities are matched by LocationRegistry ID, so all engines accept the same spellings.
+ * Schedule changes produce a patched next version instead of a rebuild.
+ */
+public final class CompiledTimetable {
+
+    private final List<Schedule> schedules;
+    private final TimetableGraph graph;
+    private final Map<EngineType, JourneyEngine> engines = new EnumMap<>(EngineType.class);
+
+    private RoutePatternIndex patternIndex;
+    private ConnectionScanEngine connectionScan;
+    private LegacyRoutePlanner legacyPlanner;
+    private long[] reachable;     // Row per city, bit set for every city it can reach
+
+    public CompiledTimetable(List<Schedule> schedules) {
+        this.schedules = schedules != null ? new ArrayList<>(schedules) : new ArrayList<>();
+        this.graph = new TimetableGraph(this.schedules);
+        for (EngineType type : EngineType.values()) {
+            engines.put(type, createEngine(type));
+        }
+    }
+
+    private CompiledTimetable(CompiledTimetable base, List<Schedule> removed, List<Schedule> added) {
+        Set<String> removedIds = new HashSet<>();
+        for (Schedule schedule : removed) {
+            removedIds.add(schedule.getId());
+        }
+        this.schedules = new ArrayList<>(base.schedules.size() + added.size());
+        for (Schedule schedule : base.schedules) {
+            if (!removedIds.contains(schedule.getId())) {
+                this.schedules.add(schedule);
+            }
+        }
+        this.schedules.addAll(added);
+        this.graph = base.graph.patch(removed, added);
+        for (EngineType type : EngineType.values()) {
+            engines.put(type, createEngine(type));
+        }
+
+        // Rebuild what the previous version had built, so queries never pay for it
+        synchronized (base) {
+            if (base.patternIndex != null) {
+                patternIndex();
+            }
+            if (base.connectionScan != null) {
+                connectionScan();
+            }
+            if (base.legacyPlanner != null) {
+                legacyPlanner();
+            }
+            if (base.reachable != null) {
+                reachability();
+            }
+        }
+    }
+
+    /**
+     * Compile the schedules running on a date (trains not operating that day are dropped)
+     */
+    public static CompiledTimetable forDate(List<Schedule> schedules, LocalDate date) {
+        List<Schedule> available = new ArrayList<>();
+        for (Schedule schedule : schedules) {
+            if (schedule instanceof TrainSchedule && !((TrainSchedule) schedule).isAvailableOnDate(date)) {
+                continue;
+            }
+            available.add(schedule);
+        }
+        return new CompiledTimetable(available);
+    }
+
+    /**
+     * Key of a city for cache keys and tags, the same for every spelling of it
+     */
+    public static String cityKey(String city) {
+        return LocationRegistry.getInstance().key(city);
+    }
+
+    public List<Schedule> getSchedules() {
+        return Collections.unmodifiableList(schedules);
+    }
+
+    public TimetableGraph getGraph() {
+        return graph;
+    }
+
+    /**
+     * Version of the underlying graph, bumped by every patch
+     */
+    public long getVersion() {
+        return graph.getVersion();
+    }
+
+    /**
+     * Next version with some schedules replaced (matched by ID)
+     * The graph is patched in place of a rebuild; engine indexes that this version had
+     * built are rebuilt eagerly. This timetable itself is left unchanged.
+     * @param removed Schedules to drop
+     * @param added Schedules to add
+     */
+    public CompiledTimetable patch(List<Schedule> removed, List<Schedule> added) {
+        return new CompiledTimetable(this,
+            removed != null ? removed : Collections.emptyList(),
+            added != null ? added : Collections.emptyList());
+    }
+
+    /**
+     * Engine of the given type over this timetable
+     */
+    public JourneyEngine engine(EngineType type) {
+        return engines.get(type);
+    }
+
+    /**
+     * Answer a query with the engine it asks for
+     */
+    public List<Route> findRoutes(JourneyQuery query) {
+        return engine(query.getEngineType()).findRoutes(query);
+    }
+
+    /**
+     * Pareto front of (arrival time, fare, transfers) between two cities
+     */
+    public ParetoFront findParetoFront(String origin, String destination, int maxLegs) {
+        return new McRaptorEngine(patternIndex(), maxLegs)
+            .findParetoFront(origin, destination);
+    }
+
+    /**
+     * Whether any chain of schedules leads from one city to another
+     * Departure times and leg limits are ignored, so false means no engine can find a route.
+     * Answered from a reachability bitset computed once per timetable.
+     */
+    public boolean canReach(String origin, String destination) {
+        int from = graph.cityId(origin);
+        int to = graph.cityId(destination);
+        if (from < 0 || to < 0 || from == to) {
+            return false;
+        }
+        int words = (graph.cityCount() + 63) >>> 6;
+        return (reachability()[from * words + (to >>> 6)] & (1L << to)) != 0;
+    }
+
+    /**
+     * City keys a search between two cities can depend on
+     * A changed schedule can only alter the search's result if it leaves a city the origin
+     * reaches, or enters a city that reaches the destination, in fewer than maxLegs legs.
+     * Departure times are ignored, so the set errs on the side of too many cities.
+     */
+    public Set<String> dependencyCities(String origin, String destination, int maxLegs) {
+        Set<String> cities = new HashSet<>();
+        cities.add(cityKey(origin));
+        cities.add(cityKey(destination));
+        int originId = graph.cityId(origin);
+        int destinationId = graph.cityId(destination);
+        if (originId < 0 || destinationId < 0) {
+            return cities;
+        }
+        double[] fromOrigin = graph.hopsFrom(originId);
+        double[] toDestination = graph.lowerBoundsTo(destinationId, TimetableGraph.Bound.HOPS);
+        for (int city = 0; city < graph.cityCount(); city++) {
+            if (fromOrigin[city] < maxLegs || toDestination[city] < maxLegs) {
+                cities.add(cityKey(graph.cityName(city)));
+            }
+        }
+        return cities;
+    }
+
+    private JourneyEngine createEngine(EngineType type) {
+        switch (type) {
+            case LEGACY:
+                return this::findLegacyRoutes;
+            case RAPTOR:
+                return query -> new RaptorEngine(patternIndex(), query.getMaxLegs()).findRoutes(
+                    query.getOrigin(), query.getDestination(), query.getMaxRoutes());
+            case CSA:
+                return query -> connectionScan().findRoutes(query.getOrigin(), query.getDestination(),
+                    query.getMaxRoutes(), query.getMaxLegs());
+            case MC_RAPTOR:
+                return query -> new McRaptorEngine(patternIndex(), query.getMaxLegs()).findRoutes(
+                    query.getOrigin(), query.getDestination(),
+                    query.getCriteria(), query.getMaxRoutes());
+            case A_STAR:
+                return query -> findGraphRoutes(query, PathfindingEngine.SearchMode.A_STAR);
+            case DIJKSTRA:
+            default:
+                return query -> findGraphRoutes(query, PathfindingEngine.SearchMode.K_SHORTEST);
+        }
+    }
+
+    private List<Route> findGraphRoutes(JourneyQuery query, PathfindingEngine.SearchMode mode) {
+        PathfindingEngine engine = new PathfindingEngine(graph, query.getCriteria(), mode);
+        engine.setMaxLegs(query.getMaxLegs());
+        List<Route> routes = engine.findRoutes(query.getOrigin(), query.getDestination(), query.getMaxRoutes());
+        System.out.println(mode + " search expanded " + engine.getExpandedStates() + " states");
+        return routes;
+    }
+
+    private List<Route> findLegacyRoutes(JourneyQuery query) {
+        List<LegacyRoutePlanner.JourneyPlan> plans = legacyPlanner().findRoutes(query.getOrigin(),
+            query.getDestination(), Math.min(query.getMaxLegs(), 3), query.getMaxRoutes());
+        List<Route> routes = new ArrayList<>();
+        for (LegacyRoutePlanner.JourneyPlan plan : plans) {
+            Route route = new Route();
+            for (Schedule schedule : plan.getSchedules()) {
+                route.addSchedule(schedule);
+            }
+            routes.add(route);
+        }
+        return routes;
+    }
+
+    private synchronized RoutePatternIndex patternIndex() {
+        if (patternIndex == null) {
+            patternIndex = new RoutePatternIndex(schedules);
+        }
+        return patternIndex;
+    }
+
+    private synchronized ConnectionScanEngine connectionScan() {
+        if (connectionScan == null) {
+            connectionScan = new ConnectionScanEngine(schedules);
+        }
+        return connectionScan;
+    }
+
+    private synchronized long[] reachability() {
+        if (reachable == null) {
+            int cities = graph.cityCount();
+            int words = (cities + 63) >>> 6;
+            long[] bits = new long[cities * words];
+            for (int city = 0; city < cities; city++) {
+                double[] hops = graph.hopsFrom(city);
+                for (int other = 0; other < cities; other++) {
+                    if (other != city && !Double.isInfinite(hops[other])) {
+                        bits[city * words + (other >>> 6)] |= 1L << other;
+                    }
+                }
+            }
+            reachable = bits;
+        }
+        return reachable;
+    }
+
+    private synchronized LegacyRoutePlanner legacyPlanner() {
+        if (legacyPlanner == null) {
+            legacyPlanner = new LegacyRoutePlanner(graph);
+        }
+        return legacyPlanner;
+    }
+}
@@ -0,0 +1,420 @@
+package com.travelmanager.domain;
+
+import com.travelmanager.model.Route;
+import com.travelmanager.model.Schedule;
+import com.travelmanager.model.TrainSchedule;
+import com.travelmanager.util.Constants;
+import com.travelmanager.util.LocationRegistry;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Journey planner using the Connection Scan Algorithm (CSA)
+ * The day's schedules are compiled into elementary connections (one per hop between
+ * consecutive stops) held in parallel primitive arrays sorted by departure minute.
+ * An earliest-arrival query scans that array forward once per round: round k boards
+ * trips only at stops reached with k - 1 legs, so the legs of a journey can be bounded.
+ */
+public class ConnectionScanEngine {
+
+    private static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final long baseMinute;
+    // LocationRegistry ID -> stop ID, -1 where no connection touches the location
+    private int[] stopByLocation = new int[0];
+    private int stopCount;
+
+    // Connection c: depStop[c] -> arrStop[c], departing depTime[c], arriving arrTime[c] on trip[c]
+    private final int[] depStop;
+    private final int[] arrStop;
+    private final int[] depTime;
+    private final int[] arrTime;
+    private final int[] trip;
+    private final int[] tripPosition;  // Index of depStop within the trip's stops
+
+    private final Schedule[] tripSchedules;
+
+    public ConnectionScanEngine(List<Schedule> schedules) {
+        if (schedules == null) {
+            schedules = Collections.emptyList();
+        }
+        long base = Long.MAX_VALUE;
+        int connectionCount = 0;
+        for (Schedule schedule : schedules) {
+            base = Math.min(base, toEpochMinute(schedule.getDepartureTime().toLocalDate().atStartOfDay()));
+            connectionCount += Math.max(1, stopsOf(schedule).size() - 1);
+        }
+        this.baseMinute = schedules.isEmpty() ? 0 : base;
+
+        // Step 1: Expand every schedule into elementary connections
+        int[] rawDepStop = new int[connectionCount];
+        int[] rawArrStop = new int[connectionCount];
+        int[] rawDepTime = new int[connectionCount];
+        int[] rawArrTime = new int[connectionCount];
+        int[] rawTrip = new int[connectionCount];
+        int[] rawPosition = new int[connectionCount];
+        this.tripSchedules = schedules.toArray(new Schedule[0]);
+
+        int c = 0;
+        for (int t = 0; t < tripSchedules.length; t++) {
+            Schedule schedule = tripSchedules[t];
+            List<TrainSchedule.StopTime> stops = stopsOf(schedule);
+            if (stops.size() >= 2) {
+                for (int i = 0; i + 1 < stops.size(); i++) {
+                    rawDepStop[c] = intern(stops.get(i).getStation());
+                    rawArrStop[c] = intern(stops.get(i + 1).getStation());
+                    rawDepTime[c] = toMinute(stops.get(i).getDepartureTime());
+                    rawArrTime[c] = toMinute(stops.get(i + 1).getArrivalTime());
+                    rawTrip[c] = t;
+                    rawPosition[c] = i;
+                    c++;
+                }
+            } else {
+                rawDepStop[c] = intern(schedule.getOrigin());
+                rawArrStop[c] = intern(schedule.getDestination());
+                rawDepTime[c] = toMinute(schedule.getDepartureTime());
+                rawArrTime[c] = toMinute(schedule.getArrivalTime());
+                rawTrip[c] = t;
+                rawPosition[c] = 0;
+                c++;
+            }
+        }
+
+        // Step 2: Sort by departure via packed keys (ties keep trip order), and lay arrays out in that order
+        long[] order = new long[connectionCount];
+        for (int i = 0; i < connectionCount; i++) {
+            order[i] = ((long) rawDepTime[i] << 32) | i;
+        }
+        Arrays.sort(order);
+
+        this.depStop = new int[connectionCount];
+        this.arrStop = new int[connectionCount];
+        this.depTime = new int[connectionCount];
+        this.arrTime = new int[connectionCount];
+        this.trip = new int[connectionCount];
+        this.tripPosition = new int[connectionCount];
+        for (int i = 0; i < connectionCount; i++) {
+            int source = (int) order[i];
+            depStop[i] = rawDepStop[source];
+            arrStop[i] = rawArrStop[source];
+            depTime[i] = rawDepTime[source];
+            arrTime[i] = rawArrTime[source];
+            trip[i] = rawTrip[source];
+            tripPosition[i] = rawPosition[source];
+        }
+    }
+
+    private static List<TrainSchedule.StopTime> stopsOf(Schedule schedule) {
+        if (schedule instanceof TrainSchedule) {
+            return ((TrainSchedule) schedule).getStops();
+        }
+        return Collections.emptyList();
+    }
+
+    private int intern(String city) {
+        int location = LocationRegistry.getInstance().intern(city);
+        if (location >= stopByLocation.length) {
+            int length = stopByLocation.length;
+            stopByLocation = Arrays.copyOf(stopByLocation, Math.max(location + 1, length * 2));
+            Arrays.fill(stopByLocation, length, stopByLocation.length, -1);
+        }
+        if (stopByLocation[location] < 0) {
+            stopByLocation[location] = stopCount++;
+        }
+        return stopByLocation[location];
+    }
+
+    /**
+     * Stop ID for a city name (any spelling LocationRegistry knows), or -1 if no connection serves it
+     */
+    private int stopId(String city) {
+        int location = LocationRegistry.getInstance().lookup(city);
+        return location >= 0 && location < stopByLocation.length ? stopByLocation[location] : -1;
+    }
+
+    /**
+     * Number of elementary connections in the compiled timetable
+     */
+    public int getConnectionCount() {
+        return depTime.length;
+    }
+
+    /**
+     * Find multiple routes between origin and destination, with any number of legs
+     * @param origin Starting city
+     * @param destination Destination city
+     * @param maxRoutes Maximum number of routes to return
+     * @return Routes sorted by total travel time
+     */
+    public List<Route> findRoutes(String origin, String destination, int maxRoutes) {
+        return findRoutes(origin, destination, maxRoutes, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Find multiple routes between origin and destination
+     * Repeats the earliest-arrival scan, each time departing after the previous journey,
+     * and keeps the journeys not dominated on departure and arrival time.
+     * @param origin Starting city
+     * @param destination Destination city
+     * @param maxRoutes Maximum number of routes to return
+     * @param maxLegs Maximum legs per journey
+     * @return Routes sorted by total travel time
+     */
+    public List<Route> findRoutes(String origin, String destination, int maxRoutes, int maxLegs) {
+        int originStop = stopId(origin);
+        int destinationStop = stopId(destination);
+        if (originStop < 0) {
+            System.err.println("Origin city not found in timetable: " + origin);
+            return new ArrayList<>();
+        }
+        if (destinationStop < 0) {
+            System.err.println("Destination city not found in timetable: " + destination);
+            return new ArrayList<>();
+        }
+        if (originStop == destinationStop) {
+            return new ArrayList<>();
+        }
+
+        ScanState state = new ScanState(maxLegs);
+        List<Journey> journeys = new ArrayList<>();
+        int departAfter = Integer.MIN_VALUE;
+        while (journeys.size() < maxRoutes * 2) {
+            Journey journey = scan(state, originStop, destinationStop, departAfter);
+            if (journey == null) {
+                break;
+            }
+            // A later departure with the same arrival replaces the earlier one
+            journeys.removeIf(j -> j.arrival >= journey.arrival);
+            journeys.add(journey);
+            departAfter = journey.departure + 1;
+        }
+
+        journeys.sort(Comparator.comparingInt(Journey::duration)
+            .thenComparingInt(j -> j.legs.size()));
+
+        List<Route> routes = new ArrayList<>();
+        for (Journey journey : journeys.subList(0, Math.min(maxRoutes, journeys.size()))) {
+            Route route = new Route();
+            for (Schedule leg : journey.legs) {
+                route.addSchedule(leg);
+            }
+            routes.add(route);
+        }
+        return routes;
+    }
+
+    /**
+     * Earliest-arrival query: the journey reaching the destination soonest
+     * @param origin Starting city
+     * @param destination Destination city
+     * @param departAfter Earliest time the traveller can leave the origin
+     * @return Route with the earliest arrival, or null if the destination is unreachable
+     */
+    public Route findEarliestArrival(String origin, String destination, LocalDateTime departAfter) {
+        int originStop = stopId(origin);
+        int destinationStop = stopId(destination);
+        if (originStop < 0 || destinationStop < 0 || originStop == destinationStop) {
+            return null;
+        }
+
+        Journey journey = scan(new ScanState(Integer.MAX_VALUE), originStop, destinationStop, toMinute(departAfter));
+        if (journey == null) {
+            return null;
+        }
+        Route route = new Route();
+        for (Schedule leg : journey.legs) {
+            route.addSchedule(leg);
+        }
+        return route;
+    }
+
+    /**
+     * Earliest arrival within the state's leg limit, one linear scan of the connection
+     * array per round from the first departure at or after departAfter
+     */
+    private Journey scan(ScanState state, int origin, int destination, int departAfter) {
+        state.reset(origin, departAfter);
+        int[] boardedAt = state.boardedAt;
+        int maxLayover = Constants.MAX_LAYOVER_HOURS * 60;
+        int first = firstDepartureAtOrAfter(departAfter);
+
+        int rounds = 0;
+        for (int k = 1; k <= state.maxRounds; k++) {
+            state.beginRound(k);
+            int[] previous = state.earliest[k - 1];
+            int[] earliest = state.earliest[k];
+            int[] labelRound = state.labelRound[k];
+            int[] enterConnection = state.enterConnection[k];
+            int[] exitConnection = state.exitConnection[k];
+            boolean improved = false;
+
+            for (int c = first; c < depTime.length; c++) {
+                // Nothing departing after the best arrival can improve it
+                if (depTime[c] >= earliest[destination]) {
+                    break;
+                }
+
+                int t = trip[c];
+                if (boardedAt[t] < 0) {
+                    // Board only where the previous round arrived
+                    int from = depStop[c];
+                    int reached = previous[from];
+                    if (reached == UNREACHED) {
+                        continue;
+                    }
+                    if (from == origin) {
+                        if (depTime[c] < reached) {
+                            continue;
+                        }
+                    } else if (depTime[c] < reached + Constants.MIN_CONNECTION_TIME_MINUTES
+                            || depTime[c] - reached > maxLayover) {
+                        continue;
+                    }
+                    boardedAt[t] = c;
+                }
+
+                int to = arrStop[c];
+                if (arrTime[c] < earliest[to]) {
+                    earliest[to] = arrTime[c];
+                    labelRound[to] = k;
+                    enterConnection[to] = boardedAt[t];
+                    exitConnection[to] = c;
+                    improved = true;
+                }
+            }
+            rounds = k;
+            if (!improved) {
+                break;  // Later rounds would board from the same labels
+            }
+        }
+
+        if (rounds == 0 || state.earliest[rounds][destination] == UNREACHED) {
+            return null;
+        }
+        return extractJourney(state, origin, destination, rounds);
+    }
+
+    /**
+     * Walk the enter/exit connection pointers back from the destination, one round per leg
+     */
+    private Journey extractJourney(ScanState state, int origin, int destination, int rounds) {
+        LinkedList<Schedule> legs = new LinkedList<>();
+        int stop = destination;
+        int departure = 0;
+        for (int k = rounds; stop != origin; k--) {
+            k = k > 0 ? state.labelRound[k][stop] : -1;
+            if (k <= 0) {
+                return null;
+            }
+            int enter = state.enterConnection[k][stop];
+            int exit = state.exitConnection[k][stop];
+            legs.addFirst(legSchedule(enter, exit));
+            departure = depTime[enter];
+            stop = depStop[enter];
+        }
+        return new Journey(legs, departure, state.earliest[rounds][destination]);
+    }
+
+    /**
+     * Schedule for riding one trip from the enter connection to the exit connection
+     */
+    private Schedule legSchedule(int enter, int exit) {
+        Schedule schedule = tripSchedules[trip[enter]];
+        if (schedule instanceof TrainSchedule) {
+            TrainSchedule train = (TrainSchedule) schedule;
+            int from = tripPosition[enter];
+            int to = tripPosition[exit] + 1;
+            if (train.getStops().size() >= 2 && (from > 0 || to < train.getStops().size() - 1)) {
+                return train.segment(from, to);
+            }
+        }
+        return schedule;
+    }
+
+    private int firstDepartureAtOrAfter(int minute) {
+        int low = 0;
+        int high = depTime.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (depTime[mid] < minute) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    private int toMinute(LocalDateTime time) {
+        return (int) (toEpochMinute(time) - baseMinute);
+    }
+
+    private static long toEpochMinute(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    /**
+     * Per-query labels by round, reused across the repeated scans of findRoutes
+     * Round k holds the earliest arrival with at most k legs; labelRound gives the round
+     * whose enter/exit pointers produced it. Rounds are allocated as a scan reaches them.
+     */
+    private class ScanState {
+        final int maxRounds;
+        int[][] earliest = new int[1][stopCount];
+        int[][] labelRound = new int[1][stopCount];
+        int[][] enterConnection = new int[1][];
+        int[][] exitConnection = new int[1][];
+        final int[] boardedAt = new int[tripSchedules.length];
+
+        ScanState(int maxLegs) {
+            this.maxRounds = Math.max(0, Math.min(maxLegs, stopCount));
+        }
+
+        void reset(int origin, int departAfter) {
+            Arrays.fill(earliest[0], UNREACHED);
+            Arrays.fill(labelRound[0], -1);
+            earliest[0][origin] = departAfter;
+            labelRound[0][origin] = 0;
+        }
+
+        /**
+         * Start round k from the labels of round k - 1
+         */
+        void beginRound(int k) {
+            if (k >= earliest.length) {
+                earliest = Arrays.copyOf(earliest, k + 1);
+                labelRound = Arrays.copyOf(labelRound, k + 1);
+                enterConnection = Arrays.copyOf(enterConnection, k + 1);
+                exitConnection = Arrays.copyOf(exitConnection, k + 1);
+                earliest[k] = new int[stopCount];
+                labelRound[k] = new int[stopCount];
+                enterConnection[k] = new int[stopCount];
+                exitConnection[k] = new int[stopCount];
+            }
+            System.arraycopy(earliest[k - 1], 0, earliest[k], 0, stopCount);
+            System.arraycopy(labelRound[k - 1], 0, labelRound[k], 0, stopCount);
+            Arrays.fill(boardedAt, -1);
+        }
+    }
+
+    /**
+     * Journey extracted from a scan
+     */
+    private static class Journey {
+        final List<Schedule> legs;
+        final int departure;
+        final int arrival;
+
+        Journey(List<Schedule> legs, int departure, int arrival) {
+            this.legs = legs;
+            this.departure = departure;
+            this.arrival = arrival;
+        }
+
+        int duration() {
+            return arrival - departure;
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package com.travelmanager.domain;
+
+/**
+ * Journey planning engines available to route searches
+ */
+public enum EngineType {
+    LEGACY,     // Enumerates every 1-3 leg chain, as the original route generator did
+    DIJKSTRA,   // Exact k-shortest loop-free journeys over the schedule graph (PathfindingEngine)
+    A_STAR,     // Goal-directed search with lower-bound heuristics (PathfindingEngine)
+    RAPTOR,     // Round-based search over route patterns (RaptorEngine)
+    CSA,        // Single scan over time-sorted connections (ConnectionScanEngine)
+    MC_RAPTOR   // Pareto front of time, fare and transfers (McRaptorEngine)
+}
@@ -0,0 +1,19 @@
+package com.travelmanager.domain;
+
+import com.travelmanager.model.Route;
+
+import java.util.List;
+
+/**
+ * Journey planner over a compiled timetable
+ * Every engine answers the same JourneyQuery, so callers pick one per query.
+ */
+public interface JourneyEngine {
+
+    /**
+     * Find routes for a query
+     * @param query Origin, destination, criteria and limits
+     * @return Up to query.getMaxRoutes() routes in the engine's own order
+     */
+    List<Route> findRoutes(JourneyQuery query);
+}
@@ -0,0 +1,62 @@
+package com.travelmanager.domain;
+
+import com.travelmanager.util.Constants;
+
+/**
+ * Immutable journey search request: where to go, which engine to use and how many routes to return
+ */
+public final class JourneyQuery {
+
+    private final String origin;
+    private final String destination;
+    private final EngineType engineType;
+    private final PathfindingEngine.OptimizationCriteria criteria;
+    private final int maxLegs;
+    private final int maxRoutes;
+
+    public JourneyQuery(String origin, String destination, EngineType engineType,
+                        PathfindingEngine.OptimizationCriteria criteria) {
+        this(origin, destination, engineType, criteria, Constants.MAX_ROUTE_HOPS, Constants.DEFAULT_MAX_ROUTES);
+    }
+
+    /**
+     * @param origin Starting city
+     * @param destination Destination city
+     * @param engineType Engine answering the query
+     * @param criteria Optimization criteria
+     * @param maxLegs Maximum legs per route
+     * @param maxRoutes Maximum number of routes to return
+     */
+    public JourneyQuery(String origin, String destination, EngineType engineType,
+                        PathfindingEngine.OptimizationCriteria criteria, int maxLegs, int maxRoutes) {
+        if (maxLegs < 1 || maxRoutes < 1) {
+            throw new IllegalArgumentException("maxLegs and maxRoutes must be positive");
+        }
+        this.origin = origin;
+        this.destination = destination;
+        this.engineType = engineType != null ? engineType : EngineType.DIJKSTRA;
+        this.criteria = criteria != null ? criteria : PathfindingEngine.OptimizationCriteria.SHORTEST_TIME;
+        this.maxLegs = maxLegs;
+        this.maxRoutes = maxRoutes;
+    }
+
+    public String getOrigin() { return origin; }
+    public String getDestination() { return destination; }
+    public EngineType getEngineType() { return engineType; }
+    public PathfindingEngine.OptimizationCriteria getCriteria() { return criteria; }
+    public int getMaxLegs() { return maxLegs; }
+    public int getMaxRoutes() { return maxRoutes; }
+
+    /**
+     * Same query answered by another engine
+     */
+    public JourneyQuery withEngine(EngineType engineType) {
+        return new JourneyQuery(origin, destination, engineType, criteria, maxLegs, maxRoutes);
+    }
+
+    @Override
+    public String toString() {
+        return origin + " → " + destination + " [" + engineType + ", " + criteria
+            + ", ≤" + maxLegs + " legs, " + maxRoutes + " routes]";
+    }
+}
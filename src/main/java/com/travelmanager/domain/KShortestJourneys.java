@@ -0,0 +1,331 @@
+package com.travelmanager.domain;
+
+import java.util.Arrays;
+
+/**
+ * Yen's k-shortest loop-free journeys over a TimetableGraph
+ * A journey is a sequence of edges where each edge leaves inside the connection window
+ * of the previous one, so the spur search runs A* over (edge, depth) states.
+ * A spur label carries its path, so loops are rejected as soon as an edge is relaxed.
+ * A state may hold several labels: a new one is dropped only if another label there costs
+ * no more and visited a subset of its cities, which keeps every loop-free completion open
+ * and makes the k journeys exact.
+ * Lawler's refinement restarts spur searches only from the deviation point of the
+ * previous journey, and the candidate set is capped at the number of journeys still
+ * needed so hopeless spurs are cut off by cost.
+ * Journeys live in a primitive pool kept by the thread's workspace, so a warmed-up
+ * query allocates nothing.
+ */
+final class KShortestJourneys {
+
+    private TimetableGraph graph;
+    private double[] edgeCost;
+    private double[] estimate;     // Admissible remaining cost per city
+    private double[] hopsLeft;     // Minimum legs to the destination per city
+    private int maxHops;
+
+    // Spur searches label states edge * (maxHops + 1) + depth with the thread's path nodes
+    private final SearchWorkspace workspace;
+    private int stateCount;
+    private int expandedStates;
+
+    // Journey pool: edges of journey j are journeyEdges[journeyStart[j] .. journeyStart[j] + journeyLegs[j])
+    private int journeyCount;
+    private int[] journeyStart = new int[16];
+    private int[] journeyLegs = new int[16];
+    private double[] journeyCost = new double[16];
+    private int[] journeyDeviation = new int[16];
+    private int[] journeyEdges = new int[64];
+
+    // Accepted journeys in order, and candidates sorted by cost (at most k - accepted)
+    private int acceptedCount;
+    private int[] accepted = new int[16];
+    private int candidateCount;
+    private int[] candidates = new int[16];
+
+    /**
+     * Yen state of a thread, reused across queries (see SearchWorkspace.yen)
+     */
+    KShortestJourneys(SearchWorkspace workspace) {
+        this.workspace = workspace;
+    }
+
+    /**
+     * Point the next queries at a graph and weighting
+     * @param graph Compiled timetable
+     * @param edgeCost Non-negative cost per edge
+     * @param estimate Lower bound on the remaining cost from each city to the destination
+     * @param hopsLeft Lower bound on the legs from each city to the destination
+     * @param maxHops Maximum legs per journey
+     */
+    void prepare(TimetableGraph graph, double[] edgeCost, double[] estimate, double[] hopsLeft, int maxHops) {
+        this.graph = graph;
+        this.edgeCost = edgeCost;
+        this.estimate = estimate;
+        this.hopsLeft = hopsLeft;
+        this.maxHops = maxHops;
+        this.stateCount = graph.edgeCount() * (maxHops + 1);
+    }
+
+    /**
+     * Find up to k journeys in non-decreasing cost order
+     * Read them back with legs(i) and edge(i, leg) until the next call.
+     * @return Number of journeys found
+     */
+    int find(int origin, int destination, int k) {
+        journeyCount = 0;
+        acceptedCount = 0;
+        candidateCount = 0;
+        expandedStates = 0;
+        if (k <= 0 || origin == destination || Double.isInfinite(hopsLeft[origin])) {
+            return 0;
+        }
+
+        SearchWorkspace.StampedSet bannedCity = workspace.bannedCities;
+        SearchWorkspace.StampedSet bannedEdges = workspace.bannedEdges;
+        bannedCity.clear(graph.cityCount());
+        bannedCity.add(origin);
+        bannedEdges.clear(graph.edgeCount());
+        int first = spur(origin, -1, 0.0, -1, 0, destination, Double.POSITIVE_INFINITY);
+        if (first < 0) {
+            return 0;
+        }
+        accept(first);
+
+        while (acceptedCount < k) {
+            int previous = accepted[acceptedCount - 1];
+            int previousStart = journeyStart[previous];
+            int needed = k - acceptedCount;
+
+            // Deviate from each node of the previous journey at or after its own deviation point
+            for (int i = journeyDeviation[previous]; i < journeyLegs[previous]; i++) {
+                bannedCity.clear(graph.cityCount());
+                bannedCity.add(origin);
+                double rootCost = 0.0;
+                for (int j = 0; j < i; j++) {
+                    bannedCity.add(graph.target(journeyEdges[previousStart + j]));
+                    rootCost += edgeCost[journeyEdges[previousStart + j]];
+                }
+                int fromEdge = i == 0 ? -1 : journeyEdges[previousStart + i - 1];
+                int spurCity = i == 0 ? origin : graph.target(fromEdge);
+                if (i + hopsLeft[spurCity] > maxHops) {
+                    continue;
+                }
+
+                // Edges already taken from this root by accepted journeys are off limits
+                bannedEdges.clear(graph.edgeCount());
+                for (int a = 0; a < acceptedCount; a++) {
+                    int journey = accepted[a];
+                    if (journeyLegs[journey] > i && sharesRoot(journey, previous, i)) {
+                        bannedEdges.add(journeyEdges[journeyStart[journey] + i]);
+                    }
+                }
+
+                // Anything costlier than the worst candidate we could still use is pointless
+                double bound = candidateCount >= needed
+                    ? journeyCost[candidates[needed - 1]]
+                    : Double.POSITIVE_INFINITY;
+                int candidate = spur(spurCity, fromEdge, rootCost, previous, i, destination, bound);
+                if (candidate < 0) {
+                    continue;
+                }
+                if (isQueued(candidate)) {
+                    journeyCount--;     // Only the newest journey can be dropped from the pool
+                    continue;
+                }
+                insertCandidate(candidate, needed);
+            }
+
+            if (candidateCount == 0) {
+                break;
+            }
+            accept(candidates[0]);
+            candidateCount--;
+            System.arraycopy(candidates, 1, candidates, 0, candidateCount);
+        }
+        return acceptedCount;
+    }
+
+    /**
+     * Legs of the i-th journey found by the last find call
+     */
+    int legs(int i) {
+        return journeyLegs[accepted[i]];
+    }
+
+    /**
+     * Edge taken on a leg of the i-th journey found by the last find call
+     */
+    int edge(int i, int leg) {
+        return journeyEdges[journeyStart[accepted[i]] + leg];
+    }
+
+    /**
+     * States taken off the queue by the spur searches of the last find call
+     */
+    int getExpandedStates() {
+        return expandedStates;
+    }
+
+    private void accept(int journey) {
+        if (acceptedCount == accepted.length) {
+            accepted = Arrays.copyOf(accepted, acceptedCount * 2);
+        }
+        accepted[acceptedCount++] = journey;
+    }
+
+    private void insertCandidate(int candidate, int limit) {
+        int position = 0;
+        while (position < candidateCount && journeyCost[candidates[position]] <= journeyCost[candidate]) {
+            position++;
+        }
+        if (position >= limit) {
+            return;
+        }
+        if (candidateCount == candidates.length) {
+            candidates = Arrays.copyOf(candidates, candidateCount * 2);
+        }
+        System.arraycopy(candidates, position, candidates, position + 1, candidateCount - position);
+        candidates[position] = candidate;
+        candidateCount = Math.min(candidateCount + 1, limit);
+    }
+
+    /**
+     * True if a journey with the same edges is already accepted or a candidate
+     */
+    private boolean isQueued(int journey) {
+        for (int a = 0; a < acceptedCount; a++) {
+            if (sameEdges(accepted[a], journey)) {
+                return true;
+            }
+        }
+        for (int c = 0; c < candidateCount; c++) {
+            if (sameEdges(candidates[c], journey)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean sameEdges(int journey, int other) {
+        return journeyLegs[journey] == journeyLegs[other] && sharesRoot(journey, other, journeyLegs[journey]);
+    }
+
+    private boolean sharesRoot(int journey, int other, int length) {
+        int start = journeyStart[journey];
+        int otherStart = journeyStart[other];
+        for (int i = 0; i < length; i++) {
+            if (journeyEdges[start + i] != journeyEdges[otherStart + i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Cheapest loop-free completion from a spur city (A* over edge states)
+     * @param fromEdge Edge that arrived at the spur city, or -1 at the origin
+     * @param rootJourney Journey whose first `depth` edges form the root path, or -1 at the origin
+     * @param depth Legs already in the root path
+     * @return New journey in the pool, or -1 if none is cheaper than the bound
+     */
+    private int spur(int spurCity, int fromEdge, double rootCost, int rootJourney, int depth, int destination,
+                     double bound) {
+        workspace.beginStateLabels(stateCount);
+        SearchWorkspace.IndexedHeap queue = workspace.heap;
+        SearchWorkspace.StampedSet bannedCity = workspace.bannedCities;
+        int root = workspace.addNode(rootCost, spurCity, fromEdge, -1);
+        queue.offer(root, rootCost);
+
+        while (!queue.isEmpty()) {
+            int node = queue.poll();
+            expandedStates++;
+            int city = workspace.nodeCity[node];
+            int legs = depth + workspace.nodeDepth[node];
+            double cost = workspace.nodeCost[node];
+            if (city == destination && node != root) {
+                return addJourney(node, rootJourney, depth, legs, cost);
+            }
+            if (legs >= maxHops) {
+                continue;
+            }
+
+            int edge = workspace.nodeEdge[node];
+            int first = edge < 0 ? graph.firstEdge(city) : graph.connectionWindowStart(edge);
+            int end = edge < 0 ? graph.endEdge(city) : graph.connectionWindowEnd(edge);
+            for (int next = first; next < end; next++) {
+                int target = graph.target(next);
+                if (bannedCity.contains(target) || workspace.nodeVisits(node, target)) {
+                    continue;
+                }
+                if (node == root && workspace.bannedEdges.contains(next)) {
+                    continue;
+                }
+                relax(node, next, legs + 1, cost + edgeCost[next], bound);
+            }
+        }
+        return -1;
+    }
+
+    private void relax(int from, int edge, int legs, double cost, double bound) {
+        int target = graph.target(edge);
+        if (legs + hopsLeft[target] > maxHops) {
+            return;
+        }
+        double priority = cost + estimate[target];
+        if (priority > bound) {
+            return;
+        }
+        int state = edge * (maxHops + 1) + legs;
+        for (int other = workspace.firstNodeAt(state); other >= 0; other = workspace.nodeNextAtState[other]) {
+            if (workspace.nodeCost[other] <= cost && visitsOnlyCitiesOf(other, from)) {
+                return;
+            }
+        }
+        int node = workspace.addNode(cost, target, edge, from);
+        workspace.addNodeAt(state, node);
+        workspace.heap.offer(node, priority);
+    }
+
+    /**
+     * True if every city on a label's spur path is also on the path to a node
+     * (both paths end on the same edge, and share the spur city at the root)
+     */
+    private boolean visitsOnlyCitiesOf(int label, int node) {
+        for (int n = workspace.nodeParent[label]; workspace.nodeParent[n] >= 0; n = workspace.nodeParent[n]) {
+            if (!workspace.nodeVisits(node, workspace.nodeCity[n])) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Pool a journey made of the root path of another and the spur path ending in a node
+     */
+    private int addJourney(int node, int rootJourney, int depth, int legs, double cost) {
+        if (journeyCount == journeyStart.length) {
+            int capacity = journeyCount * 2;
+            journeyStart = Arrays.copyOf(journeyStart, capacity);
+            journeyLegs = Arrays.copyOf(journeyLegs, capacity);
+            journeyCost = Arrays.copyOf(journeyCost, capacity);
+            journeyDeviation = Arrays.copyOf(journeyDeviation, capacity);
+        }
+        int journey = journeyCount++;
+        int start = journey == 0 ? 0 : journeyStart[journey - 1] + journeyLegs[journey - 1];
+        if (start + legs > journeyEdges.length) {
+            journeyEdges = Arrays.copyOf(journeyEdges, Math.max(start + legs, journeyEdges.length * 2));
+        }
+        journeyStart[journey] = start;
+        journeyLegs[journey] = legs;
+        journeyCost[journey] = cost;
+        journeyDeviation[journey] = depth;
+        if (depth > 0) {
+            System.arraycopy(journeyEdges, journeyStart[rootJourney], journeyEdges, start, depth);
+        }
+        for (int n = node; workspace.nodeParent[n] >= 0; n = workspace.nodeParent[n]) {
+            journeyEdges[start + depth + workspace.nodeDepth[n] - 1] = workspace.nodeEdge[n];
+        }
+        return journey;
+    }
+}
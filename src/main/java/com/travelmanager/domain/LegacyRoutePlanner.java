@@ -0,0 +1,376 @@
+package com.travelmanager.domain;
+
+import com.travelmanager.model.Schedule;
+import com.travelmanager.util.Constants;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+
+/**
+ * Legacy route planner: enumerates the 1-3 leg chains of the transportation network
+ * Nodes: Cities/Districts
+ * Edges: Available routes (trains/buses) with time and fare weights
+ * Searches run over the int-indexed TimetableGraph; RouteEdge objects are only handed out in plans.
+ */
+public class LegacyRoutePlanner {
+    
+    // Compiled graph over normalized city names
+    private TimetableGraph timetable;
+    
+    // Edge view per timetable edge index
+    private RouteEdge[] edges;
+    
+    /**
+     * Graph over an already compiled timetable, e.g. one shared with other engines
+     */
+    public LegacyRoutePlanner(TimetableGraph timetable) {
+        this.timetable = timetable;
+        buildGraph();
+    }
+    
+    /**
+     * Build the edge views over the compiled timetable
+     */
+    private void buildGraph() {
+        this.edges = new RouteEdge[timetable.edgeCount()];
+        for (int e = 0; e < edges.length; e++) {
+            Schedule schedule = timetable.schedule(e);
+            edges[e] = new RouteEdge(
+                timetable.cityName(timetable.source(e)),
+                timetable.cityName(timetable.target(e)),
+                schedule,
+                timetable.durationMinutes(e),
+                schedule.getFare()
+            );
+        }
+    }
+    
+    /**
+     * Find the first page of routes (direct and multi-leg) from origin to destination
+     * @param origin Starting city
+     * @param destination Target city
+     * @param maxLegs Maximum number of legs allowed (1-3)
+     * @return Up to Constants.DEFAULT_MAX_ROUTES journey plans, sorted by total time
+     */
+    public List<JourneyPlan> findRoutes(String origin, String destination, int maxLegs) {
+        return findRoutes(origin, destination, maxLegs, Constants.DEFAULT_MAX_ROUTES);
+    }
+    
+    /**
+     * Find the fastest routes (direct and multi-leg) from origin to destination
+     * Only the best `limit` plans are kept, in a size-limited heap; partial plans that
+     * are already slower than the slowest kept plan, or slower and dearer than any kept
+     * plan, are not extended. Plans dominated on both total time and fare are dropped.
+     * @param origin Starting city
+     * @param destination Target city
+     * @param maxLegs Maximum number of legs allowed (1-3)
+     * @param limit Maximum number of plans to return
+     * @return Non-dominated journey plans, sorted by total time
+     */
+    public List<JourneyPlan> findRoutes(String origin, String destination, int maxLegs, int limit) {
+        int originId = timetable.cityId(origin);
+        int destinationId = timetable.cityId(destination);
+        
+        List<JourneyPlan> plans = new ArrayList<>();
+        if (originId < 0 || destinationId < 0 || limit <= 0) {
+            return plans;
+        }
+        
+        TopPlans top = collectPlans(originId, destinationId, maxLegs, limit);
+        if (top.mayHaveLostPlans()) {
+            // A later plan dominated kept ones after the bound had cut others off, so a
+            // cut plan may belong in the result; redo without the bound (dominance alone
+            // keeps the set small)
+            top = collectPlans(originId, destinationId, maxLegs, Integer.MAX_VALUE);
+        }
+        
+        for (int[] legs : top.sorted(limit)) {
+            JourneyPlan plan = new JourneyPlan();
+            for (int edge : legs) {
+                plan.addLeg(edges[edge]);
+            }
+            plans.add(plan);
+        }
+        return plans;
+    }
+    
+    private TopPlans collectPlans(int origin, int destination, int maxLegs, int limit) {
+        TopPlans top = new TopPlans(timetable, limit);
+        
+        // Find direct routes (1 leg)
+        for (int e = timetable.firstEdge(origin); e < timetable.endEdge(origin); e++) {
+            if (timetable.target(e) == destination) {
+                top.offer(e);
+            }
+        }
+        
+        // If maxLegs > 1, find multi-leg routes
+        if (maxLegs >= 2) {
+            find2LegRoutes(origin, destination, top);
+        }
+        
+        if (maxLegs >= 3) {
+            find3LegRoutes(origin, destination, top);
+        }
+        return top;
+    }
+    
+    /**
+     * Find 2-leg routes
+     */
+    private void find2LegRoutes(int origin, int destination, TopPlans top) {
+        for (int first = timetable.firstEdge(origin); first < timetable.endEdge(origin); first++) {
+            int transferCity = timetable.target(first);
+            
+            // Don't go back to origin or already at destination
+            if (transferCity == origin || transferCity == destination) {
+                continue;
+            }
+            long start = timetable.departureMinute(first);
+            if (top.prunes(timetable.arrivalMinute(first) - start, timetable.fare(first))) {
+                continue;
+            }
+            
+            // Only departures inside the connection window can be valid
+            int windowEnd = timetable.connectionWindowEnd(first);
+            for (int second = timetable.connectionWindowStart(first); second < windowEnd; second++) {
+                if (top.outOfBound(timetable.departureMinute(second) - start)) {
+                    break; // Later departures only get slower
+                }
+                if (timetable.target(second) == destination) {
+                    top.offer(first, second);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Find 3-leg routes
+     */
+    private void find3LegRoutes(int origin, int destination, TopPlans top) {
+        for (int first = timetable.firstEdge(origin); first < timetable.endEdge(origin); first++) {
+            int transfer1 = timetable.target(first);
+            if (transfer1 == origin || transfer1 == destination) continue;
+            long start = timetable.departureMinute(first);
+            if (top.prunes(timetable.arrivalMinute(first) - start, timetable.fare(first))) {
+                continue;
+            }
+            
+            int secondEnd = timetable.connectionWindowEnd(first);
+            for (int second = timetable.connectionWindowStart(first); second < secondEnd; second++) {
+                if (top.outOfBound(timetable.departureMinute(second) - start)) {
+                    break;
+                }
+                int transfer2 = timetable.target(second);
+                if (transfer2 == origin || transfer2 == transfer1 || transfer2 == destination) {
+                    continue;
+                }
+                if (top.prunes(timetable.arrivalMinute(second) - start,
+                               timetable.fare(first) + timetable.fare(second))) {
+                    continue;
+                }
+                
+                int thirdEnd = timetable.connectionWindowEnd(second);
+                for (int third = timetable.connectionWindowStart(second); third < thirdEnd; third++) {
+                    if (top.outOfBound(timetable.departureMinute(third) - start)) {
+                        break;
+                    }
+                    if (timetable.target(third) == destination) {
+                        top.offer(first, second, third);
+                    }
+                }
+            }
+        }
+    }
+    
+    /**
+     * Bounded collection of the fastest non-dominated plans
+     * Kept plans sit in a max-heap on total time (ties: later found is worse, as a
+     * stable sort of all plans would order them), so the slowest one is the bound.
+     */
+    private static class TopPlans {
+        private final TimetableGraph timetable;
+        private final int limit;
+        private final PriorityQueue<Candidate> kept;
+        private int found;
+        private boolean truncated;      // Something was cut by the bound or evicted
+        private boolean collapsed;      // A kept plan was dropped as dominated
+        
+        TopPlans(TimetableGraph timetable, int limit) {
+            this.timetable = timetable;
+            this.limit = limit;
+            this.kept = new PriorityQueue<>(Comparator.comparingLong((Candidate c) -> c.minutes)
+                .thenComparingInt(c -> c.order).reversed());
+        }
+        
+        /**
+         * True once elapsed time alone rules out entering the kept set
+         */
+        boolean outOfBound(long elapsed) {
+            if (kept.size() >= limit && elapsed >= kept.peek().minutes) {
+                truncated = true;
+                return true;
+            }
+            return false;
+        }
+        
+        /**
+         * True if no completion of a partial plan could be kept
+         * Completions are at least as slow and as dear, so a kept plan that
+         * dominates the partial plan dominates all of them.
+         */
+        boolean prunes(long elapsed, double fare) {
+            if (outOfBound(elapsed)) {
+                return true;
+            }
+            for (Candidate c : kept) {
+                if (dominates(c.minutes, c.fare, elapsed, fare)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        
+        void offer(int... legs) {
+            int order = found++;
+            long minutes = timetable.arrivalMinute(legs[legs.length - 1]) - timetable.departureMinute(legs[0]);
+            if (outOfBound(minutes)) {
+                return;
+            }
+            double fare = 0;
+            for (int leg : legs) {
+                fare += timetable.fare(leg);
+            }
+            for (Candidate c : kept) {
+                if (dominates(c.minutes, c.fare, minutes, fare)) {
+                    return;
+                }
+            }
+            for (Iterator<Candidate> it = kept.iterator(); it.hasNext(); ) {
+                Candidate c = it.next();
+                if (dominates(minutes, fare, c.minutes, c.fare)) {
+                    it.remove();
+                    collapsed = true;
+                }
+            }
+            kept.add(new Candidate(legs, minutes, fare, order));
+            if (kept.size() > limit) {
+                kept.poll();
+                truncated = true;
+            }
+        }
+        
+        /**
+         * True if the bound may have cut off a plan that dominance later made room for
+         * Plans admitted after the collapse can refill the set, so a full set is no
+         * proof that nothing better was cut.
+         */
+        boolean mayHaveLostPlans() {
+            return truncated && collapsed;
+        }
+        
+        /**
+         * Strict dominance: no slower and no dearer, and better on at least one
+         */
+        private static boolean dominates(long minutes, double fare, long otherMinutes, double otherFare) {
+            return minutes <= otherMinutes && fare <= otherFare && (minutes < otherMinutes || fare < otherFare);
+        }
+        
+        List<int[]> sorted(int max) {
+            List<Candidate> candidates = new ArrayList<>(kept);
+            candidates.sort(Comparator.comparingLong((Candidate c) -> c.minutes).thenComparingInt(c -> c.order));
+            List<int[]> legs = new ArrayList<>();
+            for (int i = 0; i < candidates.size() && i < max; i++) {
+                legs.add(candidates.get(i).legs);
+            }
+            return legs;
+        }
+    }
+    
+    private static class Candidate {
+        final int[] legs;
+        final long minutes;
+        final double fare;
+        final int order;
+        
+        Candidate(int[] legs, long minutes, double fare, int order) {
+            this.legs = legs;
+            this.minutes = minutes;
+            this.fare = fare;
+            this.order = order;
+        }
+    }
+    
+    /**
+     * Inner class representing an edge in the graph (a route)
+     */
+    public static class RouteEdge {
+        public String origin;
+        public String destination;
+        public Schedule schedule;
+        public long travelTimeMinutes;
+        public double fare;
+        
+        public RouteEdge(String origin, String destination, Schedule schedule, 
+                        long travelTime, double fare) {
+            this.origin = origin;
+            this.destination = destination;
+            this.schedule = schedule;
+            this.travelTimeMinutes = travelTime;
+            this.fare = fare;
+        }
+    }
+    
+    /**
+     * Represents a complete journey plan (one or more legs)
+     */
+    public static class JourneyPlan {
+        private List<RouteEdge> legs;
+        
+        public JourneyPlan() {
+            this.legs = new ArrayList<>();
+        }
+        
+        public void addLeg(RouteEdge leg) {
+            legs.add(leg);
+        }
+        
+        public List<RouteEdge> getLegs() {
+            return new ArrayList<>(legs);
+        }
+        
+        public int getNumberOfLegs() {
+            return legs.size();
+        }
+        
+        public long getTotalTravelTime() {
+            if (legs.isEmpty()) return 0;
+            
+            LocalDateTime start = legs.get(0).schedule.getDepartureTime();
+            LocalDateTime end = legs.get(legs.size() - 1).schedule.getArrivalTime();
+            
+            return Duration.between(start, end).toMinutes();
+        }
+        
+        public double getTotalFare() {
+            return legs.stream().mapToDouble(leg -> leg.fare).sum();
+        }
+        
+        public List<Schedule> getSchedules() {
+            List<Schedule> schedules = new ArrayList<>();
+            for (RouteEdge leg : legs) {
+                schedules.add(leg.schedule);
+            }
+            return schedules;
+        }
+        
+        public List<String> getTransferPoints() {
+            List<String> transfers = new ArrayList<>();
+            for (int i = 0; i < legs.size() - 1; i++) {
+                transfers.add(legs.get(i).destination);
+            }
+            return transfers;
+        }
+    }
+}
@@ -0,0 +1,300 @@
+package com.travelmanager.domain;
+
+import com.travelmanager.model.Route;
+import com.travelmanager.model.Schedule;
+import com.travelmanager.util.Constants;
+
+import java.util.*;
+
+/**
+ * Multi-criteria RAPTOR (McRAPTOR) journey planner
+ * Instead of one earliest arrival per city, each round keeps a bag of labels that are
+ * Pareto-optimal on (departure, arrival, fare); the round number is the transfer count.
+ * A single run therefore yields the whole front of time/fare/transfer trade-offs.
+ */
+public class McRaptorEngine {
+
+    private static final double FARE_EPSILON = 1e-6;
+
+    private final RoutePatternIndex index;
+    private final int maxRounds;
+
+    public McRaptorEngine(List<Schedule> schedules) {
+        this(schedules, Constants.MAX_ROUTE_HOPS);
+    }
+
+    public McRaptorEngine(List<Schedule> schedules, int maxLegs) {
+        this(new RoutePatternIndex(schedules != null ? schedules : Collections.emptyList()), maxLegs);
+    }
+
+    /**
+     * Engine over an index shared with other engines
+     */
+    McRaptorEngine(RoutePatternIndex index, int maxLegs) {
+        this.index = index;
+        this.maxRounds = maxLegs;
+    }
+
+    /**
+     * Find every Pareto-optimal journey between origin and destination
+     * @param origin Starting city
+     * @param destination Destination city
+     * @return Front of non-dominated journeys (empty if none)
+     */
+    public ParetoFront findParetoFront(String origin, String destination) {
+        int originStop = index.stopId(origin);
+        int destinationStop = index.stopId(destination);
+        if (originStop < 0) {
+            System.err.println("Origin city not found in timetable: " + origin);
+            return ParetoFront.empty();
+        }
+        if (destinationStop < 0) {
+            System.err.println("Destination city not found in timetable: " + destination);
+            return ParetoFront.empty();
+        }
+        if (originStop == destinationStop) {
+            return ParetoFront.empty();
+        }
+
+        List<ParetoFront.Option> options = new ArrayList<>();
+        for (Label label : runRounds(originStop, destinationStop)) {
+            Route route = reconstruct(label);
+            options.add(new ParetoFront.Option(route,
+                route.getSchedules().get(0).getDepartureTime(),
+                route.getSchedules().get(route.getSchedules().size() - 1).getArrivalTime(),
+                label.fare,
+                label.round - 1));
+        }
+        return new ParetoFront(options);
+    }
+
+    /**
+     * Find multiple routes between origin and destination
+     * @return Routes of the Pareto front ordered for the criteria
+     */
+    public List<Route> findRoutes(String origin, String destination,
+                                  PathfindingEngine.OptimizationCriteria criteria, int maxRoutes) {
+        List<Route> ranked = findParetoFront(origin, destination).rank(criteria);
+        return new ArrayList<>(ranked.subList(0, Math.min(maxRoutes, ranked.size())));
+    }
+
+    /**
+     * Run the rounds and return the labels that reached the destination
+     */
+    @SuppressWarnings("unchecked")
+    private List<Label> runRounds(int origin, int destination) {
+        int stopCount = index.stopCount();
+        int patternCount = index.patternCount();
+        int maxLayover = Constants.MAX_LAYOVER_HOURS * 60;
+
+        // Bags of the previous and current round, plus the best labels over all rounds so far
+        List<Label>[] previous = new List[stopCount];
+        List<Label>[] current = new List[stopCount];
+        List<Label>[] best = new List[stopCount];
+        for (int s = 0; s < stopCount; s++) {
+            previous[s] = new ArrayList<>();
+            current[s] = new ArrayList<>();
+            best[s] = new ArrayList<>();
+        }
+
+        boolean[] marked = new boolean[stopCount];
+        int[] markedStops = new int[stopCount];
+        int[] scanFrom = new int[patternCount];
+        Arrays.fill(scanFrom, -1);
+        int[] queuedPatterns = new int[patternCount];
+
+        previous[origin].add(Label.origin());
+        int markedCount = 0;
+        markedStops[markedCount++] = origin;
+
+        for (int k = 1; k <= maxRounds && markedCount > 0; k++) {
+            // Collect patterns through stops improved in the previous round
+            int queuedCount = 0;
+            for (int m = 0; m < markedCount; m++) {
+                int stop = markedStops[m];
+                marked[stop] = false;
+                for (int slot = index.firstPatternSlot(stop); slot < index.endPatternSlot(stop); slot++) {
+                    int pattern = index.slotPattern(slot);
+                    int position = index.slotPosition(slot);
+                    if (scanFrom[pattern] < 0) {
+                        queuedPatterns[queuedCount++] = pattern;
+                        scanFrom[pattern] = position;
+                    } else if (position < scanFrom[pattern]) {
+                        scanFrom[pattern] = position;
+                    }
+                }
+            }
+            markedCount = 0;
+
+            List<RideLabel> routeBag = new ArrayList<>();
+            for (int q = 0; q < queuedCount; q++) {
+                int pattern = queuedPatterns[q];
+                int from = scanFrom[pattern];
+                scanFrom[pattern] = -1;
+                routeBag.clear();
+
+                int length = index.patternLength(pattern);
+                for (int position = from; position < length; position++) {
+                    int stop = index.patternStop(pattern, position);
+
+                    // Alight: offer every ride in the route bag to this stop's bag
+                    if (stop != origin) {
+                        for (RideLabel ride : routeBag) {
+                            Label label = new Label(ride.departure,
+                                index.arrival(ride.trip, position),
+                                ride.fareOffset + index.fare(ride.trip, 0, position),
+                                k, ride.parent, ride.trip);
+                            if (insert(label, stop, destination, current, best) && !marked[stop]) {
+                                marked[stop] = true;
+                                markedStops[markedCount++] = stop;
+                            }
+                        }
+                    }
+
+                    // Board: every catchable trip is a candidate, later trips may be cheaper
+                    if (position == length - 1) {
+                        continue;
+                    }
+                    for (Label parent : previous[stop]) {
+                        int ready = Integer.MIN_VALUE;
+                        int latest = Integer.MAX_VALUE;
+                        if (k > 1) {
+                            ready = parent.arrival + Constants.MIN_CONNECTION_TIME_MINUTES;
+                            latest = parent.arrival + maxLayover;
+                        }
+                        int first = index.earliestTrip(pattern, position, ready);
+                        if (first < 0) {
+                            continue;
+                        }
+                        for (int trip = first; trip < index.endTrip(pattern); trip++) {
+                            int departure = index.departure(trip, position);
+                            if (departure > latest) {
+                                break;
+                            }
+                            addRide(routeBag, new RideLabel(trip, parent,
+                                k > 1 ? parent.departure : departure,
+                                parent.fare - index.fare(trip, 0, position)));
+                        }
+                    }
+                }
+            }
+
+            // The current round's bags feed the next round
+            for (int s = 0; s < stopCount; s++) {
+                List<Label> swap = previous[s];
+                swap.clear();
+                previous[s] = current[s];
+                current[s] = swap;
+            }
+        }
+
+        return best[destination];
+    }
+
+    /**
+     * Add a label to a stop's bag unless it is dominated there or at the destination
+     * @return true if the label was kept
+     */
+    private static boolean insert(Label label, int stop, int destination,
+                                  List<Label>[] current, List<Label>[] best) {
+        for (Label other : best[destination]) {
+            if (other.dominates(label)) {
+                return false; // Target pruning: extending this label can only get worse
+            }
+        }
+        if (stop != destination) {
+            for (Label other : best[stop]) {
+                if (other.dominates(label)) {
+                    return false;
+                }
+            }
+        }
+        // Labels from earlier rounds have fewer transfers, so only same-round labels can be dropped
+        best[stop].removeIf(other -> other.round == label.round && label.dominates(other));
+        current[stop].removeIf(label::dominates);
+        best[stop].add(label);
+        current[stop].add(label);
+        return true;
+    }
+
+    /**
+     * Add a ride to the route bag unless the same trip is already ridden on better terms
+     */
+    private static void addRide(List<RideLabel> routeBag, RideLabel ride) {
+        for (RideLabel other : routeBag) {
+            if (other.trip == ride.trip && other.departure >= ride.departure
+                    && other.fareOffset <= ride.fareOffset + FARE_EPSILON) {
+                return;
+            }
+        }
+        routeBag.removeIf(other -> other.trip == ride.trip && ride.departure >= other.departure
+            && ride.fareOffset <= other.fareOffset + FARE_EPSILON);
+        routeBag.add(ride);
+    }
+
+    /**
+     * Follow parent labels back to the origin
+     */
+    private Route reconstruct(Label label) {
+        LinkedList<Schedule> legs = new LinkedList<>();
+        for (Label l = label; l.parent != null; l = l.parent) {
+            legs.addFirst(index.tripSchedule(l.trip));
+        }
+        Route route = new Route();
+        for (Schedule leg : legs) {
+            route.addSchedule(leg);
+        }
+        return route;
+    }
+
+    /**
+     * Arrival at a stop after riding `round` trips
+     */
+    private static class Label {
+        final int departure;     // Departure from the origin
+        final int arrival;
+        final double fare;
+        final int round;
+        final Label parent;
+        final int trip;
+
+        Label(int departure, int arrival, double fare, int round, Label parent, int trip) {
+            this.departure = departure;
+            this.arrival = arrival;
+            this.fare = fare;
+            this.round = round;
+            this.parent = parent;
+            this.trip = trip;
+        }
+
+        static Label origin() {
+            return new Label(Integer.MIN_VALUE, Integer.MIN_VALUE, 0.0, 0, null, -1);
+        }
+
+        /**
+         * Leaves no earlier, arrives no later and costs no more (ties keep the existing label)
+         */
+        boolean dominates(Label other) {
+            return departure >= other.departure
+                && arrival <= other.arrival
+                && fare <= other.fare + FARE_EPSILON;
+        }
+    }
+
+    /**
+     * Label riding a trip in the current pattern scan
+     */
+    private static class RideLabel {
+        final int trip;
+        final Label parent;
+        final int departure;
+        final double fareOffset;  // Fare so far minus the trip's cumulative fare at boarding
+
+        RideLabel(int trip, Label parent, int departure, double fareOffset) {
+            this.trip = trip;
+            this.parent = parent;
+            this.departure = departure;
+            this.fareOffset = fareOffset;
+        }
+    }
+}
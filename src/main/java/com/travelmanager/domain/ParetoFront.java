@@ -0,0 +1,201 @@
+package com.travelmanager.domain;
+
+import com.travelmanager.model.Route;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.*;
+import java.util.stream.Collectors;
+
+/**
+ * Pareto front of journeys between two cities
+ * No option in the front is beaten on every criterion (departure, arrival, fare, transfers)
+ * by another, so any user preference can be answered by picking from it without a new search.
+ */
+public class ParetoFront {
+
+    private static final double DEFAULT_TIME_WEIGHT = 0.6;
+
+    private final List<Option> options;
+
+    public ParetoFront(List<Option> options) {
+        List<Option> sorted = new ArrayList<>(options);
+        sorted.sort(BY_DURATION);
+        this.options = Collections.unmodifiableList(sorted);
+    }
+
+    public static ParetoFront empty() {
+        return new ParetoFront(Collections.emptyList());
+    }
+
+    /**
+     * The same front with every journey running the given number of days later
+     */
+    public ParetoFront plusDays(long days) {
+        List<Option> shifted = new ArrayList<>(options.size());
+        for (Option option : options) {
+            shifted.add(new Option(option.route.plusDays(days), option.departureTime.plusDays(days),
+                option.arrivalTime.plusDays(days), option.fare, option.transfers));
+        }
+        return new ParetoFront(shifted);
+    }
+
+    /**
+     * All options, shortest travel time first
+     */
+    public List<Option> getOptions() {
+        return options;
+    }
+
+    public int size() {
+        return options.size();
+    }
+
+    public boolean isEmpty() {
+        return options.isEmpty();
+    }
+
+    // ============= PICKS =============
+
+    public Optional<Option> fastest() {
+        return options.stream().min(BY_DURATION);
+    }
+
+    public Optional<Option> cheapest() {
+        return options.stream().min(BY_FARE);
+    }
+
+    public Optional<Option> fewestTransfers() {
+        return options.stream().min(BY_TRANSFERS);
+    }
+
+    public Optional<Option> earliestArrival() {
+        return options.stream().min(Comparator.comparing(Option::getArrivalTime).thenComparing(BY_FARE));
+    }
+
+    /**
+     * Cheapest option whose travel time does not exceed the limit, e.g. "cheapest under 6 hours"
+     */
+    public Optional<Option> cheapestWithin(Duration maxDuration) {
+        return options.stream()
+            .filter(o -> o.getDuration().compareTo(maxDuration) <= 0)
+            .min(BY_FARE);
+    }
+
+    /**
+     * Fastest option whose total fare does not exceed the budget
+     */
+    public Optional<Option> fastestWithin(double maxFare) {
+        return options.stream()
+            .filter(o -> o.getFare() <= maxFare)
+            .min(BY_DURATION);
+    }
+
+    /**
+     * Options satisfying all given limits (null means no limit)
+     */
+    public ParetoFront filter(Duration maxDuration, Double maxFare, Integer maxTransfers) {
+        return new ParetoFront(options.stream()
+            .filter(o -> maxDuration == null || o.getDuration().compareTo(maxDuration) <= 0)
+            .filter(o -> maxFare == null || o.getFare() <= maxFare)
+            .filter(o -> maxTransfers == null || o.getTransfers() <= maxTransfers)
+            .collect(Collectors.toList()));
+    }
+
+    /**
+     * Routes of the front ordered for an optimization criteria
+     * BALANCED scores time and fare relative to their range within the front,
+     * so the weighting does not depend on currency or time units.
+     */
+    public List<Route> rank(PathfindingEngine.OptimizationCriteria criteria) {
+        List<Option> ranked = new ArrayList<>(options);
+        switch (criteria) {
+            case SHORTEST_TIME:
+                ranked.sort(BY_DURATION);
+                break;
+            case LOWEST_COST:
+                ranked.sort(BY_FARE);
+                break;
+            case FEWEST_HOPS:
+                ranked.sort(BY_TRANSFERS);
+                break;
+            case BALANCED:
+            default:
+                ranked.sort(balancedOrder(DEFAULT_TIME_WEIGHT));
+                break;
+        }
+        return ranked.stream().map(Option::getRoute).collect(Collectors.toList());
+    }
+
+    /**
+     * Option with the best normalized time/fare trade-off
+     * @param timeWeight Weight of travel time between 0 and 1, the rest goes to fare
+     */
+    public Optional<Option> balanced(double timeWeight) {
+        return options.stream().min(balancedOrder(timeWeight));
+    }
+
+    private Comparator<Option> balancedOrder(double timeWeight) {
+        long minMinutes = Long.MAX_VALUE;
+        long maxMinutes = Long.MIN_VALUE;
+        double minFare = Double.MAX_VALUE;
+        double maxFare = -Double.MAX_VALUE;
+        for (Option option : options) {
+            long minutes = option.getDuration().toMinutes();
+            minMinutes = Math.min(minMinutes, minutes);
+            maxMinutes = Math.max(maxMinutes, minutes);
+            minFare = Math.min(minFare, option.getFare());
+            maxFare = Math.max(maxFare, option.getFare());
+        }
+        final long timeLow = minMinutes;
+        final double timeRange = Math.max(1, maxMinutes - minMinutes);
+        final double fareLow = minFare;
+        final double fareRange = Math.max(1.0, maxFare - minFare);
+        return Comparator.comparingDouble((Option o) ->
+                timeWeight * (o.getDuration().toMinutes() - timeLow) / timeRange
+                    + (1 - timeWeight) * (o.getFare() - fareLow) / fareRange)
+            .thenComparing(BY_DURATION);
+    }
+
+    private static final Comparator<Option> BY_DURATION = Comparator.comparing(Option::getDuration)
+        .thenComparingDouble(Option::getFare)
+        .thenComparingInt(Option::getTransfers);
+
+    private static final Comparator<Option> BY_FARE = Comparator.comparingDouble(Option::getFare)
+        .thenComparing(Option::getDuration)
+        .thenComparingInt(Option::getTransfers);
+
+    private static final Comparator<Option> BY_TRANSFERS = Comparator.comparingInt(Option::getTransfers)
+        .thenComparing(Option::getDuration)
+        .thenComparingDouble(Option::getFare);
+
+    /**
+     * One non-dominated journey
+     */
+    public static class Option {
+        private final Route route;
+        private final LocalDateTime departureTime;
+        private final LocalDateTime arrivalTime;
+        private final double fare;
+        private final int transfers;
+
+        public Option(Route route, LocalDateTime departureTime, LocalDateTime arrivalTime,
+                      double fare, int transfers) {
+            this.route = route;
+            this.departureTime = departureTime;
+            this.arrivalTime = arrivalTime;
+            this.fare = fare;
+            this.transfers = transfers;
+        }
+
+        public Route getRoute() { return route; }
+        public LocalDateTime getDepartureTime() { return departureTime; }
+        public LocalDateTime getArrivalTime() { return arrivalTime; }
+        public double getFare() { return fare; }
+        public int getTransfers() { return transfers; }
+
+        public Duration getDuration() {
+            return Duration.between(departureTime, arrivalTime);
+        }
+    }
+}
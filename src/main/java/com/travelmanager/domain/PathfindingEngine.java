@@ -1,20 +1,33 @@
 package com.travelmanager.domain;
 
 import com.travelmanager.model.Route;
-import com.travelmanager.model.Schedule;
 import com.travelmanager.util.Constants;
 
-import java.time.Duration;
 import java.util.*;
 
 /**
  * Pathfinding engine using modified Dijkstra's algorithm
  * Finds K-shortest paths between two cities
+ * By default the k journeys are the exact k cheapest loop-free ones
+ * Yen's algorithm finds them (see KShortestJourneys)
+ * Best-first enumeration remains available as a search mode
+ * A* mode orders the queue by cost plus a lower bound on the remaining cost,
+ * steering towards the destination without changing the result
  */
 public class PathfindingEngine {
     
-    private RouteGraph graph;
-    private OptimizationCriteria criteria;
+    private TimetableGraph graph;
+    private WeightProfile profile;
+    private double[] edgeWeights;      // Compiled by the graph, one load per relaxation
+    private SearchMode searchMode = SearchMode.K_SHORTEST;
+    private int maxLegs = Constants.MAX_ROUTE_HOPS;
+    private int expandedStates;
+    
+    public enum SearchMode {
+        K_SHORTEST,       // Exact k cheapest loop-free journeys (Yen)
+        BEST_FIRST,       // Expand cheapest partial path first
+        A_STAR            // Expand by cost + admissible lower bound to the destination
+    }
     
     public enum OptimizationCriteria {
         SHORTEST_TIME,    // Minimize travel time
@@ -24,8 +37,48 @@ public class PathfindingEngine {
     }
     
     public PathfindingEngine(RouteGraph graph, OptimizationCriteria criteria) {
+        this(graph.getTimetable(), criteria);
+    }
+    
+    public PathfindingEngine(TimetableGraph graph, OptimizationCriteria criteria) {
+        this(graph, WeightProfile.forCriteria(criteria), SearchMode.K_SHORTEST);
+    }
+    
+    public PathfindingEngine(TimetableGraph graph, OptimizationCriteria criteria, SearchMode searchMode) {
+        this(graph, WeightProfile.forCriteria(criteria), searchMode);
+    }
+    
+    /**
+     * Engine minimising a custom weighting, e.g. a user's time/fare ratio
+     */
+    public PathfindingEngine(TimetableGraph graph, WeightProfile profile, SearchMode searchMode) {
         this.graph = graph;
-        this.criteria = criteria;
+        this.profile = profile;
+        this.edgeWeights = graph.weights(profile);
+        this.searchMode = searchMode;
+    }
+    
+    public SearchMode getSearchMode() {
+        return searchMode;
+    }
+    
+    public void setSearchMode(SearchMode searchMode) {
+        this.searchMode = searchMode;
+    }
+    
+    public int getMaxLegs() {
+        return maxLegs;
+    }
+    
+    public void setMaxLegs(int maxLegs) {
+        this.maxLegs = maxLegs;
+    }
+    
+    /**
+     * Number of states taken off the queue by the last findRoutes call
+     */
+    public int getExpandedStates() {
+        return expandedStates;
     }
     
     /**
@@ -36,170 +89,171 @@ public class PathfindingEngine {
      * @return List of routes sorted by optimization criteria
      */
     public List<Route> findRoutes(String origin, String destination, int maxRoutes) {
-        if (!graph.containsCity(origin)) {
+        int originId = graph.cityId(origin);
+        int destinationId = graph.cityId(destination);
+        if (originId < 0) {
             System.err.println("Origin city not found in graph: " + origin);
             return new ArrayList<>();
         }
-        if (!graph.containsCity(destination)) {
+        if (destinationId < 0) {
             System.err.println("Destination city not found in graph: " + destination);
             return new ArrayList<>();
         }
         
-        return findKShortestPaths(origin, destination, maxRoutes);
+        if (searchMode == SearchMode.K_SHORTEST) {
+            return findYenPaths(originId, destinationId, maxRoutes);
+        }
+        return findKShortestPaths(originId, destinationId, maxRoutes);
+    }
+    
+    /**
+     * Exact k-shortest loop-free journeys, cheapest first
+     */
+    private List<Route> findYenPaths(int origin, int destination, int k) {
+        SearchWorkspace workspace = SearchWorkspace.current();
+        KShortestJourneys yen = workspace.yen(graph, edgeWeights, lowerBounds(destination, workspace),
+            graph.lowerBoundsTo(destination, TimetableGraph.Bound.HOPS), maxLegs);
+        int found = yen.find(origin, destination, k);
+        
+        List<Route> routes = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            Route route = new Route();
+            for (int leg = 0; leg < yen.legs(i); leg++) {
+                route.addSchedule(graph.schedule(yen.edge(i, leg)));
+            }
+            routes.add(route);
+        }
+        expandedStates = yen.getExpandedStates();
+        return routes;
     }
     
     /**
      * Modified Dijkstra to find K shortest paths
      */
-    private List<Route> findKShortestPaths(String origin, String destination, int k) {
-        List<Route> completedRoutes = new ArrayList<>();
+    private List<Route> findKShortestPaths(int origin, int destination, int k) {
+        SearchWorkspace workspace = SearchWorkspace.current();
+        int found = searchPaths(origin, destination, k, workspace);
+        
+        List<Route> completedRoutes = new ArrayList<>(found);
+        for (int i = 0; i < found; i++) {
+            Route route = new Route();
+            for (int j = workspace.resultStart[i]; j < workspace.resultStart[i + 1]; j++) {
+                route.addSchedule(graph.schedule(workspace.resultEdges[j]));
+            }
+            completedRoutes.add(route);
+        }
+        return completedRoutes;
+    }
+    
+    /**
+     * Best-first (or A*) enumeration of paths into the workspace result buffer
+     * Path nodes live in the workspace pool and the queue is its primitive heap,
+     * so a warmed-up workspace makes this loop allocation-free.
+     * @return Number of paths found
+     */
+    int searchPaths(int origin, int destination, int k, SearchWorkspace workspace) {
+        SearchWorkspace.IndexedHeap queue = workspace.heap;
+        workspace.clearNodes();
+        workspace.clearResults();
+        queue.clear(0);
         
-        // Priority queue: (cost, current city, path taken, visited cities)
-        PriorityQueue<PathState> queue = new PriorityQueue<>(
-            Comparator.comparingDouble(state -> state.cost)
-        );
+        double[] minutes = null;
+        double[] fares = null;
+        double[] hopsLeft = null;
+        if (searchMode == SearchMode.A_STAR) {
+            minutes = graph.lowerBoundsTo(destination, TimetableGraph.Bound.DURATION);
+            fares = graph.lowerBoundsTo(destination, TimetableGraph.Bound.FARE);
+            hopsLeft = graph.lowerBoundsTo(destination, TimetableGraph.Bound.HOPS);
+            if (Double.isInfinite(hopsLeft[origin])) {
+                expandedStates = 0;
+                return 0;
+            }
+        }
         
-        queue.add(new PathState(0, origin, new ArrayList<>(), new HashSet<>()));
+        queue.offer(workspace.addNode(0, origin, -1, -1), 0);
         
         int exploredPaths = 0;
         int maxExplorations = 10000; // Prevent infinite loops
         
-        while (!queue.isEmpty() && completedRoutes.size() < k && exploredPaths < maxExplorations) {
+        while (!queue.isEmpty() && workspace.resultCount < k && exploredPaths < maxExplorations) {
             exploredPaths++;
-            PathState current = queue.poll();
+            int current = queue.poll();
+            int city = workspace.nodeCity[current];
+            int depth = workspace.nodeDepth[current];
             
-            // Reached destination - create route
-            if (current.city.equals(destination)) {
-                if (!current.path.isEmpty()) {
-                    Route route = buildRoute(current.path);
-                    completedRoutes.add(route);
+            // Reached destination - record path
+            if (city == destination) {
+                if (depth > 0) {
+                    workspace.addResult(current);
                 }
                 continue;
             }
             
             // Skip if path is too long
-            if (current.path.size() >= Constants.MAX_ROUTE_HOPS) {
+            if (depth >= maxLegs) {
                 continue;
             }
             
-            // Explore neighbors
-            for (RouteGraph.GraphEdge edge : graph.getNeighbors(current.city)) {
+            // Explore neighbors: the first leg may take any departure, later legs
+            // only those inside the connection window after the last arrival
+            int lastEdge = workspace.nodeEdge[current];
+            int firstEdge = graph.firstEdge(city);
+            int endEdge = graph.endEdge(city);
+            if (lastEdge >= 0) {
+                firstEdge = graph.connectionWindowStart(lastEdge);
+                endEdge = graph.connectionWindowEnd(lastEdge);
+            }
+            for (int edge = firstEdge; edge < endEdge; edge++) {
+                int next = graph.target(edge);
+                
                 // Avoid cycles
-                if (current.visited.contains(edge.getTo())) {
+                if (workspace.nodeVisits(current, next)) {
                     continue;
                 }
                 
-                // Check connection validity
-                if (!current.path.isEmpty()) {
-                    Schedule lastSchedule = current.path.get(current.path.size() - 1);
-                    if (!isValidConnection(lastSchedule, edge.getSchedule())) {
-                        continue;
-                    }
+                // Drop states that cannot reach the destination within the hop limit
+                if (hopsLeft != null && depth + 1 + hopsLeft[next] > maxLegs) {
+                    continue;
                 }
                 
-                // Create new path state
-                List<Schedule> newPath = new ArrayList<>(current.path);
-                newPath.add(edge.getSchedule());
+                // Extend the path by one leg, sharing everything before it
+                double newCost = workspace.nodeCost[current] + edgeWeights[edge];
+                double priority = hopsLeft != null
+                    ? newCost + estimate(next, minutes, fares, hopsLeft)
+                    : newCost;
                 
-                Set<String> newVisited = new HashSet<>(current.visited);
-                newVisited.add(current.city);
-                
-                double newCost = current.cost + getEdgeCost(edge);
-                
-                queue.add(new PathState(newCost, edge.getTo(), newPath, newVisited));
+                queue.offer(workspace.addNode(newCost, next, edge, current), priority);
             }
         }
         
-        return completedRoutes;
-    }
-    
-    /**
-     * Check if two schedules can be connected
-     * Must have at least 30 minutes layover
-     */
-    private boolean isValidConnection(Schedule first, Schedule second) {
-        // Must connect at same city
-        if (!first.getDestination().equals(second.getOrigin())) {
-            return false;
-        }
-        
-        // Calculate layover time
-        Duration layover = Duration.between(
-            first.getArrivalTime(),
-            second.getDepartureTime()
-        );
-        
-        // Must have minimum connection time
-        if (layover.toMinutes() < Constants.MIN_CONNECTION_TIME_MINUTES) {
-            return false;
-        }
-        
-        // Must not have excessively long layover
-        if (layover.toHours() > Constants.MAX_LAYOVER_HOURS) {
-            return false;
-        }
-        
-        return true;
+        expandedStates = exploredPaths;
+        return workspace.resultCount;
     }
     
     /**
-     * Calculate edge cost based on optimization criteria
+     * Admissible estimate of the remaining cost from a city for the weighting
+     * Each bound is a lower bound on its own term, so their weighted sum is too.
      */
-    private double getEdgeCost(RouteGraph.GraphEdge edge) {
-        Schedule schedule = edge.getSchedule();
-        
-        switch (criteria) {
-            case SHORTEST_TIME:
-                return Duration.between(
-                    schedule.getDepartureTime(),
-                    schedule.getArrivalTime()
-                ).toMinutes();
-                
-            case LOWEST_COST:
-                return schedule.getFare();
-                
-            case FEWEST_HOPS:
-                return 1.0;
-                
-            case BALANCED:
-                // Weighted combination: 60% time, 40% cost
-                double timeScore = Duration.between(
-                    schedule.getDepartureTime(),
-                    schedule.getArrivalTime()
-                ).toMinutes() / 60.0;
-                double costScore = schedule.getFare() / 100.0;
-                return (0.6 * timeScore) + (0.4 * costScore);
-                
-            default:
-                return edge.getWeight();
-        }
-    }
-    
-    /**
-     * Build Route object from schedule path
-     */
-    private Route buildRoute(List<Schedule> path) {
-        Route route = new Route();
-        for (Schedule schedule : path) {
-            route.addSchedule(schedule);
+    private double estimate(int city, double[] minutes, double[] fares, double[] hops) {
+        if (Double.isInfinite(hops[city])) {
+            return Double.POSITIVE_INFINITY; // Avoid 0 * infinity for unused terms
         }
-        return route;
+        return profile.getPerMinute() * minutes[city]
+            + profile.getPerFare() * fares[city]
+            + profile.getPerLeg() * hops[city];
     }
     
     /**
-     * Internal state for pathfinding algorithm
+     * Estimates for every city towards a destination, in the workspace's city buffer
      */
-    private static class PathState {
-        double cost;
-        String city;
-        List<Schedule> path;
-        Set<String> visited;
-        
-        PathState(double cost, String city, List<Schedule> path, Set<String> visited) {
-            this.cost = cost;
-            this.city = city;
-            this.path = path;
-            this.visited = visited;
+    private double[] lowerBounds(int destination, SearchWorkspace workspace) {
+        double[] minutes = graph.lowerBoundsTo(destination, TimetableGraph.Bound.DURATION);
+        double[] fares = graph.lowerBoundsTo(destination, TimetableGraph.Bound.FARE);
+        double[] hops = graph.lowerBoundsTo(destination, TimetableGraph.Bound.HOPS);
+        double[] bounds = workspace.cityBounds(graph.cityCount());
+        for (int city = 0; city < graph.cityCount(); city++) {
+            bounds[city] = estimate(city, minutes, fares, hops);
         }
+        return bounds;
     }
 }
@@ -0,0 +1,258 @@
+package com.travelmanager.domain;
+
+import com.travelmanager.model.Route;
+import com.travelmanager.model.Schedule;
+import com.travelmanager.util.Constants;
+
+import java.util.*;
+
+/**
+ * Journey planner using RAPTOR (Round-bAsed Public Transit Optimized Router)
+ * Round k finds the earliest arrival at every city using exactly k legs, scanning
+ * each route pattern once per round. Running the rounds for every departure from
+ * the origin (latest first, reusing labels) yields the departure/arrival profile.
+ */
+public class RaptorEngine {
+
+    private final RoutePatternIndex index;
+    private final int maxRounds;
+
+    public RaptorEngine(List<Schedule> schedules) {
+        this(schedules, Constants.MAX_ROUTE_HOPS);
+    }
+
+    public RaptorEngine(List<Schedule> schedules, int maxLegs) {
+        this(new RoutePatternIndex(schedules != null ? schedules : Collections.emptyList()), maxLegs);
+    }
+
+    /**
+     * Engine over an index shared with other engines
+     */
+    RaptorEngine(RoutePatternIndex index, int maxLegs) {
+        this.index = index;
+        this.maxRounds = maxLegs;
+    }
+
+    /**
+     * Find multiple routes between origin and destination
+     * @param origin Starting city
+     * @param destination Destination city
+     * @param maxRoutes Maximum number of routes to return
+     * @return Pareto-optimal routes (departure, arrival, transfers) sorted by travel time
+     */
+    public List<Route> findRoutes(String origin, String destination, int maxRoutes) {
+        int originStop = index.stopId(origin);
+        int destinationStop = index.stopId(destination);
+        if (originStop < 0) {
+            System.err.println("Origin city not found in timetable: " + origin);
+            return new ArrayList<>();
+        }
+        if (destinationStop < 0) {
+            System.err.println("Destination city not found in timetable: " + destination);
+            return new ArrayList<>();
+        }
+        if (originStop == destinationStop) {
+            return new ArrayList<>();
+        }
+
+        List<Journey> journeys = runProfile(originStop, destinationStop);
+
+        journeys.sort(Comparator.comparingInt(Journey::duration)
+            .thenComparingInt(j -> j.legs.size()));
+
+        List<Route> routes = new ArrayList<>();
+        for (Journey journey : journeys) {
+            if (routes.size() >= maxRoutes) {
+                break;
+            }
+            Route route = new Route();
+            for (Schedule leg : journey.legs) {
+                route.addSchedule(leg);
+            }
+            routes.add(route);
+        }
+        return routes;
+    }
+
+    /**
+     * Range RAPTOR: one run of the rounds per distinct departure from the origin
+     */
+    private List<Journey> runProfile(int origin, int destination) {
+        int stopCount = index.stopCount();
+        int patternCount = index.patternCount();
+
+        int[][] arrival = new int[maxRounds + 1][stopCount];
+        int[][] boardTrip = new int[maxRounds + 1][stopCount];
+        int[][] boardPosition = new int[maxRounds + 1][stopCount];
+        for (int[] round : arrival) {
+            Arrays.fill(round, RoutePatternIndex.UNREACHED);
+        }
+        int[] best = new int[stopCount];
+        Arrays.fill(best, RoutePatternIndex.UNREACHED);
+
+        boolean[] marked = new boolean[stopCount];
+        int[] markedStops = new int[stopCount];
+        int[] scanFrom = new int[patternCount];
+        Arrays.fill(scanFrom, -1);
+        int[] queuedPatterns = new int[patternCount];
+        int[] destinationBefore = new int[maxRounds + 1];
+
+        int maxLayover = Constants.MAX_LAYOVER_HOURS * 60;
+        Set<String> seen = new HashSet<>();
+        List<Journey> journeys = new ArrayList<>();
+
+        for (int departure : index.departuresFrom(origin)) {
+            for (int k = 0; k <= maxRounds; k++) {
+                destinationBefore[k] = arrival[k][destination];
+            }
+
+            arrival[0][origin] = departure;
+            best[origin] = Math.min(best[origin], departure);
+            int markedCount = 0;
+            markedStops[markedCount++] = origin;
+            marked[origin] = true;
+
+            for (int k = 1; k <= maxRounds && markedCount > 0; k++) {
+                // Collect patterns through marked stops, each from its earliest marked position
+                int queuedCount = 0;
+                for (int m = 0; m < markedCount; m++) {
+                    int stop = markedStops[m];
+                    marked[stop] = false;
+                    for (int slot = index.firstPatternSlot(stop); slot < index.endPatternSlot(stop); slot++) {
+                        int pattern = index.slotPattern(slot);
+                        int position = index.slotPosition(slot);
+                        if (scanFrom[pattern] < 0) {
+                            queuedPatterns[queuedCount++] = pattern;
+                            scanFrom[pattern] = position;
+                        } else if (position < scanFrom[pattern]) {
+                            scanFrom[pattern] = position;
+                        }
+                    }
+                }
+                markedCount = 0;
+
+                // Scan each queued pattern once
+                for (int q = 0; q < queuedCount; q++) {
+                    int pattern = queuedPatterns[q];
+                    int from = scanFrom[pattern];
+                    scanFrom[pattern] = -1;
+
+                    int trip = -1;
+                    int boardedAt = -1;
+                    int length = index.patternLength(pattern);
+                    for (int position = from; position < length; position++) {
+                        int stop = index.patternStop(pattern, position);
+
+                        // Alight: improve arrival if better than anything known here or at the target
+                        if (trip >= 0) {
+                            int arrive = index.arrival(trip, position);
+                            if (arrive < Math.min(best[stop], best[destination])) {
+                                arrival[k][stop] = arrive;
+                                best[stop] = arrive;
+                                boardTrip[k][stop] = trip;
+                                boardPosition[k][stop] = boardedAt;
+                                if (!marked[stop]) {
+                                    marked[stop] = true;
+                                    markedStops[markedCount++] = stop;
+                                }
+                            }
+                        }
+
+                        // Board: catch an earlier trip if the previous round reached this stop
+                        int reached = arrival[k - 1][stop];
+                        if (reached == RoutePatternIndex.UNREACHED || position == length - 1) {
+                            continue;
+                        }
+                        boolean transfer = k > 1;
+                        int ready = transfer ? reached + Constants.MIN_CONNECTION_TIME_MINUTES : reached;
+                        if (trip >= 0 && index.departure(trip, position) < ready) {
+                            continue;
+                        }
+                        int candidate = index.earliestTrip(pattern, position, ready);
+                        if (candidate < 0 || candidate == trip) {
+                            continue;
+                        }
+                        if (transfer && index.departure(candidate, position) - reached > maxLayover) {
+                            continue;
+                        }
+                        if (trip < 0 || index.departure(candidate, position) < index.departure(trip, position)) {
+                            trip = candidate;
+                            boardedAt = position;
+                        }
+                    }
+                }
+            }
+
+            for (int m = 0; m < markedCount; m++) {
+                marked[markedStops[m]] = false;
+            }
+
+            // Record every round that improved the destination in this run
+            for (int k = 1; k <= maxRounds; k++) {
+                if (arrival[k][destination] < destinationBefore[k]) {
+                    Journey journey = reconstruct(k, origin, destination,
+                        arrival, boardTrip, boardPosition);
+                    if (journey != null && seen.add(journey.signature())) {
+                        journeys.add(journey);
+                    }
+                }
+            }
+        }
+
+        return journeys;
+    }
+
+    /**
+     * Follow round labels back from the destination to the origin
+     */
+    private Journey reconstruct(int rounds, int origin, int destination, int[][] arrival,
+                                int[][] boardTrip, int[][] boardPosition) {
+        LinkedList<Schedule> legs = new LinkedList<>();
+        int stop = destination;
+        int departure = 0;
+        for (int k = rounds; k > 0; k--) {
+            if (arrival[k][stop] == RoutePatternIndex.UNREACHED) {
+                return null;
+            }
+            int trip = boardTrip[k][stop];
+            int from = boardPosition[k][stop];
+            legs.addFirst(index.tripSchedule(trip));
+            departure = index.departure(trip, from);
+            stop = index.tripStop(trip, from);
+            if (stop == origin) {
+                break;
+            }
+        }
+        if (stop != origin) {
+            return null;
+        }
+        return new Journey(legs, departure, arrival[rounds][destination]);
+    }
+
+    /**
+     * Journey found by a RAPTOR round
+     */
+    private static class Journey {
+        final List<Schedule> legs;
+        final int departure;
+        final int arrival;
+
+        Journey(List<Schedule> legs, int departure, int arrival) {
+            this.legs = legs;
+            this.departure = departure;
+            this.arrival = arrival;
+        }
+
+        int duration() {
+            return arrival - departure;
+        }
+
+        String signature() {
+            StringBuilder key = new StringBuilder();
+            for (Schedule leg : legs) {
+                key.append(leg.getId()).append('@').append(leg.getDepartureTime()).append('|');
+            }
+            return key.toString();
+        }
+    }
+}
@@ -2,103 +2,81 @@ package com.travelmanager.domain;
 
 import com.travelmanager.model.Schedule;
 
-import java.time.Duration;
 import java.util.*;
 
 /**
  * Graph representation of schedule network
  * Nodes = Cities, Edges = Schedules
+ * Backed by a TimetableGraph; edge objects are built once per city for callers that need them.
  */
 public class RouteGraph {
     
-    private Map<String, GraphNode> nodes;
-    private Map<String, List<GraphEdge>> adjacencyList;
+    private final TimetableGraph timetable;
+    private final List<List<GraphEdge>> neighbors;
+    private final Set<String> cities;
     
     public RouteGraph(List<Schedule> schedules) {
-        this.nodes = new HashMap<>();
-        this.adjacencyList = new HashMap<>();
-        buildGraph(schedules);
+        this(new TimetableGraph(schedules));
     }
     
-    /**
-     * Build graph from list of schedules
-     */
-    private void buildGraph(List<Schedule> schedules) {
-        if (schedules == null || schedules.isEmpty()) {
-            return;
-        }
-        
-        // Step 1: Create nodes for all unique locations
-        Set<String> locations = new HashSet<>();
-        for (Schedule schedule : schedules) {
-            locations.add(schedule.getOrigin());
-            locations.add(schedule.getDestination());
-        }
-        
-        for (String location : locations) {
-            nodes.put(location, new GraphNode(location));
-            adjacencyList.put(location, new ArrayList<>());
-        }
+    public RouteGraph(TimetableGraph timetable) {
+        this.timetable = timetable;
+        this.neighbors = new ArrayList<>(timetable.cityCount());
+        Set<String> names = new LinkedHashSet<>();
         
-        // Step 2: Create directed edges from schedules
-        for (Schedule schedule : schedules) {
-            double weight = calculateWeight(schedule);
-            GraphEdge edge = new GraphEdge(
-                schedule.getOrigin(),
-                schedule.getDestination(),
-                schedule,
-                weight
-            );
-            adjacencyList.get(schedule.getOrigin()).add(edge);
+        // Edge weight defaults to travel time in minutes
+        for (int city = 0; city < timetable.cityCount(); city++) {
+            names.add(timetable.cityName(city));
+            List<GraphEdge> edges = new ArrayList<>(timetable.endEdge(city) - timetable.firstEdge(city));
+            for (int e = timetable.firstEdge(city); e < timetable.endEdge(city); e++) {
+                edges.add(timetable.edgeView(e));
+            }
+            neighbors.add(Collections.unmodifiableList(edges));
         }
+        this.cities = Collections.unmodifiableSet(names);
     }
     
     /**
-     * Calculate edge weight (default: time in minutes)
+     * Compiled graph for engines that search over int IDs
      */
-    private double calculateWeight(Schedule schedule) {
-        Duration duration = Duration.between(
-            schedule.getDepartureTime(),
-            schedule.getArrivalTime()
-        );
-        return duration.toMinutes();
+    public TimetableGraph getTimetable() {
+        return timetable;
     }
     
     /**
-     * Get all neighbors (outgoing edges) of a city
+     * Get all neighbors (outgoing edges) of a city, ordered by departure
      */
     public List<GraphEdge> getNeighbors(String city) {
-        return adjacencyList.getOrDefault(city, new ArrayList<>());
+        int id = timetable.cityId(city);
+        return id >= 0 ? neighbors.get(id) : Collections.emptyList();
     }
     
     /**
      * Get all cities in the graph
      */
     public Set<String> getAllCities() {
-        return nodes.keySet();
+        return cities;
     }
     
     /**
      * Check if graph contains a city
      */
     public boolean containsCity(String city) {
-        return nodes.containsKey(city);
+        return timetable.cityId(city) >= 0;
     }
     
     /**
      * Get number of nodes
      */
     public int getNodeCount() {
-        return nodes.size();
+        return timetable.cityCount();
     }
     
     /**
      * Get number of edges
      */
     public int getEdgeCount() {
-        return adjacencyList.values().stream()
-            .mapToInt(List::size)
-            .sum();
+        return timetable.edgeCount();
     }
     
     /**
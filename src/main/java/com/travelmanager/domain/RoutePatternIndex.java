@@ -0,0 +1,342 @@
+package com.travelmanager.domain;
+
+import com.travelmanager.model.Schedule;
+import com.travelmanager.util.LocationRegistry;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+
+/**
+ * Timetable compiled into route patterns for round-based search
+ * Trips serving the same stop sequence without overtaking each other share a pattern,
+ * so one scan of a pattern covers all of its trips in departure order.
+ * Times are stored as minutes relative to the earliest departure day.
+ * Each trip is one Schedule with two stops, its origin and destination;
+ * train stops are not expanded, so a leg always rides a whole trip.
+ */
+final class RoutePatternIndex {
+
+    static final int UNREACHED = Integer.MAX_VALUE;
+
+    private final long baseMinute;
+    private final String[] stopNames;
+    // LocationRegistry ID -> stop ID, -1 where no trip serves the location
+    private int[] stopByLocation = new int[0];
+
+    // Stops of pattern p: patternStops[patternStopStart[p] .. patternStopStart[p + 1])
+    private final int[] patternStopStart;
+    private final int[] patternStops;
+
+    // Trips of pattern p: patternTripStart[p] .. patternTripStart[p + 1], sorted by departure
+    private final int[] patternTripStart;
+
+    // Stop time of trip t at pattern position i lives at tripTimeStart[t] + i
+    private final int[] tripTimeStart;
+    private final int[] tripPatterns;
+    private final int[] arrivals;
+    private final int[] departures;
+    private final double[] fares;      // Cumulative fare from the trip's first stop
+    private final Schedule[] tripSchedules;
+
+    // Patterns serving stop s: stopPatterns[stopPatternStart[s] .. stopPatternStart[s + 1])
+    private final int[] stopPatternStart;
+    private final int[] stopPatterns;
+    private final int[] stopPatternPositions;
+
+    RoutePatternIndex(List<Schedule> schedules) {
+        List<String> names = new ArrayList<>();
+
+        long base = Long.MAX_VALUE;
+        for (Schedule schedule : schedules) {
+            base = Math.min(base, toEpochMinute(schedule.getDepartureTime().toLocalDate().atStartOfDay()));
+        }
+        this.baseMinute = schedules.isEmpty() ? 0 : base;
+
+        // Step 1: Turn every schedule into a two-stop trip over interned stops
+        Map<List<Integer>, List<TripSpec>> tripsBySequence = new LinkedHashMap<>();
+        for (Schedule schedule : schedules) {
+            TripSpec trip = new TripSpec(schedule,
+                new int[] { intern(schedule.getOrigin(), names), intern(schedule.getDestination(), names) },
+                new int[] { toMinute(schedule.getDepartureTime()), toMinute(schedule.getArrivalTime()) },
+                new int[] { toMinute(schedule.getDepartureTime()), toMinute(schedule.getArrivalTime()) },
+                new double[] { 0.0, schedule.getFare() });
+            tripsBySequence.computeIfAbsent(trip.stopSequence(), k -> new ArrayList<>()).add(trip);
+        }
+        this.stopNames = names.toArray(new String[0]);
+
+        // Step 2: Split each stop sequence into FIFO patterns (no trip overtakes another)
+        List<List<TripSpec>> patterns = new ArrayList<>();
+        for (List<TripSpec> trips : tripsBySequence.values()) {
+            trips.sort(Comparator.comparingInt((TripSpec t) -> t.departures[0])
+                .thenComparingInt(t -> t.arrivals[t.arrivals.length - 1]));
+            List<List<TripSpec>> fifoGroups = new ArrayList<>();
+            for (TripSpec trip : trips) {
+                List<TripSpec> target = null;
+                for (List<TripSpec> group : fifoGroups) {
+                    if (!trip.overtakes(group.get(group.size() - 1))) {
+                        target = group;
+                        break;
+                    }
+                }
+                if (target == null) {
+                    target = new ArrayList<>();
+                    fifoGroups.add(target);
+                }
+                target.add(trip);
+            }
+            patterns.addAll(fifoGroups);
+        }
+
+        // Step 3: Flatten patterns, trips and stop times into arrays
+        int patternCount = patterns.size();
+        int tripCount = schedules.size();
+        int stopRefs = 0;
+        int stopTimes = 0;
+        for (List<TripSpec> pattern : patterns) {
+            int length = pattern.get(0).stops.length;
+            stopRefs += length;
+            stopTimes += length * pattern.size();
+        }
+
+        this.patternStopStart = new int[patternCount + 1];
+        this.patternStops = new int[stopRefs];
+        this.patternTripStart = new int[patternCount + 1];
+        this.tripTimeStart = new int[tripCount];
+        this.tripPatterns = new int[tripCount];
+        this.arrivals = new int[stopTimes];
+        this.departures = new int[stopTimes];
+        this.fares = new double[stopTimes];
+        this.tripSchedules = new Schedule[tripCount];
+
+        int stopCursor = 0;
+        int tripCursor = 0;
+        int timeCursor = 0;
+        for (int p = 0; p < patternCount; p++) {
+            List<TripSpec> pattern = patterns.get(p);
+            int[] sequence = pattern.get(0).stops;
+            patternStopStart[p] = stopCursor;
+            System.arraycopy(sequence, 0, patternStops, stopCursor, sequence.length);
+            stopCursor += sequence.length;
+
+            patternTripStart[p] = tripCursor;
+            for (TripSpec trip : pattern) {
+                tripSchedules[tripCursor] = trip.schedule;
+                tripTimeStart[tripCursor] = timeCursor;
+                tripPatterns[tripCursor] = p;
+                System.arraycopy(trip.arrivals, 0, arrivals, timeCursor, sequence.length);
+                System.arraycopy(trip.departures, 0, departures, timeCursor, sequence.length);
+                System.arraycopy(trip.fares, 0, fares, timeCursor, sequence.length);
+                timeCursor += sequence.length;
+                tripCursor++;
+            }
+        }
+        patternStopStart[patternCount] = stopCursor;
+        patternTripStart[patternCount] = tripCursor;
+
+        // Step 4: Index patterns by the stops they serve
+        int stopCount = stopNames.length;
+        this.stopPatternStart = new int[stopCount + 1];
+        for (int i = 0; i < stopRefs; i++) {
+            stopPatternStart[patternStops[i] + 1]++;
+        }
+        for (int s = 0; s < stopCount; s++) {
+            stopPatternStart[s + 1] += stopPatternStart[s];
+        }
+        this.stopPatterns = new int[stopRefs];
+        this.stopPatternPositions = new int[stopRefs];
+        int[] fill = Arrays.copyOf(stopPatternStart, stopCount);
+        for (int p = 0; p < patternCount; p++) {
+            for (int i = patternStopStart[p]; i < patternStopStart[p + 1]; i++) {
+                int slot = fill[patternStops[i]]++;
+                stopPatterns[slot] = p;
+                stopPatternPositions[slot] = i - patternStopStart[p];
+            }
+        }
+    }
+
+    private int intern(String name, List<String> names) {
+        int location = LocationRegistry.getInstance().intern(name);
+        if (location >= stopByLocation.length) {
+            int length = stopByLocation.length;
+            stopByLocation = Arrays.copyOf(stopByLocation, Math.max(location + 1, length * 2));
+            Arrays.fill(stopByLocation, length, stopByLocation.length, -1);
+        }
+        if (stopByLocation[location] < 0) {
+            stopByLocation[location] = names.size();
+            names.add(name);
+        }
+        return stopByLocation[location];
+    }
+
+    // ============= STOPS =============
+
+    int stopCount() {
+        return stopNames.length;
+    }
+
+    /**
+     * Stop ID for a city name (any spelling LocationRegistry knows), or -1 if no trip serves it
+     */
+    int stopId(String name) {
+        int location = LocationRegistry.getInstance().lookup(name);
+        return location >= 0 && location < stopByLocation.length ? stopByLocation[location] : -1;
+    }
+
+    String stopName(int stop) {
+        return stopNames[stop];
+    }
+
+    int firstPatternSlot(int stop) {
+        return stopPatternStart[stop];
+    }
+
+    int endPatternSlot(int stop) {
+        return stopPatternStart[stop + 1];
+    }
+
+    int slotPattern(int slot) {
+        return stopPatterns[slot];
+    }
+
+    int slotPosition(int slot) {
+        return stopPatternPositions[slot];
+    }
+
+    // ============= PATTERNS =============
+
+    int patternCount() {
+        return patternTripStart.length - 1;
+    }
+
+    int patternLength(int pattern) {
+        return patternStopStart[pattern + 1] - patternStopStart[pattern];
+    }
+
+    int patternStop(int pattern, int position) {
+        return patternStops[patternStopStart[pattern] + position];
+    }
+
+    /**
+     * Earliest trip of a pattern departing the given position at or after a time
+     * @return Trip index, or -1 if every trip has already left
+     */
+    int earliestTrip(int pattern, int position, int readyMinute) {
+        int low = patternTripStart[pattern];
+        int high = patternTripStart[pattern + 1];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (departures[tripTimeStart[mid] + position] < readyMinute) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low < patternTripStart[pattern + 1] ? low : -1;
+    }
+
+    /**
+     * Exclusive upper bound of a pattern's trip indices (trips are numbered contiguously)
+     */
+    int endTrip(int pattern) {
+        return patternTripStart[pattern + 1];
+    }
+
+    // ============= TRIPS =============
+
+    /**
+     * Stop served by a trip at a position of its pattern
+     */
+    int tripStop(int trip, int position) {
+        return patternStop(tripPatterns[trip], position);
+    }
+
+    int arrival(int trip, int position) {
+        return arrivals[tripTimeStart[trip] + position];
+    }
+
+    int departure(int trip, int position) {
+        return departures[tripTimeStart[trip] + position];
+    }
+
+    /**
+     * Fare for riding a trip between two positions of its pattern
+     */
+    double fare(int trip, int fromPosition, int toPosition) {
+        return fares[tripTimeStart[trip] + toPosition] - fares[tripTimeStart[trip] + fromPosition];
+    }
+
+    /**
+     * Schedule a trip was built from (trips have two stops, so it covers any leg on the trip)
+     */
+    Schedule tripSchedule(int trip) {
+        return tripSchedules[trip];
+    }
+
+    /**
+     * Distinct departure minutes of all trips leaving a stop, latest first
+     */
+    int[] departuresFrom(int stop) {
+        TreeSet<Integer> minutes = new TreeSet<>(Comparator.reverseOrder());
+        for (int slot = firstPatternSlot(stop); slot < endPatternSlot(stop); slot++) {
+            int pattern = slotPattern(slot);
+            int position = slotPosition(slot);
+            if (position == patternLength(pattern) - 1) {
+                continue; // Terminal stop, nothing departs
+            }
+            for (int trip = patternTripStart[pattern]; trip < patternTripStart[pattern + 1]; trip++) {
+                minutes.add(departure(trip, position));
+            }
+        }
+        return minutes.stream().mapToInt(Integer::intValue).toArray();
+    }
+
+    // ============= TIME CONVERSION =============
+
+    int toMinute(LocalDateTime time) {
+        return (int) (toEpochMinute(time) - baseMinute);
+    }
+
+    private static long toEpochMinute(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    /**
+     * Trip before flattening into arrays
+     */
+    private static class TripSpec {
+        final Schedule schedule;
+        final int[] stops;
+        final int[] arrivals;
+        final int[] departures;
+        final double[] fares;
+
+        TripSpec(Schedule schedule, int[] stops, int[] arrivals, int[] departures, double[] fares) {
+            this.schedule = schedule;
+            this.stops = stops;
+            this.arrivals = arrivals;
+            this.departures = departures;
+            this.fares = fares;
+        }
+
+        List<Integer> stopSequence() {
+            List<Integer> sequence = new ArrayList<>(stops.length);
+            for (int stop : stops) {
+                sequence.add(stop);
+            }
+            return sequence;
+        }
+
+        /**
+         * True if this trip reaches any stop before an earlier-departing trip
+         */
+        boolean overtakes(TripSpec earlier) {
+            for (int i = 0; i < stops.length; i++) {
+                if (arrivals[i] < earlier.arrivals[i] || departures[i] < earlier.departures[i]) {
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
@@ -0,0 +1,326 @@
+package com.travelmanager.domain;
+
+import java.util.Arrays;
+
+/**
+ * Reusable per-thread scratch space for graph searches
+ * Holds a primitive indexed d-ary heap, epoch-stamped label arrays (a new search bumps
+ * the epoch instead of clearing), a pool of path nodes and a result buffer. Arrays only
+ * grow, so once warmed up a search allocates nothing in its inner loop.
+ */
+final class SearchWorkspace {
+
+    private static final ThreadLocal<SearchWorkspace> CURRENT = ThreadLocal.withInitial(SearchWorkspace::new);
+
+    /**
+     * Workspace of the calling thread
+     */
+    static SearchWorkspace current() {
+        return CURRENT.get();
+    }
+
+    final IndexedHeap heap = new IndexedHeap(4);
+
+    // Path nodes labeling each state ID: stateNode[id] then nodeNextAtState[..],
+    // valid only where labeled.contains(id)
+    final StampedSet labeled = new StampedSet();
+    int[] stateNode = new int[0];
+
+    // Marks for banned cities/edges
+    final StampedSet bannedCities = new StampedSet();
+    final StampedSet bannedEdges = new StampedSet();
+
+    // Path node pool for tree searches: node n extends nodeParent[n] by nodeEdge[n]
+    int nodeCount;
+    double[] nodeCost = new double[64];
+    int[] nodeCity = new int[64];
+    int[] nodeEdge = new int[64];
+    int[] nodeParent = new int[64];
+    int[] nodeDepth = new int[64];
+    long[] nodeVisitedBits = new long[64];
+    int[] nodeNextAtState = new int[64];
+
+    // Result paths: edges of path i are resultEdges[resultStart[i] .. resultStart[i + 1])
+    int resultCount;
+    int[] resultStart = new int[16];
+    int[] resultEdges = new int[64];
+
+    // Per-city estimates towards the current destination
+    private double[] cityBounds = new double[0];
+
+    // Yen journey pool and candidate lists, created on first use
+    private KShortestJourneys yen;
+
+    private SearchWorkspace() {
+    }
+
+    /**
+     * Start a search whose path nodes label state IDs [0, stateCount)
+     */
+    void beginStateLabels(int stateCount) {
+        labeled.clear(stateCount);
+        if (stateNode.length < stateCount) {
+            stateNode = new int[Math.max(stateCount, stateNode.length * 2)];
+        }
+        clearNodes();
+        heap.clear(0);
+    }
+
+    /**
+     * First path node labeling a state, or -1; the rest follow nodeNextAtState
+     */
+    int firstNodeAt(int state) {
+        return labeled.contains(state) ? stateNode[state] : -1;
+    }
+
+    void addNodeAt(int state, int node) {
+        nodeNextAtState[node] = firstNodeAt(state);
+        labeled.add(state);
+        stateNode[state] = node;
+    }
+
+    /**
+     * Scratch array for one value per city, at least cityCount long
+     */
+    double[] cityBounds(int cityCount) {
+        if (cityBounds.length < cityCount) {
+            cityBounds = new double[Math.max(cityCount, cityBounds.length * 2)];
+        }
+        return cityBounds;
+    }
+
+    /**
+     * This thread's Yen state, prepared for a graph and weighting (see KShortestJourneys.prepare)
+     */
+    KShortestJourneys yen(TimetableGraph graph, double[] edgeCost, double[] estimate, double[] hopsLeft,
+                          int maxHops) {
+        if (yen == null) {
+            yen = new KShortestJourneys(this);
+        }
+        yen.prepare(graph, edgeCost, estimate, hopsLeft, maxHops);
+        return yen;
+    }
+
+    // ============= PATH NODES =============
+
+    void clearNodes() {
+        nodeCount = 0;
+    }
+
+    /**
+     * Add a node extending a parent node (or -1 for the origin) and return its ID
+     */
+    int addNode(double cost, int city, int edge, int parentNode) {
+        if (nodeCount == nodeCost.length) {
+            int capacity = nodeCount * 2;
+            nodeCost = Arrays.copyOf(nodeCost, capacity);
+            nodeCity = Arrays.copyOf(nodeCity, capacity);
+            nodeEdge = Arrays.copyOf(nodeEdge, capacity);
+            nodeParent = Arrays.copyOf(nodeParent, capacity);
+            nodeDepth = Arrays.copyOf(nodeDepth, capacity);
+            nodeVisitedBits = Arrays.copyOf(nodeVisitedBits, capacity);
+            nodeNextAtState = Arrays.copyOf(nodeNextAtState, capacity);
+        }
+        int node = nodeCount++;
+        nodeCost[node] = cost;
+        nodeCity[node] = city;
+        nodeEdge[node] = edge;
+        nodeParent[node] = parentNode;
+        nodeDepth[node] = parentNode >= 0 ? nodeDepth[parentNode] + 1 : 0;
+        nodeVisitedBits[node] = (parentNode >= 0 ? nodeVisitedBits[parentNode] : 0L) | (1L << (city & 63));
+        return node;
+    }
+
+    /**
+     * True if the path to a node already passes through the city
+     * The 64-bit filter (bit = id mod 64) rules most cities out; a set bit is confirmed on the chain.
+     */
+    boolean nodeVisits(int node, int city) {
+        if ((nodeVisitedBits[node] & (1L << (city & 63))) == 0) {
+            return false;
+        }
+        for (int n = node; n >= 0; n = nodeParent[n]) {
+            if (nodeCity[n] == city) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // ============= RESULTS =============
+
+    void clearResults() {
+        resultCount = 0;
+        resultStart[0] = 0;
+    }
+
+    /**
+     * Append the edges leading to a path node as a result
+     */
+    void addResult(int node) {
+        int depth = nodeDepth[node];
+        int start = resultStart[resultCount];
+        if (resultCount + 2 > resultStart.length) {
+            resultStart = Arrays.copyOf(resultStart, resultStart.length * 2);
+        }
+        if (start + depth > resultEdges.length) {
+            resultEdges = Arrays.copyOf(resultEdges, Math.max(start + depth, resultEdges.length * 2));
+        }
+        for (int n = node; nodeParent[n] >= 0; n = nodeParent[n]) {
+            resultEdges[start + nodeDepth[n] - 1] = nodeEdge[n];
+        }
+        resultCount++;
+        resultStart[resultCount] = start + depth;
+    }
+
+    /**
+     * Set of small int IDs cleared in O(1) by bumping an epoch
+     */
+    static final class StampedSet {
+        private int[] stamps = new int[0];
+        private int epoch;
+
+        void clear(int capacity) {
+            if (stamps.length < capacity) {
+                stamps = new int[Math.max(capacity, stamps.length * 2)];
+                epoch = 0;
+            }
+            epoch++;
+            if (epoch == Integer.MAX_VALUE) {
+                Arrays.fill(stamps, 0);
+                epoch = 1;
+            }
+        }
+
+        void add(int id) {
+            stamps[id] = epoch;
+        }
+
+        boolean contains(int id) {
+            return stamps[id] == epoch;
+        }
+    }
+
+    /**
+     * Indexed d-ary min-heap of int IDs keyed by double
+     * Supports decrease-key, so label-setting searches never hold stale entries.
+     */
+    static final class IndexedHeap {
+        private final int arity;
+        private int[] items = new int[16];
+        private double[] keys = new double[0];      // By ID
+        private int[] positions = new int[0];       // By ID, -1 when absent
+        private int size;
+
+        IndexedHeap(int arity) {
+            this.arity = arity;
+        }
+
+        /**
+         * Empty the heap and make room for IDs [0, capacity)
+         */
+        void clear(int capacity) {
+            for (int i = 0; i < size; i++) {
+                positions[items[i]] = -1;
+            }
+            size = 0;
+            ensureIds(capacity);
+        }
+
+        private void ensureIds(int capacity) {
+            if (positions.length < capacity) {
+                int grown = Math.max(capacity, positions.length * 2);
+                int old = positions.length;
+                positions = Arrays.copyOf(positions, grown);
+                Arrays.fill(positions, old, grown, -1);
+                keys = Arrays.copyOf(keys, grown);
+            }
+        }
+
+        boolean isEmpty() {
+            return size == 0;
+        }
+
+        double minKey() {
+            return keys[items[0]];
+        }
+
+        /**
+         * Insert an ID, or lower its key if already queued with a larger one
+         */
+        void offer(int id, double key) {
+            ensureIds(id + 1);
+            int position = positions[id];
+            if (position < 0) {
+                if (size == items.length) {
+                    items = Arrays.copyOf(items, size * 2);
+                }
+                position = size++;
+                items[position] = id;
+                positions[id] = position;
+            } else if (key >= keys[id]) {
+                return;
+            }
+            keys[id] = key;
+            siftUp(position);
+        }
+
+        /**
+         * Remove and return the ID with the smallest key
+         */
+        int poll() {
+            int top = items[0];
+            positions[top] = -1;
+            size--;
+            if (size > 0) {
+                items[0] = items[size];
+                positions[items[0]] = 0;
+                siftDown(0);
+            }
+            return top;
+        }
+
+        private void siftUp(int position) {
+            int id = items[position];
+            double key = keys[id];
+            while (position > 0) {
+                int parentPosition = (position - 1) / arity;
+                int parentId = items[parentPosition];
+                if (keys[parentId] <= key) {
+                    break;
+                }
+                items[position] = parentId;
+                positions[parentId] = position;
+                position = parentPosition;
+            }
+            items[position] = id;
+            positions[id] = position;
+        }
+
+        private void siftDown(int position) {
+            int id = items[position];
+            double key = keys[id];
+            while (true) {
+                int first = position * arity + 1;
+                if (first >= size) {
+                    break;
+                }
+                int best = first;
+                int last = Math.min(first + arity, size);
+                for (int child = first + 1; child < last; child++) {
+                    if (keys[items[child]] < keys[items[best]]) {
+                        best = child;
+                    }
+                }
+                if (keys[items[best]] >= key) {
+                    break;
+                }
+                items[position] = items[best];
+                positions[items[position]] = position;
+                position = best;
+            }
+            items[position] = id;
+            positions[id] = position;
+        }
+    }
+}
@@ -0,0 +1,666 @@
+package com.travelmanager.domain;
+
+import com.travelmanager.model.Schedule;
+import com.travelmanager.util.Constants;
+import com.travelmanager.util.LocationRegistry;
+
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Immutable timetable graph in compressed sparse row (CSR) layout
+ * Cities are interned to dense int IDs (mapped from LocationRegistry IDs, so all
+ * registered spellings of a place are one city) and every schedule becomes one edge. Edges are
+ * stored in parallel primitive arrays ordered by source city, then departure, so the
+ * outgoing edges of city c are the index range [firstEdge(c), endEdge(c)).
+ * Times are epoch minutes (UTC-based, no zone conversion).
+ */
+public final class TimetableGraph {
+
+    private static final int BOUND_KINDS = Bound.values().length;
+    private static final PathfindingEngine.OptimizationCriteria[] CRITERIA = PathfindingEngine.OptimizationCriteria.values();
+
+    /**
+     * Most custom weight profiles a graph keeps compiled (see registerProfile)
+     */
+    public static final int MAX_REGISTERED_PROFILES = 8;
+
+    private final long version;
+    private final String[] cityNames;
+    // LocationRegistry ID -> city ID, -1 where no schedule touches the location
+    private final int[] cityByLocation;
+
+    // Outgoing edges of city c: edgeStart[c] .. edgeStart[c + 1]
+    private final int[] edgeStart;
+    private final int[] edgeSource;
+    private final int[] edgeTarget;
+    private final long[] edgeDeparture;
+    private final long[] edgeArrival;
+    private final double[] edgeFare;
+    private final Schedule[] edgeSchedules;
+
+    // Reverse city graph for lower bounds
+    private final ReverseLinks reverse;
+
+    // Compiled edge weights of the built-in profiles, by OptimizationCriteria ordinal
+    private final double[][] builtInWeights = new double[CRITERIA.length][];
+
+    // Compiled edge weights of registered custom profiles (at most MAX_REGISTERED_PROFILES);
+    // unregistered custom profiles are compiled per search and not kept
+    private final Map<WeightProfile, double[]> registeredWeights = new HashMap<>();
+
+    // Lower-bound arrays per (destination, bound kind), computed on first use
+    private final AtomicReferenceArray<double[]> lowerBoundCache;
+
+    /**
+     * @param schedules Schedules to compile, one edge each
+     */
+    public TimetableGraph(List<Schedule> schedules) {
+        if (schedules == null) {
+            schedules = Collections.emptyList();
+        }
+        this.version = 0;
+        List<String> names = new ArrayList<>();
+
+        // Step 1: Intern cities and collect raw edges
+        int edgeCount = schedules.size();
+        int[] rawSource = new int[edgeCount];
+        int[] rawTarget = new int[edgeCount];
+        long[] rawDeparture = new long[edgeCount];
+        LocationRegistry locations = LocationRegistry.getInstance();
+        for (int i = 0; i < edgeCount; i++) {
+            rawSource[i] = locations.intern(schedules.get(i).getOrigin());
+            rawTarget[i] = locations.intern(schedules.get(i).getDestination());
+        }
+        this.cityByLocation = new int[locations.size()];
+        Arrays.fill(cityByLocation, -1);
+        for (int i = 0; i < edgeCount; i++) {
+            Schedule schedule = schedules.get(i);
+            rawSource[i] = intern(rawSource[i], schedule.getOrigin(), names);
+            rawTarget[i] = intern(rawTarget[i], schedule.getDestination(), names);
+            rawDeparture[i] = toEpochMinute(schedule.getDepartureTime());
+        }
+        this.cityNames = names.toArray(new String[0]);
+
+        // Step 2: Order edges by source city, then departure
+        Integer[] order = new Integer[edgeCount];
+        for (int i = 0; i < edgeCount; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.comparingInt((Integer i) -> rawSource[i])
+            .thenComparingLong(i -> rawDeparture[i]));
+
+        // Step 3: Lay out edge arrays and row offsets
+        this.edgeStart = new int[cityNames.length + 1];
+        this.edgeSource = new int[edgeCount];
+        this.edgeTarget = new int[edgeCount];
+        this.edgeDeparture = new long[edgeCount];
+        this.edgeArrival = new long[edgeCount];
+        this.edgeFare = new double[edgeCount];
+        this.edgeSchedules = new Schedule[edgeCount];
+        for (int e = 0; e < edgeCount; e++) {
+            int source = order[e];
+            Schedule schedule = schedules.get(source);
+            edgeSource[e] = rawSource[source];
+            edgeTarget[e] = rawTarget[source];
+            edgeDeparture[e] = rawDeparture[source];
+            edgeArrival[e] = toEpochMinute(schedule.getArrivalTime());
+            edgeFare[e] = schedule.getFare();
+            edgeSchedules[e] = schedule;
+            edgeStart[edgeSource[e] + 1]++;
+        }
+        for (int c = 0; c < cityNames.length; c++) {
+            edgeStart[c + 1] += edgeStart[c];
+        }
+        for (PathfindingEngine.OptimizationCriteria criteria : CRITERIA) {
+            builtInWeights[criteria.ordinal()] = compile(WeightProfile.forCriteria(criteria));
+        }
+
+        // Step 4: Collapse parallel edges into one reverse link per city pair
+        this.reverse = new ReverseLinks(this, null, null);
+        this.lowerBoundCache = new AtomicReferenceArray<>(cityNames.length * BOUND_KINDS);
+    }
+
+    /**
+     * Next version of a graph with some schedules removed and others added
+     * Only the departure lists of cities that lose or gain an edge are re-sorted;
+     * every other city's edges, weights and reverse links are copied over.
+     */
+    private TimetableGraph(TimetableGraph base, List<Schedule> removed, List<Schedule> added) {
+        this.version = base.version + 1;
+        List<String> names = new ArrayList<>(Arrays.asList(base.cityNames));
+
+        // Step 1: Find the cities whose departures change
+        Set<String> removedIds = new HashSet<>();
+        Set<Integer> touched = new HashSet<>();
+        for (Schedule schedule : removed) {
+            int source = base.cityId(schedule.getOrigin());
+            if (source >= 0) {
+                removedIds.add(schedule.getId());
+                touched.add(source);
+            }
+        }
+        int[] addedSource = new int[added.size()];
+        int[] addedTarget = new int[added.size()];
+        LocationRegistry locations = LocationRegistry.getInstance();
+        for (int i = 0; i < added.size(); i++) {
+            addedSource[i] = locations.intern(added.get(i).getOrigin());
+            addedTarget[i] = locations.intern(added.get(i).getDestination());
+        }
+        this.cityByLocation = Arrays.copyOf(base.cityByLocation,
+            Math.max(base.cityByLocation.length, locations.size()));
+        Arrays.fill(cityByLocation, base.cityByLocation.length, cityByLocation.length, -1);
+        for (int i = 0; i < added.size(); i++) {
+            addedSource[i] = intern(addedSource[i], added.get(i).getOrigin(), names);
+            addedTarget[i] = intern(addedTarget[i], added.get(i).getDestination(), names);
+            touched.add(addedSource[i]);
+        }
+        this.cityNames = names.toArray(new String[0]);
+        boolean[] affected = new boolean[cityNames.length];
+        for (int city : touched) {
+            affected[city] = true;
+        }
+
+        // Step 2: Build each city's edge list; -1 - i stands for added schedule i
+        int[] edgeCounts = new int[cityNames.length];
+        List<int[]> rows = new ArrayList<>(cityNames.length);
+        int edgeCount = 0;
+        for (int c = 0; c < cityNames.length; c++) {
+            if (!affected[c]) {
+                edgeCounts[c] = c < base.cityNames.length ? base.endEdge(c) - base.firstEdge(c) : 0;
+                rows.add(null);
+            } else {
+                List<Integer> row = new ArrayList<>();
+                if (c < base.cityNames.length) {
+                    for (int e = base.firstEdge(c); e < base.endEdge(c); e++) {
+                        if (!removedIds.contains(base.edgeSchedules[e].getId())) {
+                            row.add(e);
+                        }
+                    }
+                }
+                for (int i = 0; i < added.size(); i++) {
+                    if (addedSource[i] == c) {
+                        row.add(-1 - i);
+                    }
+                }
+                row.sort(Comparator.comparingLong(e -> e >= 0
+                    ? base.edgeDeparture[e]
+                    : toEpochMinute(added.get(-1 - e).getDepartureTime())));
+                edgeCounts[c] = row.size();
+                rows.add(row.stream().mapToInt(Integer::intValue).toArray());
+            }
+            edgeCount += edgeCounts[c];
+        }
+
+        // Step 3: Lay out the arrays, copying untouched rows in bulk
+        this.edgeStart = new int[cityNames.length + 1];
+        this.edgeSource = new int[edgeCount];
+        this.edgeTarget = new int[edgeCount];
+        this.edgeDeparture = new long[edgeCount];
+        this.edgeArrival = new long[edgeCount];
+        this.edgeFare = new double[edgeCount];
+        this.edgeSchedules = new Schedule[edgeCount];
+        int[] baseEdge = new int[edgeCount];     // Edge in the base graph, -1 if added
+        for (int c = 0; c < cityNames.length; c++) {
+            int start = edgeStart[c];
+            edgeStart[c + 1] = start + edgeCounts[c];
+            int[] row = rows.get(c);
+            if (row == null) {
+                if (edgeCounts[c] == 0) {
+                    continue;
+                }
+                int from = base.firstEdge(c);
+                System.arraycopy(base.edgeSource, from, edgeSource, start, edgeCounts[c]);
+                System.arraycopy(base.edgeTarget, from, edgeTarget, start, edgeCounts[c]);
+                System.arraycopy(base.edgeDeparture, from, edgeDeparture, start, edgeCounts[c]);
+                System.arraycopy(base.edgeArrival, from, edgeArrival, start, edgeCounts[c]);
+                System.arraycopy(base.edgeFare, from, edgeFare, start, edgeCounts[c]);
+                System.arraycopy(base.edgeSchedules, from, edgeSchedules, start, edgeCounts[c]);
+                for (int i = 0; i < edgeCounts[c]; i++) {
+                    baseEdge[start + i] = from + i;
+                }
+                continue;
+            }
+            for (int i = 0; i < row.length; i++) {
+                int e = start + i;
+                if (row[i] >= 0) {
+                    int old = row[i];
+                    edgeSource[e] = c;
+                    edgeTarget[e] = base.edgeTarget[old];
+                    edgeDeparture[e] = base.edgeDeparture[old];
+                    edgeArrival[e] = base.edgeArrival[old];
+                    edgeFare[e] = base.edgeFare[old];
+                    edgeSchedules[e] = base.edgeSchedules[old];
+                    baseEdge[e] = old;
+                } else {
+                    Schedule schedule = added.get(-1 - row[i]);
+                    edgeSource[e] = c;
+                    edgeTarget[e] = addedTarget[-1 - row[i]];
+                    edgeDeparture[e] = toEpochMinute(schedule.getDepartureTime());
+                    edgeArrival[e] = toEpochMinute(schedule.getArrivalTime());
+                    edgeFare[e] = schedule.getFare();
+                    edgeSchedules[e] = schedule;
+                    baseEdge[e] = -1;
+                }
+            }
+        }
+
+        // Step 4: Rebuild the built-in and registered weights for the new edge order, weighing only the new edges
+        for (PathfindingEngine.OptimizationCriteria criteria : CRITERIA) {
+            builtInWeights[criteria.ordinal()] = remap(WeightProfile.forCriteria(criteria),
+                base.builtInWeights[criteria.ordinal()], baseEdge);
+        }
+        synchronized (base.registeredWeights) {
+            for (Map.Entry<WeightProfile, double[]> entry : base.registeredWeights.entrySet()) {
+                registeredWeights.put(entry.getKey(), remap(entry.getKey(), entry.getValue(), baseEdge));
+            }
+        }
+
+        // Step 5: Recompute reverse links out of the affected cities only
+        this.reverse = new ReverseLinks(this, base.reverse, affected);
+        this.lowerBoundCache = new AtomicReferenceArray<>(cityNames.length * BOUND_KINDS);
+    }
+
+    /**
+     * Graph with the given schedules removed (matched by ID and origin) and others added
+     * This graph is left unchanged, so searches running on it are unaffected.
+     * @return Next version of the graph
+     */
+    public TimetableGraph patch(List<Schedule> removed, List<Schedule> added) {
+        return new TimetableGraph(this,
+            removed != null ? removed : Collections.emptyList(),
+            added != null ? added : Collections.emptyList());
+    }
+
+    /**
+     * Number of patches applied since the graph was compiled
+     */
+    public long getVersion() {
+        return version;
+    }
+
+    private int intern(int location, String name, List<String> names) {
+        int id = cityByLocation[location];
+        if (id < 0) {
+            id = names.size();
+            cityByLocation[location] = id;
+            names.add(name);
+        }
+        return id;
+    }
+
+    // ============= CITIES =============
+
+    public int cityCount() {
+        return cityNames.length;
+    }
+
+    /**
+     * City ID for a city name (any spelling LocationRegistry knows), or -1 if no schedule touches it
+     */
+    public int cityId(String name) {
+        return cityIdOfLocation(LocationRegistry.getInstance().lookup(name));
+    }
+
+    /**
+     * City ID for a LocationRegistry ID, or -1 if no schedule touches it
+     */
+    public int cityIdOfLocation(int location) {
+        return location >= 0 && location < cityByLocation.length ? cityByLocation[location] : -1;
+    }
+
+    /**
+     * Display name of a city, as spelled by the first schedule that touches it
+     */
+    public String cityName(int city) {
+        return cityNames[city];
+    }
+
+    // ============= EDGES =============
+
+    public int edgeCount() {
+        return edgeTarget.length;
+    }
+
+    public int firstEdge(int city) {
+        return edgeStart[city];
+    }
+
+    public int endEdge(int city) {
+        return edgeStart[city + 1];
+    }
+
+    /**
+     * First outgoing edge of a city departing at or after a minute (endEdge if none)
+     */
+    public int firstEdgeDepartingAtOrAfter(int city, long minute) {
+        int low = edgeStart[city];
+        int high = edgeStart[city + 1];
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (edgeDeparture[mid] < minute) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * First edge of the connection window after arriving on an edge:
+     * the earliest departure from its target at least MIN_CONNECTION_TIME_MINUTES later
+     */
+    public int connectionWindowStart(int arrivingEdge) {
+        return firstEdgeDepartingAtOrAfter(edgeTarget[arrivingEdge],
+            edgeArrival[arrivingEdge] + Constants.MIN_CONNECTION_TIME_MINUTES);
+    }
+
+    /**
+     * Exclusive end of the connection window: departures later than MAX_LAYOVER_HOURS are excluded
+     */
+    public int connectionWindowEnd(int arrivingEdge) {
+        return firstEdgeDepartingAtOrAfter(edgeTarget[arrivingEdge],
+            edgeArrival[arrivingEdge] + Constants.MAX_LAYOVER_HOURS * 60L + 1);
+    }
+
+    public int source(int edge) {
+        return edgeSource[edge];
+    }
+
+    public int target(int edge) {
+        return edgeTarget[edge];
+    }
+
+    public long departureMinute(int edge) {
+        return edgeDeparture[edge];
+    }
+
+    public long arrivalMinute(int edge) {
+        return edgeArrival[edge];
+    }
+
+    public long durationMinutes(int edge) {
+        return edgeArrival[edge] - edgeDeparture[edge];
+    }
+
+    public double fare(int edge) {
+        return edgeFare[edge];
+    }
+
+    public Schedule schedule(int edge) {
+        return edgeSchedules[edge];
+    }
+
+    /**
+     * Object view of an edge for callers outside the search loop
+     */
+    public RouteGraph.GraphEdge edgeView(int edge) {
+        return new RouteGraph.GraphEdge(cityNames[edgeSource[edge]], cityNames[edgeTarget[edge]],
+            edgeSchedules[edge], durationMinutes(edge));
+    }
+
+    // ============= WEIGHTS =============
+
+    /**
+     * Per-edge weights for a profile, indexed by edge
+     * Built-in profiles (and custom ones with the same factors) share the arrays compiled
+     * with the graph, registered profiles share theirs; any other profile is compiled for
+     * the caller and not kept.
+     */
+    public double[] weights(WeightProfile profile) {
+        double[] weights = keptWeights(profile);
+        return weights != null ? weights : compile(profile);
+    }
+
+    /**
+     * Compile a custom profile once and keep it, here and in patched versions of this graph
+     * Profiles matching a built-in one take no slot. Once MAX_REGISTERED_PROFILES are kept,
+     * further profiles are compiled but not kept until another is unregistered.
+     * @return Per-edge weights for the profile
+     */
+    public double[] registerProfile(WeightProfile profile) {
+        synchronized (registeredWeights) {
+            double[] weights = keptWeights(profile);
+            if (weights != null) {
+                return weights;
+            }
+            weights = compile(profile);
+            if (registeredWeights.size() < MAX_REGISTERED_PROFILES) {
+                registeredWeights.put(profile, weights);
+            } else {
+                System.err.println("Weight profile not registered, limit of " + MAX_REGISTERED_PROFILES
+                    + " reached: " + profile.getName());
+            }
+            return weights;
+        }
+    }
+
+    /**
+     * Drop a registered profile's weights
+     * @return true if the profile was registered
+     */
+    public boolean unregisterProfile(WeightProfile profile) {
+        synchronized (registeredWeights) {
+            return registeredWeights.remove(profile) != null;
+        }
+    }
+
+    /**
+     * Built-in or registered weights for a profile, or null if it has none kept
+     */
+    private double[] keptWeights(WeightProfile profile) {
+        for (PathfindingEngine.OptimizationCriteria criteria : CRITERIA) {
+            if (WeightProfile.forCriteria(criteria).equals(profile)) {
+                return builtInWeights[criteria.ordinal()];
+            }
+        }
+        synchronized (registeredWeights) {
+            return registeredWeights.get(profile);
+        }
+    }
+
+    private double[] compile(WeightProfile profile) {
+        double[] weights = new double[edgeTarget.length];
+        for (int e = 0; e < weights.length; e++) {
+            weights[e] = profile.weigh(durationMinutes(e), edgeFare[e]);
+        }
+        return weights;
+    }
+
+    /**
+     * Weights of a base graph carried over to this graph's edges, weighing only new ones
+     * @param baseEdge Edge in the base graph for each edge here, -1 if added
+     */
+    private double[] remap(WeightProfile profile, double[] baseWeights, int[] baseEdge) {
+        double[] weights = new double[baseEdge.length];
+        for (int e = 0; e < weights.length; e++) {
+            weights[e] = baseEdge[e] >= 0 ? baseWeights[baseEdge[e]] : profile.weigh(durationMinutes(e), edgeFare[e]);
+        }
+        return weights;
+    }
+
+    public double[] weights(PathfindingEngine.OptimizationCriteria criteria) {
+        return weights(WeightProfile.forCriteria(criteria));
+    }
+
+    // ============= LOWER BOUNDS =============
+
+    /**
+     * Kinds of lower bound a search can ask for
+     */
+    public enum Bound {
+        DURATION,   // Sum of minimum leg durations in minutes (layovers excluded)
+        FARE,       // Sum of minimum leg fares
+        HOPS        // Number of legs
+    }
+
+    /**
+     * Lower bound on the cost from every city to a destination, for goal-directed search
+     * Computed by a reverse Dijkstra over the cheapest link between each pair of cities,
+     * so it never overestimates; cached per destination. Unreachable cities get infinity.
+     */
+    public double[] lowerBoundsTo(int destination, Bound bound) {
+        int slot = destination * BOUND_KINDS + bound.ordinal();
+        double[] bounds = lowerBoundCache.get(slot);
+        if (bounds == null) {
+            bounds = reverseDijkstra(destination, bound);
+            lowerBoundCache.set(slot, bounds); // Racing threads compute identical arrays
+        }
+        return bounds;
+    }
+
+    /**
+     * Fewest legs from a city to every city, ignoring departure times
+     * Unreachable cities get infinity.
+     */
+    public double[] hopsFrom(int origin) {
+        double[] hops = new double[cityNames.length];
+        Arrays.fill(hops, Double.POSITIVE_INFINITY);
+        hops[origin] = 0;
+        int[] queue = new int[cityNames.length];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = origin;
+        while (head < tail) {
+            int city = queue[head++];
+            for (int edge = firstEdge(city); edge < endEdge(city); edge++) {
+                int next = target(edge);
+                if (Double.isInfinite(hops[next])) {
+                    hops[next] = hops[city] + 1;
+                    queue[tail++] = next;
+                }
+            }
+        }
+        return hops;
+    }
+
+    private double[] reverseDijkstra(int destination, Bound bound) {
+        double[] distance = new double[cityNames.length];
+        Arrays.fill(distance, Double.POSITIVE_INFINITY);
+        distance[destination] = 0;
+
+        PriorityQueue<double[]> queue = new PriorityQueue<>(Comparator.comparingDouble(entry -> entry[0]));
+        queue.add(new double[] { 0, destination });
+        while (!queue.isEmpty()) {
+            double[] entry = queue.poll();
+            int city = (int) entry[1];
+            if (entry[0] > distance[city]) {
+                continue; // Stale entry
+            }
+            for (int link = reverse.start[city]; link < reverse.start[city + 1]; link++) {
+                double weight;
+                switch (bound) {
+                    case FARE:
+                        weight = reverse.minFare[link];
+                        break;
+                    case HOPS:
+                        weight = 1.0;
+                        break;
+                    case DURATION:
+                    default:
+                        weight = reverse.minDuration[link];
+                        break;
+                }
+                int previous = reverse.source[link];
+                double candidate = entry[0] + weight;
+                if (candidate < distance[previous]) {
+                    distance[previous] = candidate;
+                    queue.add(new double[] { candidate, previous });
+                }
+            }
+        }
+        return distance;
+    }
+
+    public static long toEpochMinute(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) / 60;
+    }
+
+    /**
+     * Reverse city graph: links into city c are start[c] .. start[c + 1], each keeping the
+     * minimum duration and fare over all edges between the two cities
+     */
+    private static final class ReverseLinks {
+        final int[] start;
+        final int[] source;
+        final long[] minDuration;
+        final double[] minFare;
+
+        /**
+         * @param base Links of the previous version, or null to build from scratch
+         * @param affected Sources whose links must be recomputed (ignored without a base)
+         */
+        ReverseLinks(TimetableGraph graph, ReverseLinks base, boolean[] affected) {
+            int cityCount = graph.cityNames.length;
+            int capacity = graph.edgeTarget.length + (base != null ? base.source.length : 0);
+            int[] linkSource = new int[capacity];
+            int[] linkTarget = new int[capacity];
+            long[] linkDuration = new long[capacity];
+            double[] linkFare = new double[capacity];
+            int links = 0;
+
+            // Unaffected links are kept as they were
+            if (base != null) {
+                for (int target = 0; target + 1 < base.start.length; target++) {
+                    for (int link = base.start[target]; link < base.start[target + 1]; link++) {
+                        if (!affected[base.source[link]]) {
+                            linkSource[links] = base.source[link];
+                            linkTarget[links] = target;
+                            linkDuration[links] = base.minDuration[link];
+                            linkFare[links] = base.minFare[link];
+                            links++;
+                        }
+                    }
+                }
+            }
+
+            // Collapse each recomputed city's edges per target
+            int[] owner = new int[cityCount];
+            int[] slot = new int[cityCount];
+            Arrays.fill(owner, -1);
+            for (int city = 0; city < cityCount; city++) {
+                if (base != null && !affected[city]) {
+                    continue;
+                }
+                for (int e = graph.firstEdge(city); e < graph.endEdge(city); e++) {
+                    int target = graph.edgeTarget[e];
+                    if (owner[target] != city) {
+                        owner[target] = city;
+                        slot[target] = links;
+                        linkSource[links] = city;
+                        linkTarget[links] = target;
+                        linkDuration[links] = graph.durationMinutes(e);
+                        linkFare[links] = graph.edgeFare[e];
+                        links++;
+                    } else {
+                        int link = slot[target];
+                        linkDuration[link] = Math.min(linkDuration[link], graph.durationMinutes(e));
+                        linkFare[link] = Math.min(linkFare[link], graph.edgeFare[e]);
+                    }
+                }
+            }
+
+            // Group by target
+            this.start = new int[cityCount + 1];
+            for (int link = 0; link < links; link++) {
+                start[linkTarget[link] + 1]++;
+            }
+            for (int c = 0; c < cityCount; c++) {
+                start[c + 1] += start[c];
+            }
+            this.source = new int[links];
+            this.minDuration = new long[links];
+            this.minFare = new double[links];
+            int[] fill = Arrays.copyOf(start, cityCount);
+            for (int link = 0; link < links; link++) {
+                int position = fill[linkTarget[link]]++;
+                source[position] = linkSource[link];
+                minDuration[position] = linkDuration[link];
+                minFare[position] = linkFare[link];
+            }
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package com.travelmanager.domain;
+
+import java.util.Objects;
+
+/**
+ * Linear edge weighting: minutes, fare and legs each multiplied by a factor
+ * A TimetableGraph compiles a profile into a per-edge weight array (the built-in ones
+ * once, with the graph; registered ones once, on registration; others per search), so a
+ * search with any profile reads a single array value per relaxation.
+ */
+public final class WeightProfile {
+
+    public static final WeightProfile SHORTEST_TIME = new WeightProfile("SHORTEST_TIME", 1.0, 0.0, 0.0);
+    public static final WeightProfile LOWEST_COST = new WeightProfile("LOWEST_COST", 0.0, 1.0, 0.0);
+    public static final WeightProfile FEWEST_HOPS = new WeightProfile("FEWEST_HOPS", 0.0, 0.0, 1.0);
+    // 60% time in hours, 40% cost in hundreds
+    public static final WeightProfile BALANCED = new WeightProfile("BALANCED", 0.6 / 60.0, 0.4 / 100.0, 0.0);
+
+    private final String name;
+    private final double perMinute;
+    private final double perFare;
+    private final double perLeg;
+    private final int hash;
+
+    private WeightProfile(String name, double perMinute, double perFare, double perLeg) {
+        if (perMinute < 0 || perFare < 0 || perLeg < 0) {
+            throw new IllegalArgumentException("Weights must not be negative");
+        }
+        this.name = name;
+        this.perMinute = perMinute;
+        this.perFare = perFare;
+        this.perLeg = perLeg;
+        this.hash = Objects.hash(perMinute, perFare, perLeg);
+    }
+
+    /**
+     * Custom profile, e.g. a user's own time/fare trade-off
+     * @param name Profile name (for logging)
+     * @param perMinute Cost per minute of travel
+     * @param perFare Cost per unit of fare
+     * @param perLeg Cost per leg (transfer penalty)
+     */
+    public static WeightProfile of(String name, double perMinute, double perFare, double perLeg) {
+        return new WeightProfile(name, perMinute, perFare, perLeg);
+    }
+
+    /**
+     * Profile equivalent to a built-in optimization criteria
+     */
+    public static WeightProfile forCriteria(PathfindingEngine.OptimizationCriteria criteria) {
+        switch (criteria) {
+            case LOWEST_COST:
+                return LOWEST_COST;
+            case FEWEST_HOPS:
+                return FEWEST_HOPS;
+            case BALANCED:
+                return BALANCED;
+            case SHORTEST_TIME:
+            default:
+                return SHORTEST_TIME;
+        }
+    }
+
+    public String getName() { return name; }
+    public double getPerMinute() { return perMinute; }
+    public double getPerFare() { return perFare; }
+    public double getPerLeg() { return perLeg; }
+
+    /**
+     * Weight of one leg
+     */
+    public double weigh(long minutes, double fare) {
+        return perMinute * minutes + perFare * fare + perLeg;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof WeightProfile)) return false;
+        WeightProfile other = (WeightProfile) o;
+        return Double.compare(perMinute, other.perMinute) == 0
+            && Double.compare(perFare, other.perFare) == 0
+            && Double.compare(perLeg, other.perLeg) == 0;
+    }
+
+    @Override
+    public int hashCode() {
+        return hash;
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+}
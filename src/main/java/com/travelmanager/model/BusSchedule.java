@@ -23,6 +23,12 @@ public class BusSchedule extends Schedule {
         return "Bus";
     }
 
+    @Override
+    public BusSchedule plusDays(long days) {
+        return new BusSchedule(id, origin, destination, departureTime.plusDays(days),
+            arrivalTime.plusDays(days), fare, availableSeats, busCompany, busType);
+    }
+
     public String getBusCompany() { return busCompany; }
     public void setBusCompany(String busCompany) { this.busCompany = busCompany; }
 
@@ -32,6 +32,17 @@ public class Route {
         }
     }
 
+    /**
+     * Copy of this route with every leg running the given number of days later
+     */
+    public Route plusDays(long days) {
+        Route shifted = new Route();
+        for (Schedule schedule : schedules) {
+            shifted.addSchedule(schedule.plusDays(days));
+        }
+        return shifted;
+    }
+
     public List<Schedule> getSchedules() { return schedules; }
     public double getTotalFare() { return totalFare; }
     public Duration getTotalDuration() { return totalDuration; }
@@ -49,4 +49,9 @@ public abstract class Schedule {
     public void setAvailableSeats(int availableSeats) { this.availableSeats = availableSeats; }
 
     public abstract String getType();
+
+    /**
+     * Copy of this schedule running the given number of days later
+     */
+    public abstract Schedule plusDays(long days);
 }
@@ -1,6 +1,11 @@
 package com.travelmanager.model;
 
+import com.travelmanager.model.rest.TimeOfDay;
+
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
 
 /**
  * Represents a train schedule
@@ -10,6 +15,8 @@ public class TrainSchedule extends Schedule {
     private String trainNumber;
     private String seatClass;
     private String offDay;  // e.g., "Monday", "No off day", "Sunday"
+    private int offDayMask; // offDay parsed by TimeOfDay.parseOffDays
+    private List<StopTime> stops = Collections.emptyList();  // Calling points, origin to destination
 
     public TrainSchedule(String id, String origin, String destination,
                         LocalDateTime departureTime, LocalDateTime arrivalTime,
@@ -31,6 +38,7 @@ public class TrainSchedule extends Schedule {
         this.trainNumber = trainNumber;
         this.seatClass = seatClass;
         this.offDay = offDay != null ? offDay : "No off day";
+        this.offDayMask = TimeOfDay.parseOffDays(this.offDay);
     }
 
     @Override
@@ -38,6 +46,18 @@ public class TrainSchedule extends Schedule {
         return "Train";
     }
 
+    @Override
+    public TrainSchedule plusDays(long days) {
+        TrainSchedule shifted = new TrainSchedule(id, origin, destination, departureTime.plusDays(days),
+            arrivalTime.plusDays(days), fare, availableSeats, trainName, trainNumber, seatClass, offDay);
+        List<StopTime> shiftedStops = new ArrayList<>(stops.size());
+        for (StopTime stop : stops) {
+            shiftedStops.add(stop.plusDays(days));
+        }
+        shifted.setStops(shiftedStops);
+        return shifted;
+    }
+
     public String getTrainName() { return trainName; }
     public void setTrainName(String trainName) { this.trainName = trainName; }
 
@@ -48,7 +68,34 @@ public class TrainSchedule extends Schedule {
     public void setSeatClass(String seatClass) { this.seatClass = seatClass; }
     
     public String getOffDay() { return offDay; }
-    public void setOffDay(String offDay) { this.offDay = offDay; }
+    public void setOffDay(String offDay) {
+        this.offDay = offDay;
+        this.offDayMask = TimeOfDay.parseOffDays(offDay);
+    }
+    
+    public List<StopTime> getStops() { return stops; }
+    public void setStops(List<StopTime> stops) {
+        this.stops = stops != null ? stops : Collections.emptyList();
+    }
+    
+    /**
+     * Create the part of this train's run between two of its stops
+     * @param fromIndex Index of the boarding stop
+     * @param toIndex Index of the alighting stop (must be after fromIndex)
+     * @return Schedule covering only that segment, fare prorated by cumulative fare
+     */
+    public TrainSchedule segment(int fromIndex, int toIndex) {
+        StopTime from = stops.get(fromIndex);
+        StopTime to = stops.get(toIndex);
+        TrainSchedule segment = new TrainSchedule(
+            id, from.getStation(), to.getStation(),
+            from.getDepartureTime(), to.getArrivalTime(),
+            to.getCumulativeFare() - from.getCumulativeFare(), availableSeats,
+            trainName, trainNumber, seatClass, offDay
+        );
+        segment.setStops(new ArrayList<>(stops.subList(fromIndex, toIndex + 1)));
+        return segment;
+    }
     
     /**
      * Check if this train is available on the given date
@@ -56,14 +103,36 @@ public class TrainSchedule extends Schedule {
      * @return true if train is available (not an off day)
      */
     public boolean isAvailableOnDate(java.time.LocalDate date) {
-        if (offDay == null || offDay.isEmpty() || "No off day".equalsIgnoreCase(offDay)) {
-            return true;  // Train runs every day
+        return (offDayMask & TimeOfDay.dayBit(date.getDayOfWeek())) == 0;
+    }
+    
+    /**
+     * A calling point of a train with its dated times
+     */
+    public static class StopTime {
+        private final String station;
+        private final LocalDateTime arrivalTime;
+        private final LocalDateTime departureTime;
+        private final double cumulativeFare;  // Fare from the first stop to this one
+        
+        public StopTime(String station, LocalDateTime arrivalTime, 
+                        LocalDateTime departureTime, double cumulativeFare) {
+            this.station = station;
+            this.arrivalTime = arrivalTime;
+            this.departureTime = departureTime;
+            this.cumulativeFare = cumulativeFare;
         }
         
-        // Get day of week from date
-        String dayOfWeek = date.getDayOfWeek().toString();  // "MONDAY", "TUESDAY", etc.
+        public String getStation() { return station; }
+        public LocalDateTime getArrivalTime() { return arrivalTime; }
+        public LocalDateTime getDepartureTime() { return departureTime; }
+        public double getCumulativeFare() { return cumulativeFare; }
         
-        // Check if the travel date matches the off day
-        return !dayOfWeek.equalsIgnoreCase(offDay);
+        public StopTime plusDays(long days) {
+            return new StopTime(station,
+                arrivalTime != null ? arrivalTime.plusDays(days) : null,
+                departureTime != null ? departureTime.plusDays(days) : null,
+                cumulativeFare);
+        }
     }
 }
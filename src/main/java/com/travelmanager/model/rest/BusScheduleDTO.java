@@ -3,6 +3,8 @@ package com.travelmanager.model.rest;
 /**
  * Data Transfer Object for Bus Schedule REST API
  * Represents the bus schedule format for REST operations
+ * The time strings are what JSON sees; parseTimes() turns them into minutes once,
+ * when the schedule is loaded or added, and everything else reads the minutes.
  */
 public class BusScheduleDTO {
     private String busName;        // Unique identifier
@@ -13,6 +15,13 @@ public class BusScheduleDTO {
     private double fare;
     private String duration;       // Format: "10:00h"
 
+    // Parsed from the strings above by parseTimes(); transient, so never serialized
+    private transient volatile boolean timesParsed;
+    private transient int startMinute;        // Minute of day
+    private transient int arrivalMinute;      // Minute of day
+    private transient int arrivalDayOffset;   // Days after the departure day
+    private transient int durationMinutes;
+
     // Constructors
     public BusScheduleDTO() {}
 
@@ -38,16 +47,65 @@ public class BusScheduleDTO {
     public void setDestination(String destination) { this.destination = destination; }
 
     public String getStartTime() { return startTime; }
-    public void setStartTime(String startTime) { this.startTime = startTime; }
+    public void setStartTime(String startTime) { this.startTime = startTime; this.timesParsed = false; }
 
     public String getArrivalTime() { return arrivalTime; }
-    public void setArrivalTime(String arrivalTime) { this.arrivalTime = arrivalTime; }
+    public void setArrivalTime(String arrivalTime) { this.arrivalTime = arrivalTime; this.timesParsed = false; }
 
     public double getFare() { return fare; }
     public void setFare(double fare) { this.fare = fare; }
 
     public String getDuration() { return duration; }
-    public void setDuration(String duration) { this.duration = duration; }
+    public void setDuration(String duration) { this.duration = duration; this.timesParsed = false; }
+
+    /**
+     * Parse and validate the time strings
+     * A missing duration is derived from the start and arrival times.
+     * @throws IllegalArgumentException if a time or the duration is malformed
+     */
+    public void parseTimes() {
+        int start = TimeOfDay.parseMinute(startTime);
+        int arrival = TimeOfDay.parseMinute(arrivalTime);
+        int travel = TimeOfDay.minutesBetween(start, arrival);
+        if (duration != null && !duration.trim().isEmpty()) {
+            travel = TimeOfDay.parseDuration(duration);
+        }
+        this.startMinute = start;
+        this.arrivalMinute = arrival;
+        this.arrivalDayOffset = arrival < start ? 1 : 0;
+        this.durationMinutes = travel;
+        this.timesParsed = true;
+    }
+
+    public int getStartMinute() { ensureParsed(); return startMinute; }
+
+    public int getArrivalMinute() { ensureParsed(); return arrivalMinute; }
+
+    public int getArrivalDayOffset() { ensureParsed(); return arrivalDayOffset; }
+
+    public int getDurationMinutes() { ensureParsed(); return durationMinutes; }
+
+    /**
+     * Whether the times parse, i.e. the schedule can be planned on
+     * A stored schedule with malformed times is kept as it is, but left out of searches.
+     */
+    public boolean hasValidTimes() {
+        if (timesParsed) {
+            return true;
+        }
+        try {
+            parseTimes();
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void ensureParsed() {
+        if (!timesParsed) {
+            parseTimes();
+        }
+    }
 
     @Override
     public String toString() {
@@ -0,0 +1,53 @@
+package com.travelmanager.model.rest;
+
+import com.travelmanager.util.BoundedCache;
+
+/**
+ * Data Transfer Object for the statistics of one cache region
+ */
+public class CacheStatsDTO {
+    private String name;
+    private long hits;
+    private long misses;
+    private double hitRate;
+    private long evictions;
+    private long expirations;
+    private long loads;
+    private double averageLoadMillis;
+    private int size;
+    private long weight;
+    private long maxWeight;
+
+    // Constructors
+    public CacheStatsDTO() {}
+
+    // Factory method to create from a cache region's statistics
+    public static CacheStatsDTO fromStats(BoundedCache.Stats stats) {
+        CacheStatsDTO dto = new CacheStatsDTO();
+        dto.name = stats.getName();
+        dto.hits = stats.getHits();
+        dto.misses = stats.getMisses();
+        dto.hitRate = stats.getHitRate();
+        dto.evictions = stats.getEvictions();
+        dto.expirations = stats.getExpirations();
+        dto.loads = stats.getLoads();
+        dto.averageLoadMillis = stats.getAverageLoadMillis();
+        dto.size = stats.getSize();
+        dto.weight = stats.getWeight();
+        dto.maxWeight = stats.getMaxWeight();
+        return dto;
+    }
+
+    // Getters
+    public String getName() { return name; }
+    public long getHits() { return hits; }
+    public long getMisses() { return misses; }
+    public double getHitRate() { return hitRate; }
+    public long getEvictions() { return evictions; }
+    public long getExpirations() { return expirations; }
+    public long getLoads() { return loads; }
+    public double getAverageLoadMillis() { return averageLoadMillis; }
+    public int getSize() { return size; }
+    public long getWeight() { return weight; }
+    public long getMaxWeight() { return maxWeight; }
+}
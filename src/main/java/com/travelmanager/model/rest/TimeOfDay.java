@@ -0,0 +1,118 @@
+package com.travelmanager.model.rest;
+
+import java.time.DayOfWeek;
+
+/**
+ * Parsing and formatting of the time strings used by the schedule DTOs
+ * Times of day are "HH:MM" (a departure window such as "04:00-08:30" counts from
+ * its first time) and durations are "H:MMh". Parsed values are minutes.
+ * A train's off days become a 7-bit weekday mask, tested against a date with one AND.
+ */
+public final class TimeOfDay {
+
+    public static final int MINUTES_PER_DAY = 24 * 60;
+
+    private TimeOfDay() {
+    }
+
+    /**
+     * Minute of day of a time such as "07:45" or "04:00-08:30"
+     * @throws IllegalArgumentException if the time is missing or malformed
+     */
+    public static int parseMinute(String time) {
+        if (time == null) {
+            throw new IllegalArgumentException("Time is missing");
+        }
+        String value = time.trim();
+        int dash = value.indexOf('-');
+        if (dash >= 0) {
+            parseClock(value.substring(dash + 1).trim(), time);
+            value = value.substring(0, dash).trim();
+        }
+        return parseClock(value, time);
+    }
+
+    /**
+     * Minutes of a duration such as "5:30h" (the trailing "h" is optional)
+     * @throws IllegalArgumentException if the duration is malformed
+     */
+    public static int parseDuration(String duration) {
+        if (duration == null) {
+            throw new IllegalArgumentException("Duration is missing");
+        }
+        String value = duration.trim();
+        if (value.endsWith("h") || value.endsWith("H")) {
+            value = value.substring(0, value.length() - 1);
+        }
+        int colon = value.indexOf(':');
+        try {
+            int hours = Integer.parseInt(colon >= 0 ? value.substring(0, colon) : value);
+            int minutes = colon >= 0 ? Integer.parseInt(value.substring(colon + 1)) : 0;
+            if (hours >= 0 && minutes >= 0 && minutes < 60) {
+                return hours * 60 + minutes;
+            }
+        } catch (NumberFormatException e) {
+            // Reported below
+        }
+        throw new IllegalArgumentException("Invalid duration '" + duration + "', expected H:MMh");
+    }
+
+    /**
+     * Duration in the stored form, e.g. 330 -> "5:30h"
+     */
+    public static String formatDuration(int minutes) {
+        return String.format("%d:%02dh", minutes / 60, minutes % 60);
+    }
+
+    /**
+     * Minutes from one time of day to the next occurrence of another, e.g. 23:00 -> 01:30 is 150
+     */
+    public static int minutesBetween(int fromMinute, int toMinute) {
+        int minutes = toMinute - fromMinute;
+        return minutes < 0 ? minutes + MINUTES_PER_DAY : minutes;
+    }
+
+    /**
+     * Weekdays a train does not run, one bit per DayOfWeek ordinal (Monday is bit 0)
+     * Accepts "Friday" or a list such as "Friday, Saturday"; "No off day", "None",
+     * blank and unrecognised names leave the bits clear, i.e. the train runs.
+     */
+    public static int parseOffDays(String offDay) {
+        if (offDay == null) {
+            return 0;
+        }
+        int mask = 0;
+        for (String name : offDay.split("[,/&]|\\s+and\\s+")) {
+            String day = name.trim();
+            for (DayOfWeek weekday : DayOfWeek.values()) {
+                if (weekday.name().equalsIgnoreCase(day)) {
+                    mask |= dayBit(weekday);
+                }
+            }
+        }
+        return mask;
+    }
+
+    /**
+     * Bit of a weekday in an off-day mask
+     */
+    public static int dayBit(DayOfWeek day) {
+        return 1 << day.ordinal();
+    }
+
+    private static int parseClock(String value, String original) {
+        int colon = value.indexOf(':');
+        if (colon > 0 && colon <= 2 && value.length() == colon + 3) {
+            try {
+                int hour = Integer.parseInt(value.substring(0, colon));
+                int minute = Integer.parseInt(value.substring(colon + 1));
+                if (hour >= 0 && hour < 24 && minute >= 0 && minute < 60) {
+                    return hour * 60 + minute;
+                }
+            } catch (NumberFormatException e) {
+                // Reported below
+            }
+        }
+        throw new IllegalArgumentException("Invalid time '" + original + "', expected HH:MM");
+    }
+}
@@ -1,10 +1,13 @@
 package com.travelmanager.model.rest;
 
+import java.time.LocalDate;
 import java.util.List;
 
 /**
  * Data Transfer Object for Train Schedule REST API
  * Represents the train schedule format for REST operations
+ * The time strings are what JSON sees; parseTimes() turns them (and the stops'
+ * times) into minutes once, when the schedule is loaded or added.
  */
 public class TrainScheduleDTO {
     private String trainName;      // Unique identifier like "RANGPUR EXPRESS (772)"
@@ -17,6 +20,14 @@ public class TrainScheduleDTO {
     private String offDay;         // e.g., "No off day", "Sunday", etc.
     private List<TrainStop> stops; // List of intermediate stops
 
+    // Parsed from the strings above by parseTimes(); transient, so never serialized
+    private transient volatile boolean timesParsed;
+    private transient int startMinute;        // Minute of day
+    private transient int arrivalMinute;      // Minute of day
+    private transient int arrivalDayOffset;   // Days after the departure day
+    private transient int durationMinutes;
+    private transient int offDayMask;         // TimeOfDay.parseOffDays bits
+
     // Constructors
     public TrainScheduleDTO() {}
 
@@ -44,22 +55,90 @@ public class TrainScheduleDTO {
     public void setDestination(String destination) { this.destination = destination; }
 
     public String getStartTime() { return startTime; }
-    public void setStartTime(String startTime) { this.startTime = startTime; }
+    public void setStartTime(String startTime) { this.startTime = startTime; this.timesParsed = false; }
 
     public String getArrivalTime() { return arrivalTime; }
-    public void setArrivalTime(String arrivalTime) { this.arrivalTime = arrivalTime; }
+    public void setArrivalTime(String arrivalTime) { this.arrivalTime = arrivalTime; this.timesParsed = false; }
 
     public double getFare() { return fare; }
     public void setFare(double fare) { this.fare = fare; }
 
     public String getDuration() { return duration; }
-    public void setDuration(String duration) { this.duration = duration; }
+    public void setDuration(String duration) { this.duration = duration; this.timesParsed = false; }
 
     public String getOffDay() { return offDay; }
-    public void setOffDay(String offDay) { this.offDay = offDay; }
+    public void setOffDay(String offDay) { this.offDay = offDay; this.timesParsed = false; }
 
     public List<TrainStop> getStops() { return stops; }
-    public void setStops(List<TrainStop> stops) { this.stops = stops; }
+    public void setStops(List<TrainStop> stops) { this.stops = stops; this.timesParsed = false; }
+
+    /**
+     * Parse and validate the time strings, including every stop's, and the off days
+     * A missing duration is derived from the start and arrival times.
+     * @throws IllegalArgumentException if a time or the duration is malformed
+     */
+    public void parseTimes() {
+        int start = TimeOfDay.parseMinute(startTime);
+        int arrival = TimeOfDay.parseMinute(arrivalTime);
+        int travel = TimeOfDay.minutesBetween(start, arrival);
+        if (duration != null && !duration.trim().isEmpty()) {
+            travel = TimeOfDay.parseDuration(duration);
+        }
+        if (stops != null) {
+            for (TrainStop stop : stops) {
+                try {
+                    stop.parseTimes();
+                } catch (IllegalArgumentException e) {
+                    throw new IllegalArgumentException("Stop " + stop.getStation() + ": " + e.getMessage(), e);
+                }
+            }
+        }
+        this.startMinute = start;
+        this.arrivalMinute = arrival;
+        this.arrivalDayOffset = arrival < start ? 1 : 0;
+        this.durationMinutes = travel;
+        this.offDayMask = TimeOfDay.parseOffDays(offDay);
+        this.timesParsed = true;
+    }
+
+    public int getStartMinute() { ensureParsed(); return startMinute; }
+
+    public int getArrivalMinute() { ensureParsed(); return arrivalMinute; }
+
+    public int getArrivalDayOffset() { ensureParsed(); return arrivalDayOffset; }
+
+    public int getDurationMinutes() { ensureParsed(); return durationMinutes; }
+
+    public int getOffDayMask() { ensureParsed(); return offDayMask; }
+
+    /**
+     * Whether the train runs on a date, i.e. the date's weekday is not an off day
+     */
+    public boolean runsOn(LocalDate date) {
+        return (getOffDayMask() & TimeOfDay.dayBit(date.getDayOfWeek())) == 0;
+    }
+
+    /**
+     * Whether the times parse, i.e. the schedule can be planned on
+     * A stored schedule with malformed times is kept as it is, but left out of searches.
+     */
+    public boolean hasValidTimes() {
+        if (timesParsed) {
+            return true;
+        }
+        try {
+            parseTimes();
+            return true;
+        } catch (IllegalArgumentException e) {
+            return false;
+        }
+    }
+
+    private void ensureParsed() {
+        if (!timesParsed) {
+            parseTimes();
+        }
+    }
 
     @Override
     public String toString() {
@@ -85,6 +164,11 @@ public class TrainScheduleDTO {
         private String departureTime;
         private double cumulativeFare;  // Fare from start station to this station
 
+        // Parsed by parseTimes(); a missing time is taken to equal the stop's other time
+        private transient volatile boolean timesParsed;
+        private transient int arrivalMinute;
+        private transient int departureMinute;
+
         public TrainStop() {}
 
         public TrainStop(String station, String arrivalTime, String departureTime, double cumulativeFare) {
@@ -98,14 +182,40 @@ public class TrainScheduleDTO {
         public void setStation(String station) { this.station = station; }
 
         public String getArrivalTime() { return arrivalTime; }
-        public void setArrivalTime(String arrivalTime) { this.arrivalTime = arrivalTime; }
+        public void setArrivalTime(String arrivalTime) { this.arrivalTime = arrivalTime; this.timesParsed = false; }
 
         public String getDepartureTime() { return departureTime; }
-        public void setDepartureTime(String departureTime) { this.departureTime = departureTime; }
+        public void setDepartureTime(String departureTime) { this.departureTime = departureTime; this.timesParsed = false; }
 
         public double getCumulativeFare() { return cumulativeFare; }
         public void setCumulativeFare(double cumulativeFare) { this.cumulativeFare = cumulativeFare; }
 
+        /**
+         * Parse and validate the arrival and departure times
+         * @throws IllegalArgumentException if both are missing or one is malformed
+         */
+        public void parseTimes() {
+            boolean hasArrival = arrivalTime != null && !arrivalTime.trim().isEmpty();
+            boolean hasDeparture = departureTime != null && !departureTime.trim().isEmpty();
+            if (!hasArrival && !hasDeparture) {
+                throw new IllegalArgumentException("Arrival or departure time is required");
+            }
+            int arrival = TimeOfDay.parseMinute(hasArrival ? arrivalTime : departureTime);
+            this.departureMinute = hasDeparture ? TimeOfDay.parseMinute(departureTime) : arrival;
+            this.arrivalMinute = arrival;
+            this.timesParsed = true;
+        }
+
+        public int getArrivalMinute() { ensureParsed(); return arrivalMinute; }
+
+        public int getDepartureMinute() { ensureParsed(); return departureMinute; }
+
+        private void ensureParsed() {
+            if (!timesParsed) {
+                parseTimes();
+            }
+        }
+
         @Override
         public String toString() {
             return station + " (" + arrivalTime + "-" + departureTime + ", ৳" + cumulativeFare + ")";
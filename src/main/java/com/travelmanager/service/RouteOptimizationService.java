@@ -1,35 +1,116 @@
 package com.travelmanager.service;
 
+import com.travelmanager.domain.CompiledTimetable;
+import com.travelmanager.domain.EngineType;
+import com.travelmanager.domain.JourneyQuery;
+import com.travelmanager.domain.ParetoFront;
 import com.travelmanager.domain.PathfindingEngine;
-import com.travelmanager.domain.RouteGraph;
 import com.travelmanager.exception.RouteNotFoundException;
 import com.travelmanager.model.Route;
 import com.travelmanager.model.Schedule;
+import com.travelmanager.util.BoundedCache;
 import com.travelmanager.util.CacheManager;
 import com.travelmanager.util.Constants;
+import com.travelmanager.util.SingleFlight;
 
 import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
 import java.util.Comparator;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Callable;
 import java.util.stream.Collectors;
 
 /**
  * Service for route optimization using pathfinding algorithms
  * Orchestrates schedule fetching, graph building, and route finding
+ * Each date's schedules are compiled once (see TimetableRepository) and shared by all engines;
+ * the engine is chosen per query.
+ * Concurrent identical searches that miss the cache are coalesced, so a burst of
+ * the same query runs the search once.
+ * Cached results are tagged with the cities they depend on and dropped when a
+ * schedule touching one of those cities changes, so they can live for the full TTL.
+ * Results are keyed by service pattern rather than date: a result computed for one
+ * date is shifted in time to answer any other date on which the same schedules run.
+ * Queries without a route are cached briefly as well, and pairs of cities that no
+ * chain of schedules connects are rejected from a reachability bitset before searching.
  */
 public class RouteOptimizationService {
     
+    // Shared by all service instances, keyed by the normalised query
+    private static final SingleFlight<String, List<Route>> ROUTE_SEARCHES = new SingleFlight<>("route-search");
+    private static final SingleFlight<String, ParetoFront> PARETO_SEARCHES = new SingleFlight<>("pareto-search");
+    
+    // Cache regions, weighed by legs per route list and journeys per front
+    public static final String ROUTE_CACHE = "routes";
+    public static final String PARETO_CACHE = "pareto";
+    public static final String NO_ROUTE_CACHE = "no-route";
+    
+    private static boolean invalidationRegistered;
+    
     private ScheduleService scheduleService;
-    private CacheManager cacheManager;
+    private BoundedCache<String, DatedResult<List<Route>>> routeCache;
+    private BoundedCache<String, DatedResult<ParetoFront>> paretoCache;
+    private BoundedCache<String, String> noRouteCache;     // Failure message by route or Pareto key
+    private EngineType engineType;
     
     public RouteOptimizationService() {
+        this(EngineType.DIJKSTRA);
+    }
+    
+    public RouteOptimizationService(EngineType engineType) {
         this.scheduleService = new ScheduleService();
-        this.cacheManager = CacheManager.getInstance();
+        CacheManager cacheManager = CacheManager.getInstance();
+        this.routeCache = cacheManager.region(ROUTE_CACHE, Constants.CACHE_ROUTE_MAX_WEIGHT,
+            result -> legCount(result.value));
+        this.paretoCache = cacheManager.region(PARETO_CACHE, Constants.CACHE_PARETO_MAX_WEIGHT,
+            result -> result.value.size());
+        this.noRouteCache = cacheManager.region(NO_ROUTE_CACHE, Constants.CACHE_NO_ROUTE_MAX_ENTRIES,
+            message -> 1);
+        this.engineType = engineType;
+        registerInvalidation(List.of(routeCache, paretoCache, noRouteCache));
     }
     
     /**
-     * Find optimal routes between two cities
+     * Drop cached results when the schedules they depend on change (once per JVM)
+     */
+    private static synchronized void registerInvalidation(List<BoundedCache<String, ?>> caches) {
+        if (invalidationRegistered) {
+            return;
+        }
+        invalidationRegistered = true;
+        TimetableRepository.getInstance().addTimetableListener(new TimetableRepository.TimetableListener() {
+            @Override
+            public void citiesChanged(Set<String> cityKeys) {
+                int dropped = 0;
+                for (BoundedCache<String, ?> cache : caches) {
+                    for (String city : cityKeys) {
+                        dropped += cache.invalidateTag(city);
+                    }
+                }
+                System.out.println("Schedule change at " + cityKeys + ": dropped " + dropped + " cached results");
+            }
+            
+            @Override
+            public void timetablesCleared() {
+                for (BoundedCache<String, ?> cache : caches) {
+                    cache.invalidateAll();
+                }
+            }
+        });
+    }
+    
+    public EngineType getEngineType() {
+        return engineType;
+    }
+    
+    public void setEngineType(EngineType engineType) {
+        this.engineType = engineType;
+    }
+    
+    /**
+     * Find optimal routes between two cities with the service's default engine
      * @param origin Starting city
      * @param destination Destination city
      * @param date Travel date
@@ -46,41 +127,90 @@ public class RouteOptimizationService {
         String transportFilter,
         int maxResults
     ) throws RouteNotFoundException {
+        return findOptimalRoutes(origin, destination, date, criteria, transportFilter, maxResults, engineType);
+    }
+    
+    /**
+     * Find optimal routes between two cities with a specific engine
+     * @param engine Journey planner answering this query
+     * @see #findOptimalRoutes(String, String, LocalDate, PathfindingEngine.OptimizationCriteria, String, int)
+     */
+    public List<Route> findOptimalRoutes(
+        String origin,
+        String destination,
+        LocalDate date,
+        PathfindingEngine.OptimizationCriteria criteria,
+        String transportFilter,
+        int maxResults,
+        EngineType engine
+    ) throws RouteNotFoundException {
         
-        // Check cache first
-        String cacheKey = buildCacheKey(origin, destination, date, criteria, transportFilter);
-        @SuppressWarnings("unchecked")
-        List<Route> cachedRoutes = (List<Route>) cacheManager.get(cacheKey);
-        if (cachedRoutes != null) {
-            System.out.println("Returning cached routes for " + origin + " → " + destination);
-            return cachedRoutes.stream().limit(maxResults).collect(Collectors.toList());
+        // One Pareto search answers every criteria, so pick from the cached front
+        if (engine == EngineType.MC_RAPTOR) {
+            return findParetoFront(origin, destination, date, transportFilter)
+                .rank(criteria).stream()
+                .limit(maxResults)
+                .collect(Collectors.toList());
         }
         
-        // Fetch schedules for the date
-        List<Schedule> schedules = fetchSchedules(origin, destination, date, transportFilter);
-        
-        if (schedules.isEmpty()) {
-            throw new RouteNotFoundException(
-                "No schedules found for " + origin + " → " + destination + " on " + date
-            );
+        // Check cache first; the version is read before the timetable, see cacheResult
+        long version = TimetableRepository.getInstance().getVersion();
+        String pattern = TimetableRepository.getInstance().servicePattern(date, transportFilter);
+        String cacheKey = buildCacheKey(origin, destination, pattern, criteria, transportFilter, engine);
+        DatedResult<List<Route>> cachedRoutes = routeCache.get(cacheKey);
+        if (cachedRoutes != null) {
+            long days = cachedRoutes.daysUntil(date);
+            System.out.println("Returning cached routes for " + origin + " → " + destination
+                + (days != 0 ? " (computed for " + cachedRoutes.date + ")" : ""));
+            return cachedRoutes.value.stream()
+                .limit(maxResults)
+                .map(route -> days != 0 ? route.plusDays(days) : route)
+                .collect(Collectors.toList());
+        }
+        String noRoute = noRouteCache.get(cacheKey);
+        if (noRoute != null) {
+            throw new RouteNotFoundException(noRoute);
         }
         
-        System.out.println("Building graph with " + schedules.size() + " schedules");
+        // Join an identical search already running, or run it
+        String flightKey = flightKey(origin, destination, date, transportFilter, version)
+            + "_" + criteria + "_" + engine + "_" + maxResults;
+        return coalesce(ROUTE_SEARCHES, flightKey, () ->
+            searchRoutes(origin, destination, date, criteria, transportFilter, maxResults, engine, cacheKey, version));
+    }
+    
+    /**
+     * Run a route search on the compiled timetable and cache the result
+     */
+    private List<Route> searchRoutes(
+        String origin,
+        String destination,
+        LocalDate date,
+        PathfindingEngine.OptimizationCriteria criteria,
+        String transportFilter,
+        int maxResults,
+        EngineType engine,
+        String cacheKey,
+        long version
+    ) throws RouteNotFoundException {
+        
+        long start = System.nanoTime();
         
-        // Build graph from schedules
-        RouteGraph graph = new RouteGraph(schedules);
+        // Compiled schedules for the date
+        CompiledTimetable timetable = getTimetable(origin, destination, date, transportFilter);
         
-        System.out.println("Graph built: " + graph.getNodeCount() + " nodes, " + 
-                         graph.getEdgeCount() + " edges");
+        // Nothing to search if no chain of schedules connects the cities
+        if (!timetable.canReach(origin, destination)) {
+            throw noRoute(timetable, origin, destination, cacheKey, version);
+        }
         
-        // Run pathfinding algorithm
-        PathfindingEngine engine = new PathfindingEngine(graph, criteria);
-        List<Route> routes = engine.findRoutes(origin, destination, maxResults * 2); // Get more for sorting
+        // Run the selected journey planner
+        JourneyQuery query = new JourneyQuery(origin, destination, engine, criteria,
+            Constants.MAX_ROUTE_HOPS, maxResults * 2); // Get more for sorting
+        List<Route> routes = timetable.findRoutes(query);
         
         if (routes.isEmpty()) {
-            throw new RouteNotFoundException(
-                "No valid routes found between " + origin + " and " + destination
-            );
+            throw noRoute(timetable, origin, destination, cacheKey, version);
         }
         
         System.out.println("Found " + routes.size() + " routes");
@@ -94,39 +224,177 @@ public class RouteOptimizationService {
             .collect(Collectors.toList());
         
         // Cache results
-        cacheManager.put(cacheKey, limitedRoutes, Constants.CACHE_TTL_SECONDS);
+        cacheResult(routeCache, cacheKey, new DatedResult<>(date, limitedRoutes), version,
+            timetable.dependencyCities(origin, destination, Constants.MAX_ROUTE_HOPS));
+        routeCache.recordLoad(System.nanoTime() - start);
         
         return limitedRoutes;
     }
     
     /**
-     * Fetch all relevant schedules for route finding
-     * For multi-hop routes, we need ALL schedules on the date, not just direct connections
+     * Find the Pareto front of (arrival time, fare, transfers) between two cities
+     * The front is cached independently of the optimization criteria.
+     * @param origin Starting city
+     * @param destination Destination city
+     * @param date Travel date
+     * @param transportFilter Filter by transport type ("ALL", "BUS", "TRAIN")
+     * @return Non-dominated journeys to pick from
      */
-    private List<Schedule> fetchSchedules(
+    public ParetoFront findParetoFront(
         String origin,
         String destination,
         LocalDate date,
         String transportFilter
-    ) {
-        List<Schedule> allSchedules = new ArrayList<>();
+    ) throws RouteNotFoundException {
         
-        // Fetch all schedules for the date (not just origin→destination)
-        // This enables multi-hop route finding
-        switch (transportFilter.toUpperCase()) {
-            case "BUS":
-                allSchedules = scheduleService.searchBusSchedules("", "", date);
-                break;
-            case "TRAIN":
-                allSchedules = scheduleService.searchTrainSchedules("", "", date);
-                break;
-            case "ALL":
-            default:
-                allSchedules = scheduleService.searchSchedules("", "", date);
-                break;
+        long version = TimetableRepository.getInstance().getVersion();
+        String pattern = TimetableRepository.getInstance().servicePattern(date, transportFilter);
+        String cacheKey = String.format("%s%s_%s_%s_%s_PARETO",
+            Constants.CACHE_ROUTE_PREFIX, CompiledTimetable.cityKey(origin), CompiledTimetable.cityKey(destination),
+            pattern, filterKey(transportFilter));
+        DatedResult<ParetoFront> cachedFront = paretoCache.get(cacheKey);
+        if (cachedFront != null) {
+            long days = cachedFront.daysUntil(date);
+            System.out.println("Returning cached Pareto front for " + origin + " → " + destination
+                + (days != 0 ? " (computed for " + cachedFront.date + ")" : ""));
+            return days != 0 ? cachedFront.value.plusDays(days) : cachedFront.value;
+        }
+        String noRoute = noRouteCache.get(cacheKey);
+        if (noRoute != null) {
+            throw new RouteNotFoundException(noRoute);
+        }
+        
+        String flightKey = flightKey(origin, destination, date, transportFilter, version) + "_PARETO";
+        return coalesce(PARETO_SEARCHES, flightKey, () ->
+            searchParetoFront(origin, destination, date, transportFilter, cacheKey, version));
+    }
+    
+    /**
+     * Run McRAPTOR on the compiled timetable and cache the front
+     */
+    private ParetoFront searchParetoFront(
+        String origin,
+        String destination,
+        LocalDate date,
+        String transportFilter,
+        String cacheKey,
+        long version
+    ) throws RouteNotFoundException {
+        
+        long start = System.nanoTime();
+        CompiledTimetable timetable = getTimetable(origin, destination, date, transportFilter);
+        if (!timetable.canReach(origin, destination)) {
+            throw noRoute(timetable, origin, destination, cacheKey, version);
         }
         
-        return allSchedules;
+        System.out.println("Running McRAPTOR over " + timetable.getSchedules().size() + " schedules");
+        ParetoFront front = timetable.findParetoFront(origin, destination, Constants.MAX_ROUTE_HOPS);
+        if (front.isEmpty()) {
+            throw noRoute(timetable, origin, destination, cacheKey, version);
+        }
+        
+        System.out.println("Pareto front has " + front.size() + " journeys");
+        cacheResult(paretoCache, cacheKey, new DatedResult<>(date, front), version,
+            timetable.dependencyCities(origin, destination, Constants.MAX_ROUTE_HOPS));
+        paretoCache.recordLoad(System.nanoTime() - start);
+        return front;
+    }
+    
+    /**
+     * Number of route searches answered by joining an identical search in flight
+     */
+    public static long getCoalescedSearches() {
+        return ROUTE_SEARCHES.getSavedCalls() + PARETO_SEARCHES.getSavedCalls();
+    }
+    
+    /**
+     * Cache a result unless the timetables changed since the search read the version
+     * The check runs under the cache's lock, which invalidation also takes, so a result
+     * computed from an older timetable cannot be stored after its invalidation has run.
+     */
+    private static <V> void cacheResult(BoundedCache<String, V> cache, String key, V value,
+                                        long version, Set<String> cities) {
+        cacheResult(cache, key, value, version, Constants.CACHE_TTL_SECONDS, cities);
+    }
+    
+    private static <V> void cacheResult(BoundedCache<String, V> cache, String key, V value,
+                                        long version, int ttlSeconds, Set<String> cities) {
+        synchronized (cache) {
+            if (TimetableRepository.getInstance().getVersion() == version) {
+                cache.put(key, value, ttlSeconds, cities);
+            }
+        }
+    }
+    
+    /**
+     * Remember briefly that a query has no route, and build the exception to throw
+     * The entry depends on the same cities as a result would, so a schedule change
+     * that could open a route drops it before the TTL runs out.
+     */
+    private RouteNotFoundException noRoute(CompiledTimetable timetable, String origin, String destination,
+                                           String cacheKey, long version) {
+        String message = "No valid routes found between " + origin + " and " + destination;
+        cacheResult(noRouteCache, cacheKey, message, version, Constants.CACHE_NO_ROUTE_TTL_SECONDS,
+            timetable.dependencyCities(origin, destination, Constants.MAX_ROUTE_HOPS));
+        return new RouteNotFoundException(message);
+    }
+    
+    /**
+     * Cache weight of a route list: its total number of legs
+     */
+    private static int legCount(List<Route> routes) {
+        int legs = 0;
+        for (Route route : routes) {
+            legs += route.getSchedules().size();
+        }
+        return legs;
+    }
+    
+    /**
+     * Run a search through a single-flight group, keeping the search's own exceptions
+     */
+    private static <T> T coalesce(SingleFlight<String, T> searches, String key, Callable<T> search)
+            throws RouteNotFoundException {
+        try {
+            return searches.execute(key, search);
+        } catch (RouteNotFoundException | RuntimeException e) {
+            throw e;
+        } catch (InterruptedException e) {
+            throw new RouteNotFoundException("Route search was interrupted", e);
+        } catch (Exception e) {
+            throw new RouteNotFoundException("Route search failed: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Query key with city names and filter normalised, so spelling variants share one search
+     */
+    private static String flightKey(String origin, String destination, LocalDate date,
+                                    String transportFilter, long version) {
+        return CompiledTimetable.cityKey(origin) + "_" + CompiledTimetable.cityKey(destination)
+            + "_" + date + "_" + filterKey(transportFilter) + "_v" + version;
+    }
+    
+    private static String filterKey(String transportFilter) {
+        return transportFilter != null ? transportFilter.trim().toUpperCase() : "ALL";
+    }
+    
+    /**
+     * Compiled timetable for a date and transport filter, shared by all engines and queries
+     */
+    private CompiledTimetable getTimetable(
+        String origin,
+        String destination,
+        LocalDate date,
+        String transportFilter
+    ) throws RouteNotFoundException {
+        CompiledTimetable timetable = TimetableRepository.getInstance().getTimetable(date, transportFilter);
+        if (timetable.getSchedules().isEmpty()) {
+            throw new RouteNotFoundException(
+                "No schedules found for " + origin + " → " + destination + " on " + date
+            );
+        }
+        return timetable;
     }
     
     /**
@@ -161,21 +429,24 @@ public class RouteOptimizationService {
     
     /**
      * Build cache key for route search
+     * Cities are keyed by location, so every spelling of a search shares one entry.
      */
     private String buildCacheKey(
         String origin,
         String destination,
-        LocalDate date,
+        String servicePattern,
         PathfindingEngine.OptimizationCriteria criteria,
-        String transportFilter
+        String transportFilter,
+        EngineType engine
     ) {
-        return String.format("%s%s_%s_%s_%s_%s",
+        return String.format("%s%s_%s_%s_%s_%s_%s",
             Constants.CACHE_ROUTE_PREFIX,
-            origin,
-            destination,
-            date,
+            CompiledTimetable.cityKey(origin),
+            CompiledTimetable.cityKey(destination),
+            servicePattern,
             criteria,
-            transportFilter
+            filterKey(transportFilter),
+            engine
         );
     }
     
@@ -213,4 +484,21 @@ public class RouteOptimizationService {
         
         return routes;
     }
+
+    /**
+     * Cached result with the travel date it was computed for
+     */
+    private static final class DatedResult<V> {
+        final LocalDate date;
+        final V value;
+        
+        DatedResult(LocalDate date, V value) {
+            this.date = date;
+            this.value = value;
+        }
+        
+        long daysUntil(LocalDate other) {
+            return ChronoUnit.DAYS.between(date, other);
+        }
+    }
 }
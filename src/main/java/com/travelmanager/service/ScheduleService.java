@@ -1,6 +1,7 @@
 package com.travelmanager.service;
 
 import com.travelmanager.model.Schedule;
+import com.travelmanager.util.LocationRegistry;
 import com.travelmanager.service.rest.RestScheduleService;
 import java.time.LocalDate;
 import java.util.ArrayList;
@@ -85,9 +86,15 @@ public class ScheduleService {
      */
     private List<Schedule> searchCachedSchedules(String origin, String destination) {
         List<Schedule> results = new ArrayList<>();
+        LocationRegistry locations = LocationRegistry.getInstance();
+        int originId = locations.lookup(origin);
+        int destinationId = locations.lookup(destination);
+        if (originId == LocationRegistry.UNKNOWN || destinationId == LocationRegistry.UNKNOWN) {
+            return results;
+        }
         for (Schedule schedule : cachedSchedules) {
-            if (schedule.getOrigin().equalsIgnoreCase(origin) && 
-                schedule.getDestination().equalsIgnoreCase(destination)) {
+            if (locations.lookup(schedule.getOrigin()) == originId && 
+                locations.lookup(schedule.getDestination()) == destinationId) {
                 results.add(schedule);
             }
         }
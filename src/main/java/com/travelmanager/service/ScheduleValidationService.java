@@ -5,9 +5,9 @@ import com.travelmanager.model.BusSchedule;
 import com.travelmanager.model.Schedule;
 import com.travelmanager.model.TrainSchedule;
 import com.travelmanager.util.Constants;
+import com.travelmanager.util.LocationRegistry;
 
 import java.time.Duration;
-import java.util.Arrays;
 import java.util.List;
 
 /**
@@ -15,16 +15,7 @@ import java.util.List;
  */
 public class ScheduleValidationService {
     
-    private static final List<String> VALID_LOCATIONS = Arrays.asList(
-        "Barguna", "Barishal", "Bhola", "Jhalokati", "Patuakhali", "Pirojpur",
-        "Bandarban", "Brahmanbaria", "Chandpur", "Chattogram", "Cox's Bazar", "Cumilla", "Feni", "Khagrachari", "Lakshmipur", "Noakhali", "Rangamati",
-        "Dhaka", "Faridpur", "Gazipur", "Gopalganj", "Kishoreganj", "Madaripur", "Manikganj", "Munshiganj", "Narayanganj", "Narsingdi", "Rajbari", "Shariatpur", "Tangail",
-        "Bagerhat", "Chuadanga", "Jashore", "Jhenaidah", "Khulna", "Kushtia", "Magura", "Meherpur", "Narail", "Satkhira",
-        "Jamalpur", "Mymensingh", "Netrokona", "Sherpur",
-        "Bogura", "Joypurhat", "Naogaon", "Natore", "Chapai Nawabganj", "Pabna", "Rajshahi", "Sirajganj",
-        "Dinajpur", "Gaibandha", "Kurigram", "Lalmonirhat", "Nilphamari", "Panchagarh", "Rangpur", "Thakurgaon",
-        "Habiganj", "Moulvibazar", "Sunamganj", "Sylhet"
-    );
+    private final LocationRegistry locations = LocationRegistry.getInstance();
     
     /**
      * Validate schedule with all rules
@@ -52,16 +43,16 @@ public class ScheduleValidationService {
         if (schedule.getDestination() == null || schedule.getDestination().trim().isEmpty()) {
             throw new ValidationException("Destination is required");
         }
-        if (schedule.getOrigin().equalsIgnoreCase(schedule.getDestination())) {
+        if (locations.sameLocation(schedule.getOrigin(), schedule.getDestination())) {
             throw new ValidationException("Origin and destination must be different");
         }
     }
     
     private void validateLocations(Schedule schedule) throws ValidationException {
-        if (!VALID_LOCATIONS.contains(schedule.getOrigin())) {
+        if (!locations.isDistrict(schedule.getOrigin())) {
             throw new ValidationException("Invalid origin: " + schedule.getOrigin());
         }
-        if (!VALID_LOCATIONS.contains(schedule.getDestination())) {
+        if (!locations.isDistrict(schedule.getDestination())) {
             throw new ValidationException("Invalid destination: " + schedule.getDestination());
         }
     }
@@ -125,6 +116,6 @@ public class ScheduleValidationService {
      * Get list of valid locations
      */
     public List<String> getValidLocations() {
-        return VALID_LOCATIONS;
+        return locations.getDistricts();
     }
 }
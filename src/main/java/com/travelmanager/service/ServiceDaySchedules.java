@@ -0,0 +1,197 @@
+package com.travelmanager.service;
+
+import com.travelmanager.model.Schedule;
+import com.travelmanager.model.rest.BusScheduleDTO;
+import com.travelmanager.model.rest.TrainScheduleDTO;
+import com.travelmanager.service.rest.ScheduleConverter;
+import com.travelmanager.storage.TimetableSnapshot;
+import com.travelmanager.util.Constants;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Immutable dated schedule sets per service day, materialised for a rolling horizon
+ * The stored DTOs are converted into dated Schedules once per date rather than on
+ * every timetable compile: today and the next Constants.SCHEDULE_HORIZON_DAYS days
+ * are built together the first time a date in that window is asked for, later days
+ * roll in as the calendar moves on, and past days are dropped. Dates outside the
+ * window are materialised on demand and not kept.
+ * A schedule change replaces that one schedule in the days it runs on, before or
+ * after the change; other days keep their lists. Trains are checked against their
+ * off-day mask, so only their running days are touched.
+ * Not thread-safe: TimetableRepository calls it under its own lock.
+ */
+final class ServiceDaySchedules {
+
+    private final Map<LocalDate, ServiceDay> days = new HashMap<>();
+    private LocalDate horizonStart;
+
+    /**
+     * Schedules running on a date
+     * @param filter "ALL", "BUS" or "TRAIN"
+     * @return Unmodifiable list, shared between callers
+     */
+    List<Schedule> get(LocalDate date, String filter) {
+        ServiceDay day = day(date);
+        if ("BUS".equals(filter)) {
+            return day.buses;
+        }
+        return "TRAIN".equals(filter) ? day.trains : day.all;
+    }
+
+    /**
+     * Replace one schedule in every materialised day it runs on
+     * Idempotent: the updated schedule's ID is removed as well, so a day built after
+     * the storage change but before this call is not patched twice.
+     * @param previous DTO before the change, or null if it was added
+     * @param updated DTO after the change, or null if it was deleted
+     */
+    void patch(String transport, Object previous, Object updated, Map<LocalDate, DayPatch> patches) {
+        for (Map.Entry<LocalDate, ServiceDay> entry : days.entrySet()) {
+            LocalDate date = entry.getKey();
+            if (runsOn(previous, date) || runsOn(updated, date)) {
+                DayPatch patch = patches.computeIfAbsent(date, key -> new DayPatch(previous, updated, key));
+                entry.setValue(entry.getValue().patch(transport, patch));
+            }
+        }
+    }
+
+    void clear() {
+        days.clear();
+        horizonStart = null;
+    }
+
+    /**
+     * Whether a bus or train DTO runs on a date (buses run daily)
+     */
+    static boolean runsOn(Object dto, LocalDate date) {
+        if (dto instanceof TrainScheduleDTO) {
+            return ((TrainScheduleDTO) dto).runsOn(date);
+        }
+        return dto != null;
+    }
+
+    static Schedule convert(Object dto, LocalDate date) {
+        if (dto instanceof BusScheduleDTO) {
+            return ScheduleConverter.toBusSchedule((BusScheduleDTO) dto, date);
+        }
+        return ScheduleConverter.toTrainSchedule((TrainScheduleDTO) dto, date);
+    }
+
+    private ServiceDay day(LocalDate date) {
+        roll();
+        ServiceDay day = days.get(date);
+        if (day != null) {
+            return day;
+        }
+        day = materialise(TimetableSnapshot.current(), date);
+        if (!date.isBefore(horizonStart) && !date.isAfter(horizonStart.plusDays(Constants.SCHEDULE_HORIZON_DAYS))) {
+            days.put(date, day);
+        }
+        return day;
+    }
+
+    /**
+     * Drop past days and build the days the window has moved onto
+     */
+    private void roll() {
+        LocalDate today = LocalDate.now();
+        if (today.equals(horizonStart)) {
+            return;
+        }
+        horizonStart = today;
+        days.keySet().removeIf(date -> date.isBefore(today));
+        TimetableSnapshot snapshot = TimetableSnapshot.current();
+        int built = 0;
+        for (int offset = 0; offset <= Constants.SCHEDULE_HORIZON_DAYS; offset++) {
+            LocalDate date = today.plusDays(offset);
+            if (!days.containsKey(date)) {
+                days.put(date, materialise(snapshot, date));
+                built++;
+            }
+        }
+        System.out.println("Materialised schedules for " + built + " service days from " + today);
+    }
+
+    private static ServiceDay materialise(TimetableSnapshot snapshot, LocalDate date) {
+        List<Schedule> buses = new ArrayList<>(snapshot.getBusSchedules().size());
+        for (BusScheduleDTO dto : snapshot.getBusSchedules()) {
+            buses.add(ScheduleConverter.toBusSchedule(dto, date));
+        }
+        List<Schedule> trains = new ArrayList<>(snapshot.getTrainSchedules().size());
+        for (TrainScheduleDTO dto : snapshot.getTrainSchedules()) {
+            if (dto.runsOn(date)) {
+                trains.add(ScheduleConverter.toTrainSchedule(dto, date));
+            }
+        }
+        return new ServiceDay(buses, trains);
+    }
+
+    /**
+     * One change converted for one date, shared by the day's schedule set and timetables
+     */
+    static final class DayPatch {
+        final List<Schedule> removed = new ArrayList<>(2);
+        final List<Schedule> added = new ArrayList<>(1);
+
+        DayPatch(Object previous, Object updated, LocalDate date) {
+            if (previous != null) {
+                removed.add(convert(previous, date));
+            }
+            if (updated != null) {
+                Schedule schedule = convert(updated, date);
+                removed.add(schedule);
+                if (runsOn(updated, date)) {
+                    added.add(schedule);
+                }
+            }
+        }
+    }
+
+    /**
+     * The schedules of one date, by transport type
+     */
+    private static final class ServiceDay {
+        final List<Schedule> buses;
+        final List<Schedule> trains;
+        final List<Schedule> all;
+
+        ServiceDay(List<Schedule> buses, List<Schedule> trains) {
+            this.buses = Collections.unmodifiableList(buses);
+            this.trains = Collections.unmodifiableList(trains);
+            List<Schedule> all = new ArrayList<>(buses.size() + trains.size());
+            all.addAll(buses);
+            all.addAll(trains);
+            this.all = Collections.unmodifiableList(all);
+        }
+
+        ServiceDay patch(String transport, DayPatch patch) {
+            if ("BUS".equals(transport)) {
+                return new ServiceDay(replace(buses, patch), trains);
+            }
+            return new ServiceDay(buses, replace(trains, patch));
+        }
+
+        private static List<Schedule> replace(List<Schedule> schedules, DayPatch patch) {
+            Set<String> removedIds = new HashSet<>();
+            for (Schedule schedule : patch.removed) {
+                removedIds.add(schedule.getId());
+            }
+            List<Schedule> replaced = new ArrayList<>(schedules.size() + patch.added.size());
+            for (Schedule schedule : schedules) {
+                if (!removedIds.contains(schedule.getId())) {
+                    replaced.add(schedule);
+                }
+            }
+            replaced.addAll(patch.added);
+            return replaced;
+        }
+    }
+}
@@ -0,0 +1,273 @@
+package com.travelmanager.service;
+
+import com.travelmanager.domain.CompiledTimetable;
+import com.travelmanager.model.Schedule;
+import com.travelmanager.model.rest.BusScheduleDTO;
+import com.travelmanager.model.rest.TimeOfDay;
+import com.travelmanager.model.rest.TrainScheduleDTO;
+import com.travelmanager.storage.BusScheduleStorage;
+import com.travelmanager.storage.ScheduleChangeListener;
+import com.travelmanager.storage.TimetableSnapshot;
+import com.travelmanager.storage.TrainScheduleStorage;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * Long-lived compiled timetables per travel date and transport filter
+ * A timetable is compiled from storage the first time its date is asked for and
+ * then kept current: every add, update or delete in BusScheduleStorage or
+ * TrainScheduleStorage patches the affected edges instead of rebuilding.
+ * Timetables are compiled from one TimetableSnapshot, and the repository version
+ * is the snapshot version its timetables reflect. The dated schedules they are
+ * compiled from come from ServiceDaySchedules, which keeps them per service day.
+ * Listeners learn which cities each change touched, for targeted cache invalidation.
+ */
+public class TimetableRepository {
+    
+    /**
+     * Notified after the version has moved on, while the change is still being applied
+     */
+    public interface TimetableListener {
+        /**
+         * Schedules leaving or entering these cities (city keys) changed
+         */
+        void citiesChanged(Set<String> cityKeys);
+        
+        /**
+         * All timetables were dropped, e.g. after a reload from file
+         */
+        void timetablesCleared();
+    }
+    
+    private static TimetableRepository instance;
+    
+    private final BusScheduleStorage busStorage;
+    private final TrainScheduleStorage trainStorage;
+    
+    // Key: date + "_" + filter ("ALL", "BUS", "TRAIN")
+    private final Map<String, CompiledTimetable> timetables = new ConcurrentHashMap<>();
+    private volatile long version = TimetableSnapshot.current().getVersion();
+    private final List<TimetableListener> listeners = new CopyOnWriteArrayList<>();
+    private final ServiceDaySchedules serviceDays = new ServiceDaySchedules();
+    private volatile long[] offDays = { -1, 0 };  // Snapshot version, weekday bitmask
+    
+    private TimetableRepository() {
+        this.busStorage = BusScheduleStorage.getInstance();
+        this.trainStorage = TrainScheduleStorage.getInstance();
+        busStorage.addChangeListener(new BusListener());
+        trainStorage.addChangeListener(new TrainListener());
+    }
+    
+    public static synchronized TimetableRepository getInstance() {
+        if (instance == null) {
+            instance = new TimetableRepository();
+        }
+        return instance;
+    }
+    
+    /**
+     * Compiled timetable for a date
+     * @param date Travel date
+     * @param transportFilter Filter by transport type ("ALL", "BUS", "TRAIN")
+     */
+    public CompiledTimetable getTimetable(LocalDate date, String transportFilter) {
+        String key = key(date, transportFilter);
+        CompiledTimetable timetable = timetables.get(key);
+        if (timetable != null) {
+            return timetable;
+        }
+        
+        // Compile under the writer lock so a concurrent patch cannot be lost or applied twice
+        synchronized (this) {
+            timetable = timetables.get(key);
+            if (timetable == null) {
+                dropPastDates();
+                timetable = new CompiledTimetable(serviceDays.get(date, filterOf(key)));
+                System.out.println("Compiled timetable for " + key + ": " + timetable.getGraph().cityCount()
+                    + " cities, " + timetable.getGraph().edgeCount() + " edges");
+                timetables.put(key, timetable);
+            }
+            return timetable;
+        }
+    }
+    
+    /**
+     * Schedules running on a date, dated to it
+     * @param transportFilter Filter by transport type ("ALL", "BUS", "TRAIN")
+     * @return Unmodifiable list, shared between callers
+     */
+    public synchronized List<Schedule> getSchedules(LocalDate date, String transportFilter) {
+        return serviceDays.get(date, filterOf(key(date, transportFilter)));
+    }
+    
+    /**
+     * Snapshot version the compiled timetables are up to date with
+     * Storage writers notify listeners under the snapshot write lock, so this
+     * advances in step with TimetableSnapshot and can be used in cache keys.
+     */
+    public long getVersion() {
+        return version;
+    }
+    
+    /**
+     * Service pattern of a date: a name shared by every date on which the same schedules run
+     * Buses run daily and a train only skips its off day, so dates whose weekday is no
+     * train's off day share "DAILY" and the others share one pattern per weekday.
+     */
+    public String servicePattern(LocalDate date, String transportFilter) {
+        DayOfWeek day = date.getDayOfWeek();
+        if ("BUS".equals(filterOf(key(date, transportFilter))) || (offDayMask() & TimeOfDay.dayBit(day)) == 0) {
+            return "DAILY";
+        }
+        return day.name();
+    }
+    
+    /**
+     * Weekdays on which at least one train does not run, bit = DayOfWeek ordinal
+     */
+    private int offDayMask() {
+        TimetableSnapshot snapshot = TimetableSnapshot.current();
+        long[] cached = offDays;
+        if (cached[0] == snapshot.getVersion()) {
+            return (int) cached[1];
+        }
+        int mask = 0;
+        for (TrainScheduleDTO train : snapshot.getTrainSchedules()) {
+            mask |= train.getOffDayMask();
+        }
+        offDays = new long[] { snapshot.getVersion(), mask };
+        return mask;
+    }
+    
+    public void addTimetableListener(TimetableListener listener) {
+        listeners.add(listener);
+    }
+    
+    public void removeTimetableListener(TimetableListener listener) {
+        listeners.remove(listener);
+    }
+    
+    /**
+     * Patch the service days and every compiled timetable of a transport type
+     * The schedules being added are also removed first, so a timetable compiled
+     * after the storage change but before this call is not patched twice.
+     * Dates on which neither version of the schedule runs are left alone.
+     */
+    private synchronized void patch(String transport, Object previous, Object updated) {
+        Map<LocalDate, ServiceDaySchedules.DayPatch> patches = new HashMap<>();
+        serviceDays.patch(transport, previous, updated, patches);
+        for (Map.Entry<String, CompiledTimetable> entry : timetables.entrySet()) {
+            String filter = filterOf(entry.getKey());
+            LocalDate date = dateOf(entry.getKey());
+            if ((!filter.equals("ALL") && !filter.equals(transport))
+                    || !(ServiceDaySchedules.runsOn(previous, date) || ServiceDaySchedules.runsOn(updated, date))) {
+                continue;
+            }
+            ServiceDaySchedules.DayPatch patch = patches.computeIfAbsent(date,
+                key -> new ServiceDaySchedules.DayPatch(previous, updated, key));
+            entry.setValue(entry.getValue().patch(patch.removed, patch.added));
+        }
+        version = TimetableSnapshot.current().getVersion();
+        
+        Set<String> cities = new HashSet<>();
+        for (Object dto : new Object[] { previous, updated }) {
+            if (dto != null) {
+                Schedule schedule = ServiceDaySchedules.convert(dto, LocalDate.now());
+                cities.add(CompiledTimetable.cityKey(schedule.getOrigin()));
+                cities.add(CompiledTimetable.cityKey(schedule.getDestination()));
+            }
+        }
+        listeners.forEach(listener -> listener.citiesChanged(cities));
+    }
+    
+    /**
+     * The schedule, or null if its times are malformed: it was stored but never planned on
+     */
+    private static BusScheduleDTO searchable(BusScheduleDTO schedule) {
+        return schedule.hasValidTimes() ? schedule : null;
+    }
+    
+    private static TrainScheduleDTO searchable(TrainScheduleDTO schedule) {
+        return schedule.hasValidTimes() ? schedule : null;
+    }
+    
+    private synchronized void clear() {
+        timetables.clear();
+        serviceDays.clear();
+        version = TimetableSnapshot.current().getVersion();
+        listeners.forEach(TimetableListener::timetablesCleared);
+    }
+    
+    private void dropPastDates() {
+        LocalDate today = LocalDate.now();
+        timetables.keySet().removeIf(key -> dateOf(key).isBefore(today));
+    }
+    
+    private static String key(LocalDate date, String transportFilter) {
+        String filter = transportFilter != null ? transportFilter.toUpperCase() : "ALL";
+        if (!filter.equals("BUS") && !filter.equals("TRAIN")) {
+            filter = "ALL";
+        }
+        return date + "_" + filter;
+    }
+    
+    private static LocalDate dateOf(String key) {
+        return LocalDate.parse(key.substring(0, key.indexOf('_')));
+    }
+    
+    private static String filterOf(String key) {
+        return key.substring(key.indexOf('_') + 1);
+    }
+    
+    private class BusListener implements ScheduleChangeListener<BusScheduleDTO> {
+        @Override
+        public void scheduleAdded(BusScheduleDTO schedule) {
+            patch("BUS", null, searchable(schedule));
+        }
+        
+        @Override
+        public void scheduleUpdated(BusScheduleDTO previous, BusScheduleDTO updated) {
+            patch("BUS", searchable(previous), searchable(updated));
+        }
+        
+        @Override
+        public void scheduleDeleted(BusScheduleDTO schedule) {
+            patch("BUS", searchable(schedule), null);
+        }
+        
+        @Override
+        public void schedulesReloaded() {
+            clear();
+        }
+    }
+    
+    private class TrainListener implements ScheduleChangeListener<TrainScheduleDTO> {
+        @Override
+        public void scheduleAdded(TrainScheduleDTO schedule) {
+            patch("TRAIN", null, searchable(schedule));
+        }
+        
+        @Override
+        public void scheduleUpdated(TrainScheduleDTO previous, TrainScheduleDTO updated) {
+            patch("TRAIN", searchable(previous), searchable(updated));
+        }
+        
+        @Override
+        public void scheduleDeleted(TrainScheduleDTO schedule) {
+            patch("TRAIN", searchable(schedule), null);
+        }
+        
+        @Override
+        public void schedulesReloaded() {
+            clear();
+        }
+    }
+}
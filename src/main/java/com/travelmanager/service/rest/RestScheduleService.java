@@ -15,7 +15,6 @@ import java.net.http.HttpRequest;
 import java.net.http.HttpResponse;
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
-import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
@@ -37,8 +36,13 @@ public class RestScheduleService {
 
     /**
      * Search for schedules using the unified REST API endpoint
+     * Both cities are required: the endpoint rejects a blank one with HTTP 400
      */
     public List<Schedule> searchSchedules(String origin, String destination, LocalDate date) {
+        if (origin == null || origin.trim().isEmpty() || destination == null || destination.trim().isEmpty()) {
+            System.err.println("RestScheduleService: Origin and destination are required for a route search");
+            return new ArrayList<>();
+        }
         try {
             System.out.println("RestScheduleService: Searching schedules - Origin: " + origin + ", Dest: " + destination);
             String encodedStart = URLEncoder.encode(origin, StandardCharsets.UTF_8);
@@ -183,14 +187,14 @@ public class RestScheduleService {
      */
     private List<Schedule> convertUnifiedToSchedules(List<UnifiedScheduleDTO> dtos, LocalDate date) {
         List<Schedule> schedules = new ArrayList<>();
+        int dayBit = TimeOfDay.dayBit(date.getDayOfWeek());
         for (UnifiedScheduleDTO dto : dtos) {
             if ("bus".equals(dto.getType())) {
-                schedules.add(convertBusDTO(dto, date));
+                schedules.add(ScheduleConverter.toBusSchedule(dto, date));
             } else if ("train".equals(dto.getType())) {
-                TrainSchedule train = convertTrainDTO(dto, date);
-                // Only add train if it's available on the given date
-                if (train.isAvailableOnDate(date)) {
-                    schedules.add(train);
+                // Only convert the train if it runs on the given date
+                if ((TimeOfDay.parseOffDays(dto.getOffDay()) & dayBit) == 0) {
+                    schedules.add(ScheduleConverter.toTrainSchedule(dto, date));
                 }
             }
         }
@@ -203,7 +207,8 @@ public class RestScheduleService {
     private List<BusSchedule> convertBusDTOsToSchedules(List<BusScheduleDTO> dtos) {
         LocalDate today = LocalDate.now();
         return dtos.stream()
-                .map(dto -> convertBusDTO(dto, today))
+                .filter(BusScheduleDTO::hasValidTimes)  // Stored with malformed times
+                .map(dto -> ScheduleConverter.toBusSchedule(dto, today))
                 .collect(Collectors.toList());
     }
 
@@ -213,149 +218,8 @@ public class RestScheduleService {
     private List<TrainSchedule> convertTrainDTOsToSchedules(List<TrainScheduleDTO> dtos) {
         LocalDate today = LocalDate.now();
         return dtos.stream()
-                .map(dto -> convertTrainDTO(dto, today))
+                .filter(TrainScheduleDTO::hasValidTimes)  // Stored with malformed times
+                .map(dto -> ScheduleConverter.toTrainSchedule(dto, today))
                 .collect(Collectors.toList());
     }
-
-    /**
-     * Convert BusScheduleDTO to BusSchedule
-     */
-    private BusSchedule convertBusDTO(BusScheduleDTO dto, LocalDate date) {
-        LocalDateTime departureTime = parseDateTime(date, dto.getStartTime());
-        LocalDateTime arrivalTime = parseDateTime(date, dto.getArrivalTime());
-        
-        // If arrival is before departure, it's next day
-        if (arrivalTime.isBefore(departureTime)) {
-            arrivalTime = arrivalTime.plusDays(1);
-        }
-
-        return new BusSchedule(
-                dto.getBusName(),
-                dto.getStart(),
-                dto.getDestination(),
-                departureTime,
-                arrivalTime,
-                dto.getFare(),
-                50, // default available seats
-                dto.getBusName(), // use bus name as company
-                "Standard" // default bus type
-        );
-    }
-
-    /**
-     * Convert UnifiedScheduleDTO (bus) to BusSchedule
-     */
-    private BusSchedule convertBusDTO(UnifiedScheduleDTO dto, LocalDate date) {
-        LocalDateTime departureTime = parseDateTime(date, dto.getStartTime());
-        LocalDateTime arrivalTime = parseDateTime(date, dto.getArrivalTime());
-        
-        if (arrivalTime.isBefore(departureTime)) {
-            arrivalTime = arrivalTime.plusDays(1);
-        }
-
-        return new BusSchedule(
-                dto.getName(),
-                dto.getStart(),
-                dto.getDestination(),
-                departureTime,
-                arrivalTime,
-                dto.getFare(),
-                50,
-                dto.getName(),
-                "Standard"
-        );
-    }
-
-    /**
-     * Convert TrainScheduleDTO to TrainSchedule
-     */
-    private TrainSchedule convertTrainDTO(TrainScheduleDTO dto, LocalDate date) {
-        LocalDateTime departureTime = parseDateTime(date, dto.getStartTime());
-        LocalDateTime arrivalTime = parseDateTime(date, dto.getArrivalTime());
-        
-        if (arrivalTime.isBefore(departureTime)) {
-            arrivalTime = arrivalTime.plusDays(1);
-        }
-
-        String trainNumber = extractTrainNumber(dto.getTrainName());
-        String trainNameOnly = removeTrainNumber(dto.getTrainName());
-
-        return new TrainSchedule(
-                dto.getTrainName(),
-                dto.getStart(),
-                dto.getDestination(),
-                departureTime,
-                arrivalTime,
-                dto.getFare(),
-                100, // default available seats
-                trainNameOnly,
-                trainNumber,
-                "Shovan", // default class
-                dto.getOffDay()  // Pass the off day from DTO
-        );
-    }
-
-    /**
-     * Convert UnifiedScheduleDTO (train) to TrainSchedule
-     */
-    private TrainSchedule convertTrainDTO(UnifiedScheduleDTO dto, LocalDate date) {
-        LocalDateTime departureTime = parseDateTime(date, dto.getStartTime());
-        LocalDateTime arrivalTime = parseDateTime(date, dto.getArrivalTime());
-        
-        if (arrivalTime.isBefore(departureTime)) {
-            arrivalTime = arrivalTime.plusDays(1);
-        }
-
-        String trainNumber = extractTrainNumber(dto.getName());
-        String trainNameOnly = removeTrainNumber(dto.getName());
-
-        return new TrainSchedule(
-                dto.getName(),
-                dto.getStart(),
-                dto.getDestination(),
-                departureTime,
-                arrivalTime,
-                dto.getFare(),
-                100,
-                trainNameOnly,
-                trainNumber,
-                "Shovan",
-                dto.getOffDay()  // Pass the off day from DTO
-        );
-    }
-
-    /**
-     * Parse time string with date to LocalDateTime
-     */
-    private LocalDateTime parseDateTime(LocalDate date, String timeStr) {
-        try {
-            String[] parts = timeStr.split(":");
-            int hour = Integer.parseInt(parts[0]);
-            int minute = Integer.parseInt(parts[1]);
-            return LocalDateTime.of(date.getYear(), date.getMonth(), date.getDayOfMonth(), hour, minute);
-        } catch (Exception e) {
-            System.err.println("Error parsing time: " + timeStr);
-            return LocalDateTime.of(date.getYear(), date.getMonth(), date.getDayOfMonth(), 0, 0);
-        }
-    }
-
-    /**
-     * Extract train number from train name
-     */
-    private String extractTrainNumber(String trainName) {
-        if (trainName.contains("(") && trainName.contains(")")) {
-            int start = trainName.indexOf("(") + 1;
-            int end = trainName.indexOf(")");
-            return trainName.substring(start, end);
-        }
-        return "000";
-    }
-
-    private String removeTrainNumber(String trainName) {
-        if (trainName.contains("(") && trainName.contains(")")) {
-            int start = trainName.indexOf("(");
-            return trainName.substring(0, start).trim();
-        }
-        return trainName;
-    }
 }
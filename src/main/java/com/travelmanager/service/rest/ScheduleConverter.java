@@ -0,0 +1,190 @@
+package com.travelmanager.service.rest;
+
+import com.travelmanager.model.BusSchedule;
+import com.travelmanager.model.TrainSchedule;
+import com.travelmanager.model.rest.BusScheduleDTO;
+import com.travelmanager.model.rest.TimeOfDay;
+import com.travelmanager.model.rest.TrainScheduleDTO;
+import com.travelmanager.model.rest.UnifiedScheduleDTO;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Converts stored schedule DTOs into dated domain schedules
+ * Shared by the REST client and the in-process timetable repository.
+ */
+public final class ScheduleConverter {
+
+    private ScheduleConverter() {
+    }
+
+    /**
+     * Convert BusScheduleDTO to BusSchedule
+     */
+    public static BusSchedule toBusSchedule(BusScheduleDTO dto, LocalDate date) {
+        LocalDateTime midnight = date.atStartOfDay();
+        LocalDateTime departureTime = midnight.plusMinutes(dto.getStartMinute());
+        LocalDateTime arrivalTime = midnight.plusDays(dto.getArrivalDayOffset()).plusMinutes(dto.getArrivalMinute());
+
+        return new BusSchedule(
+                dto.getBusName(),
+                dto.getStart(),
+                dto.getDestination(),
+                departureTime,
+                arrivalTime,
+                dto.getFare(),
+                50, // default available seats
+                dto.getBusName(), // use bus name as company
+                "Standard" // default bus type
+        );
+    }
+
+    /**
+     * Convert UnifiedScheduleDTO (bus) to BusSchedule
+     */
+    public static BusSchedule toBusSchedule(UnifiedScheduleDTO dto, LocalDate date) {
+        LocalDateTime departureTime = parseDateTime(date, dto.getStartTime());
+        LocalDateTime arrivalTime = parseDateTime(date, dto.getArrivalTime());
+        
+        if (arrivalTime.isBefore(departureTime)) {
+            arrivalTime = arrivalTime.plusDays(1);
+        }
+
+        return new BusSchedule(
+                dto.getName(),
+                dto.getStart(),
+                dto.getDestination(),
+                departureTime,
+                arrivalTime,
+                dto.getFare(),
+                50,
+                dto.getName(),
+                "Standard"
+        );
+    }
+
+    /**
+     * Convert TrainScheduleDTO to TrainSchedule
+     */
+    public static TrainSchedule toTrainSchedule(TrainScheduleDTO dto, LocalDate date) {
+        LocalDateTime midnight = date.atStartOfDay();
+        LocalDateTime departureTime = midnight.plusMinutes(dto.getStartMinute());
+        LocalDateTime arrivalTime = midnight.plusDays(dto.getArrivalDayOffset()).plusMinutes(dto.getArrivalMinute());
+
+        String trainNumber = extractTrainNumber(dto.getTrainName());
+        String trainNameOnly = removeTrainNumber(dto.getTrainName());
+
+        TrainSchedule train = new TrainSchedule(
+                dto.getTrainName(),
+                dto.getStart(),
+                dto.getDestination(),
+                departureTime,
+                arrivalTime,
+                dto.getFare(),
+                100, // default available seats
+                trainNameOnly,
+                trainNumber,
+                "Shovan", // default class
+                dto.getOffDay()  // Pass the off day from DTO
+        );
+        train.setStops(convertStops(dto.getStops(), departureTime));
+        return train;
+    }
+
+    /**
+     * Convert DTO stops to dated stop times, rolling over midnight as the train runs
+     */
+    private static List<TrainSchedule.StopTime> convertStops(List<TrainScheduleDTO.TrainStop> stops, LocalDateTime departureTime) {
+        List<TrainSchedule.StopTime> stopTimes = new ArrayList<>();
+        if (stops == null || stops.size() < 2) {
+            return stopTimes;
+        }
+
+        // Minutes since the departure day's midnight
+        LocalDateTime midnight = departureTime.toLocalDate().atStartOfDay();
+        int day = 0;
+        int previous = Integer.MIN_VALUE;
+        for (TrainScheduleDTO.TrainStop stop : stops) {
+            int arrival = day + stop.getArrivalMinute();
+            if (arrival < previous) {
+                arrival += TimeOfDay.MINUTES_PER_DAY;
+            }
+            int departure = arrival - stop.getArrivalMinute() + stop.getDepartureMinute();
+            if (departure < arrival) {
+                departure += TimeOfDay.MINUTES_PER_DAY;
+            }
+            day = departure - stop.getDepartureMinute();
+            previous = departure;
+            stopTimes.add(new TrainSchedule.StopTime(stop.getStation(), midnight.plusMinutes(arrival),
+                midnight.plusMinutes(departure), stop.getCumulativeFare()));
+        }
+        return stopTimes;
+    }
+
+    /**
+     * Convert UnifiedScheduleDTO (train) to TrainSchedule
+     */
+    public static TrainSchedule toTrainSchedule(UnifiedScheduleDTO dto, LocalDate date) {
+        LocalDateTime departureTime = parseDateTime(date, dto.getStartTime());
+        LocalDateTime arrivalTime = parseDateTime(date, dto.getArrivalTime());
+        
+        if (arrivalTime.isBefore(departureTime)) {
+            arrivalTime = arrivalTime.plusDays(1);
+        }
+
+        String trainNumber = extractTrainNumber(dto.getName());
+        String trainNameOnly = removeTrainNumber(dto.getName());
+
+        return new TrainSchedule(
+                dto.getName(),
+                dto.getStart(),
+                dto.getDestination(),
+                departureTime,
+                arrivalTime,
+                dto.getFare(),
+                100,
+                trainNameOnly,
+                trainNumber,
+                "Shovan",
+                dto.getOffDay()  // Pass the off day from DTO
+        );
+    }
+
+    /**
+     * Parse time string with date to LocalDateTime
+     */
+    public static LocalDateTime parseDateTime(LocalDate date, String timeStr) {
+        try {
+            String[] parts = timeStr.split(":");
+            int hour = Integer.parseInt(parts[0]);
+            int minute = Integer.parseInt(parts[1]);
+            return LocalDateTime.of(date.getYear(), date.getMonth(), date.getDayOfMonth(), hour, minute);
+        } catch (Exception e) {
+            System.err.println("Error parsing time: " + timeStr);
+            return LocalDateTime.of(date.getYear(), date.getMonth(), date.getDayOfMonth(), 0, 0);
+        }
+    }
+
+    /**
+     * Extract train number from train name
+     */
+    private static String extractTrainNumber(String trainName) {
+        if (trainName.contains("(") && trainName.contains(")")) {
+            int start = trainName.indexOf("(") + 1;
+            int end = trainName.indexOf(")");
+            return trainName.substring(start, end);
+        }
+        return "000";
+    }
+
+    private static String removeTrainNumber(String trainName) {
+        if (trainName.contains("(") && trainName.contains(")")) {
+            int start = trainName.indexOf("(");
+            return trainName.substring(0, start).trim();
+        }
+        return trainName;
+    }
+}
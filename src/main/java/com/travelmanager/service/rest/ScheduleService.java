@@ -2,6 +2,8 @@ package com.travelmanager.service.rest;
 
 import com.travelmanager.model.rest.*;
 import com.travelmanager.storage.*;
+import com.travelmanager.util.LocationRegistry;
+import com.travelmanager.util.LocationSuggestIndex;
 
 import java.util.*;
 
@@ -14,6 +16,7 @@ public class ScheduleService {
     
     private final BusScheduleStorage busStorage;
     private final TrainScheduleStorage trainStorage;
+    private volatile SuggestIndex suggestIndex;
 
     private ScheduleService() {
         this.busStorage = BusScheduleStorage.getInstance();
@@ -29,19 +32,33 @@ public class ScheduleService {
 
     // ============= UNIFIED OPERATIONS =============
 
+    /**
+     * Current timetable snapshot; take one per request and pass it to the reads below
+     */
+    public TimetableSnapshot snapshot() {
+        return TimetableSnapshot.current();
+    }
+
     /**
      * Get all schedules (bus + train) in unified format
      */
     public List<UnifiedScheduleDTO> getAllSchedules() {
+        return getAllSchedules(TimetableSnapshot.current());
+    }
+
+    /**
+     * Get all schedules (bus + train) of one snapshot in unified format
+     */
+    public List<UnifiedScheduleDTO> getAllSchedules(TimetableSnapshot snapshot) {
         List<UnifiedScheduleDTO> unified = new ArrayList<>();
         
         // Add all bus schedules
-        busStorage.getAllSchedules().stream()
+        snapshot.getBusSchedules().stream()
                 .map(UnifiedScheduleDTO::fromBus)
                 .forEach(unified::add);
         
         // Add all train schedules
-        trainStorage.getAllSchedules().stream()
+        snapshot.getTrainSchedules().stream()
                 .map(UnifiedScheduleDTO::fromTrain)
                 .forEach(unified::add);
         
@@ -53,21 +70,66 @@ public class ScheduleService {
      * Returns unified results
      */
     public List<UnifiedScheduleDTO> searchRoutes(String start, String destination) {
+        return searchRoutes(TimetableSnapshot.current(), start, destination);
+    }
+
+    /**
+     * Search routes within one snapshot, so bus and train results come from the same version
+     */
+    public List<UnifiedScheduleDTO> searchRoutes(TimetableSnapshot snapshot, String start, String destination) {
         List<UnifiedScheduleDTO> results = new ArrayList<>();
         
         // Search bus schedules
-        busStorage.searchRoutes(start, destination).stream()
+        busStorage.searchRoutes(snapshot, start, destination).stream()
                 .map(UnifiedScheduleDTO::fromBus)
                 .forEach(results::add);
         
         // Search train schedules
-        trainStorage.searchRoutes(start, destination).stream()
+        trainStorage.searchRoutes(snapshot, start, destination).stream()
                 .map(UnifiedScheduleDTO::fromTrain)
                 .forEach(results::add);
         
         return results;
     }
 
+    /**
+     * Location names matching what a user has typed, most relevant first
+     * Answered from a suggestion index built once per snapshot version.
+     */
+    public List<String> suggestLocations(TimetableSnapshot snapshot, String query, int limit) {
+        SuggestIndex current = suggestIndex;
+        if (current == null || current.version != snapshot.getVersion()) {
+            current = new SuggestIndex(snapshot.getVersion(), buildSuggestIndex(snapshot));
+            suggestIndex = current;
+        }
+        return current.index.suggest(query, limit);
+    }
+
+    /**
+     * Index over every place a schedule starts, ends or calls at, ranked by how many schedules touch it
+     */
+    private LocationSuggestIndex buildSuggestIndex(TimetableSnapshot snapshot) {
+        LocationRegistry locations = LocationRegistry.getInstance();
+        Map<String, Integer> popularity = new HashMap<>();
+        for (BusScheduleDTO bus : snapshot.getBusSchedules()) {
+            popularity.merge(locations.name(locations.intern(bus.getStart())), 1, Integer::sum);
+            popularity.merge(locations.name(locations.intern(bus.getDestination())), 1, Integer::sum);
+        }
+        for (TrainScheduleDTO train : snapshot.getTrainSchedules()) {
+            List<String> places = new ArrayList<>();
+            if (train.getStops() != null && !train.getStops().isEmpty()) {
+                train.getStops().forEach(stop -> places.add(stop.getStation()));
+            } else {
+                places.add(train.getStart());
+                places.add(train.getDestination());
+            }
+            for (String place : places) {
+                popularity.merge(locations.name(locations.intern(place)), 1, Integer::sum);
+            }
+        }
+        return new LocationSuggestIndex(popularity);
+    }
+
     // ============= BUS OPERATIONS =============
 
     /**
@@ -149,4 +211,17 @@ public class ScheduleService {
         busStorage.reload();
         trainStorage.reload();
     }
+
+    /**
+     * Suggestion index and the snapshot version it was built from
+     */
+    private static class SuggestIndex {
+        final long version;
+        final LocationSuggestIndex index;
+
+        SuggestIndex(long version, LocationSuggestIndex index) {
+            this.version = version;
+            this.index = index;
+        }
+    }
 }
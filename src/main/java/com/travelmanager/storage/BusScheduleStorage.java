@@ -9,23 +9,23 @@ import java.io.*;
 import java.lang.reflect.Type;
 import java.nio.file.*;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 /**
  * Storage manager for bus schedules using JSON persistence
- * Thread-safe with in-memory caching
+ * Thread-safe: reads go to the current TimetableSnapshot without locking, writers
+ * publish a new snapshot under the shared write lock
  */
 public class BusScheduleStorage {
     private static final String DATA_DIR = "data";
     private static final String BUS_SCHEDULES_FILE = "bus_schedules.json";
     private static BusScheduleStorage instance;
     
-    private final Map<String, BusScheduleDTO> busSchedules;
+    private final List<ScheduleChangeListener<BusScheduleDTO>> listeners = new CopyOnWriteArrayList<>();
     private final Gson gson;
     private final Path filePath;
 
     private BusScheduleStorage() {
-        this.busSchedules = new ConcurrentHashMap<>();
         this.gson = new GsonBuilder().setPrettyPrinting().create();
         this.filePath = Paths.get(DATA_DIR, BUS_SCHEDULES_FILE);
         
@@ -61,11 +61,16 @@ public class BusScheduleStorage {
             List<BusScheduleDTO> schedules = gson.fromJson(reader, listType);
             
             if (schedules != null) {
-                busSchedules.clear();
+                Map<String, BusScheduleDTO> loaded = new LinkedHashMap<>();
                 for (BusScheduleDTO schedule : schedules) {
-                    busSchedules.put(schedule.getBusName(), schedule);
+                    // Kept and saved back as stored; only searches leave it out
+                    if (!schedule.hasValidTimes()) {
+                        System.err.println("Bus schedule " + schedule.getBusName() + " has malformed times and is left out of searches until fixed");
+                    }
+                    loaded.put(schedule.getBusName(), schedule);
                 }
-                System.out.println("Loaded " + busSchedules.size() + " bus schedules from file.");
+                TimetableSnapshot.publishBuses(loaded);
+                System.out.println("Loaded " + loaded.size() + " bus schedules from file.");
             }
         } catch (IOException e) {
             System.err.println("Error loading bus schedules: " + e.getMessage());
@@ -77,7 +82,7 @@ public class BusScheduleStorage {
      */
     private void saveToFile() {
         try (Writer writer = Files.newBufferedWriter(filePath)) {
-            List<BusScheduleDTO> scheduleList = new ArrayList<>(busSchedules.values());
+            List<BusScheduleDTO> scheduleList = new ArrayList<>(TimetableSnapshot.current().buses().values());
             gson.toJson(scheduleList, writer);
         } catch (IOException e) {
             System.err.println("Error saving bus schedules: " + e.getMessage());
@@ -85,58 +90,90 @@ public class BusScheduleStorage {
     }
 
     /**
-     * Get all bus schedules
+     * Get all bus schedules as stored, including any whose times are malformed
      */
     public List<BusScheduleDTO> getAllSchedules() {
-        return new ArrayList<>(busSchedules.values());
+        return new ArrayList<>(TimetableSnapshot.current().buses().values());
     }
 
     /**
      * Get a specific bus schedule by bus name
      */
     public Optional<BusScheduleDTO> getSchedule(String busName) {
-        return Optional.ofNullable(busSchedules.get(busName));
+        return TimetableSnapshot.current().getBusSchedule(busName);
+    }
+
+    /**
+     * Register a listener for add/update/delete/reload
+     */
+    public void addChangeListener(ScheduleChangeListener<BusScheduleDTO> listener) {
+        listeners.add(listener);
+    }
+
+    public void removeChangeListener(ScheduleChangeListener<BusScheduleDTO> listener) {
+        listeners.remove(listener);
     }
 
     /**
      * Add a new bus schedule
+     * @throws IllegalArgumentException if its times are malformed
      */
     public boolean addSchedule(BusScheduleDTO schedule) {
-        if (busSchedules.containsKey(schedule.getBusName())) {
-            return false; // Already exists
+        schedule.parseTimes();
+        synchronized (TimetableSnapshot.WRITE_LOCK) {
+            Map<String, BusScheduleDTO> next = new LinkedHashMap<>(TimetableSnapshot.current().buses());
+            if (next.containsKey(schedule.getBusName())) {
+                return false; // Already exists
+            }
+            next.put(schedule.getBusName(), schedule);
+            TimetableSnapshot.publishBuses(next);
+            saveToFile();
+            listeners.forEach(listener -> listener.scheduleAdded(schedule));
+            return true;
         }
-        busSchedules.put(schedule.getBusName(), schedule);
-        saveToFile();
-        return true;
     }
 
     /**
      * Update an existing bus schedule
+     * @throws IllegalArgumentException if its times are malformed
      */
     public boolean updateSchedule(String busName, BusScheduleDTO schedule) {
-        if (!busSchedules.containsKey(busName)) {
-            return false; // Not found
-        }
-        
-        // Remove old entry if name changed
-        if (!busName.equals(schedule.getBusName())) {
-            busSchedules.remove(busName);
+        schedule.parseTimes();
+        synchronized (TimetableSnapshot.WRITE_LOCK) {
+            Map<String, BusScheduleDTO> next = new LinkedHashMap<>(TimetableSnapshot.current().buses());
+            BusScheduleDTO previous = next.get(busName);
+            if (previous == null) {
+                return false; // Not found
+            }
+            
+            // Remove old entry if name changed
+            if (!busName.equals(schedule.getBusName())) {
+                next.remove(busName);
+            }
+            
+            next.put(schedule.getBusName(), schedule);
+            TimetableSnapshot.publishBuses(next);
+            saveToFile();
+            listeners.forEach(listener -> listener.scheduleUpdated(previous, schedule));
+            return true;
         }
-        
-        busSchedules.put(schedule.getBusName(), schedule);
-        saveToFile();
-        return true;
     }
 
     /**
      * Delete a bus schedule
      */
     public boolean deleteSchedule(String busName) {
-        boolean removed = busSchedules.remove(busName) != null;
-        if (removed) {
+        synchronized (TimetableSnapshot.WRITE_LOCK) {
+            Map<String, BusScheduleDTO> next = new LinkedHashMap<>(TimetableSnapshot.current().buses());
+            BusScheduleDTO removed = next.remove(busName);
+            if (removed == null) {
+                return false;
+            }
+            TimetableSnapshot.publishBuses(next);
             saveToFile();
+            listeners.forEach(listener -> listener.scheduleDeleted(removed));
+            return true;
         }
-        return removed;
     }
 
     /**
@@ -144,41 +181,24 @@ public class BusScheduleStorage {
      * Supports flexible matching for common city name variations
      */
     public List<BusScheduleDTO> searchRoutes(String start, String destination) {
-        return busSchedules.values().stream()
-                .filter(schedule -> matchesLocation(schedule.getStart(), start) &&
-                                  matchesLocation(schedule.getDestination(), destination))
-                .toList();
+        return searchRoutes(TimetableSnapshot.current(), start, destination);
     }
-    
+
     /**
-     * Flexible location matching to handle spelling variations
-     * e.g., Chittagong/Chattogram, Cox's Bazar/Coxs Bazar
+     * Search the bus schedules of one snapshot, so a request sees a single version
+     * Answered from the snapshot's direct-connection index, earliest departure first.
      */
-    private boolean matchesLocation(String scheduleLocation, String searchLocation) {
-        if (scheduleLocation.equalsIgnoreCase(searchLocation)) {
-            return true;
-        }
-        
-        // Common variations
-        String normalized1 = normalizeLocation(scheduleLocation);
-        String normalized2 = normalizeLocation(searchLocation);
-        
-        return normalized1.equals(normalized2);
-    }
-    
-    private String normalizeLocation(String location) {
-        return location.toLowerCase()
-                .replace("chattogram", "chittagong")
-                .replace("chittagong", "chittagong")
-                .replace("'", "")
-                .replace(" ", "")
-                .trim();
+    public List<BusScheduleDTO> searchRoutes(TimetableSnapshot snapshot, String start, String destination) {
+        return snapshot.connections().buses(start, destination);
     }
 
     /**
      * Force reload from file (useful for testing or external changes)
      */
     public void reload() {
-        loadFromFile();
+        synchronized (TimetableSnapshot.WRITE_LOCK) {
+            loadFromFile();
+            listeners.forEach(ScheduleChangeListener::schedulesReloaded);
+        }
     }
 }
@@ -0,0 +1,184 @@
+package com.travelmanager.storage;
+
+import com.travelmanager.model.rest.BusScheduleDTO;
+import com.travelmanager.model.rest.TrainScheduleDTO;
+import com.travelmanager.util.LocationRegistry;
+
+import java.util.*;
+
+/**
+ * Direct connections between pairs of places, keyed by LocationRegistry ID
+ * Buses (and trains without calling points) are indexed by origin and destination, each
+ * entry sorted by departure time. Trains with calling points are indexed by station
+ * instead: each station maps to a posting list of (train, stop position) pairs
+ * ordered by train, and a lookup intersects the origin's and destination's lists and
+ * keeps the trains that call at the origin first. Built per TimetableSnapshot; a new
+ * snapshot rebuilds only the transport type that changed and shares the other.
+ */
+final class DirectConnectionIndex {
+
+    static final DirectConnectionIndex EMPTY = new DirectConnectionIndex(
+        Collections.emptyMap(), Collections.emptyMap(), Collections.emptyList(), new int[0][]);
+
+    private static final Comparator<TrainScheduleDTO> TRAIN_DEPARTURE =
+        Comparator.comparingInt(TrainScheduleDTO::getStartMinute);
+
+    // Keyed by pair(origin, destination) of location IDs
+    private final Map<Long, List<BusScheduleDTO>> buses;
+    private final Map<Long, List<TrainScheduleDTO>> trainRuns;
+    private final List<TrainScheduleDTO> stoppingTrains;
+    // Station location ID -> pairs of (index into stoppingTrains, stop position), by train index
+    private final int[][] stationPostings;
+
+    private DirectConnectionIndex(Map<Long, List<BusScheduleDTO>> buses,
+                                  Map<Long, List<TrainScheduleDTO>> trainRuns,
+                                  List<TrainScheduleDTO> stoppingTrains,
+                                  int[][] stationPostings) {
+        this.buses = buses;
+        this.trainRuns = trainRuns;
+        this.stoppingTrains = stoppingTrains;
+        this.stationPostings = stationPostings;
+    }
+
+    /**
+     * Same index with the bus connections replaced
+     */
+    DirectConnectionIndex withBuses(Collection<BusScheduleDTO> schedules) {
+        Map<Long, List<BusScheduleDTO>> index = new HashMap<>();
+        for (BusScheduleDTO schedule : schedules) {
+            add(index, schedule.getStart(), schedule.getDestination(), schedule);
+        }
+        return new DirectConnectionIndex(freeze(index, Comparator.comparingInt(BusScheduleDTO::getStartMinute)),
+            trainRuns, stoppingTrains, stationPostings);
+    }
+
+    /**
+     * Same index with the train connections replaced
+     */
+    DirectConnectionIndex withTrains(Collection<TrainScheduleDTO> schedules) {
+        LocationRegistry locations = LocationRegistry.getInstance();
+        Map<Long, List<TrainScheduleDTO>> runs = new HashMap<>();
+        List<TrainScheduleDTO> trains = new ArrayList<>();
+        Map<Integer, PostingList> postings = new HashMap<>();
+        for (TrainScheduleDTO schedule : schedules) {
+            List<TrainScheduleDTO.TrainStop> stops = schedule.getStops();
+            if (stops == null || stops.isEmpty()) {
+                add(runs, schedule.getStart(), schedule.getDestination(), schedule);
+                continue;
+            }
+
+            // A search boards at the first stop matching the origin and alights at the
+            // first stop matching the destination, so post first occurrences only
+            int train = trains.size();
+            trains.add(schedule);
+            Set<Integer> seen = new HashSet<>();
+            for (int position = 0; position < stops.size(); position++) {
+                int station = locations.intern(stops.get(position).getStation());
+                if (seen.add(station)) {
+                    postings.computeIfAbsent(station, key -> new PostingList()).add(train, position);
+                }
+            }
+        }
+
+        int[][] stationPostings = new int[locations.size()][];
+        postings.forEach((station, list) -> stationPostings[station] = list.toArray());
+        return new DirectConnectionIndex(buses, freeze(runs, TRAIN_DEPARTURE),
+            Collections.unmodifiableList(trains), stationPostings);
+    }
+
+    /**
+     * Buses running directly from start to destination, earliest departure first
+     */
+    List<BusScheduleDTO> buses(String start, String destination) {
+        LocationRegistry locations = LocationRegistry.getInstance();
+        return lookup(buses, locations.lookup(start), locations.lookup(destination));
+    }
+
+    /**
+     * Trains (or train segments) running from start to destination, earliest departure first
+     * Segments are read-only TrainSegmentViews over the full train.
+     */
+    List<TrainScheduleDTO> trains(String start, String destination) {
+        LocationRegistry locations = LocationRegistry.getInstance();
+        int startId = locations.lookup(start);
+        int destinationId = locations.lookup(destination);
+        List<TrainScheduleDTO> runs = lookup(trainRuns, startId, destinationId);
+        if (startId < 0 || destinationId < 0 || startId == destinationId
+                || startId >= stationPostings.length || destinationId >= stationPostings.length) {
+            return runs;
+        }
+        int[] from = stationPostings[startId];
+        int[] to = stationPostings[destinationId];
+        if (from == null || to == null) {
+            return runs;
+        }
+
+        // Merge the two posting lists on train index
+        List<TrainScheduleDTO> results = new ArrayList<>(runs);
+        int i = 0;
+        int j = 0;
+        while (i < from.length && j < to.length) {
+            if (from[i] < to[j]) {
+                i += 2;
+            } else if (from[i] > to[j]) {
+                j += 2;
+            } else {
+                if (from[i + 1] < to[j + 1]) {
+                    results.add(new TrainSegmentView(stoppingTrains.get(from[i]), from[i + 1], to[j + 1]));
+                }
+                i += 2;
+                j += 2;
+            }
+        }
+        if (results.size() == runs.size()) {
+            return runs;
+        }
+        results.sort(TRAIN_DEPARTURE);
+        return Collections.unmodifiableList(results);
+    }
+
+    private static <T> List<T> lookup(Map<Long, List<T>> index, int start, int destination) {
+        if (start < 0 || destination < 0) {
+            return Collections.emptyList();
+        }
+        return index.getOrDefault(pair(start, destination), Collections.emptyList());
+    }
+
+    private static <T> void add(Map<Long, List<T>> index, String start, String destination, T schedule) {
+        LocationRegistry locations = LocationRegistry.getInstance();
+        index.computeIfAbsent(pair(locations.intern(start), locations.intern(destination)), key -> new ArrayList<>())
+            .add(schedule);
+    }
+
+    private static long pair(int start, int destination) {
+        return ((long) start << 32) | destination;
+    }
+
+    private static <T> Map<Long, List<T>> freeze(Map<Long, List<T>> index, Comparator<T> byDeparture) {
+        for (Map.Entry<Long, List<T>> entry : index.entrySet()) {
+            entry.getValue().sort(byDeparture);
+            entry.setValue(Collections.unmodifiableList(entry.getValue()));
+        }
+        return index;
+    }
+
+    /**
+     * Growable list of (train, position) pairs
+     */
+    private static final class PostingList {
+        private int[] entries = new int[8];
+        private int size;
+
+        void add(int train, int position) {
+            if (size + 2 > entries.length) {
+                entries = Arrays.copyOf(entries, entries.length * 2);
+            }
+            entries[size++] = train;
+            entries[size++] = position;
+        }
+
+        int[] toArray() {
+            return Arrays.copyOf(entries, size);
+        }
+    }
+}
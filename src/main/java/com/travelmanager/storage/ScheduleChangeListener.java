@@ -0,0 +1,23 @@
+package com.travelmanager.storage;
+
+/**
+ * Callback for schedule storage mutations
+ * Called on the writing thread after the change is in memory and saved.
+ * @param <T> Schedule record type (BusScheduleDTO or TrainScheduleDTO)
+ */
+public interface ScheduleChangeListener<T> {
+
+    void scheduleAdded(T schedule);
+
+    /**
+     * @param previous Record before the update (its name may differ from the updated one)
+     */
+    void scheduleUpdated(T previous, T updated);
+
+    void scheduleDeleted(T schedule);
+
+    /**
+     * All records were reloaded from file
+     */
+    void schedulesReloaded();
+}
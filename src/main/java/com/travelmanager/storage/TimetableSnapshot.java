@@ -0,0 +1,122 @@
+package com.travelmanager.storage;
+
+import com.travelmanager.model.rest.BusScheduleDTO;
+import com.travelmanager.model.rest.TrainScheduleDTO;
+
+import java.util.*;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Immutable view of every bus and train schedule at one version
+ * Storage writers build the next snapshot off to the side and publish it with a single
+ * atomic swap, so a reader holding a snapshot never sees a half-applied change and
+ * reads never wait. Versions increase by one per published change and can key caches.
+ * Each snapshot carries a direct-connection index over its schedules.
+ * Stored schedules whose times are malformed stay in the snapshot (and in the saved
+ * file) but are left out of the schedule lists and the index that searches use.
+ * The DTOs are shared with storage and must be treated as read-only.
+ */
+public final class TimetableSnapshot {
+
+    // Serialises writers across both storages: publish, save and notify happen in version order
+    static final Object WRITE_LOCK = new Object();
+
+    private static final AtomicReference<TimetableSnapshot> CURRENT =
+        new AtomicReference<>(new TimetableSnapshot(0, Collections.emptyMap(), Collections.emptyList(),
+            Collections.emptyMap(), Collections.emptyList(), DirectConnectionIndex.EMPTY));
+
+    private final long version;
+    private final Map<String, BusScheduleDTO> buses;
+    private final Map<String, TrainScheduleDTO> trains;
+    private final List<BusScheduleDTO> busList;       // Only those with valid times
+    private final List<TrainScheduleDTO> trainList;   // Only those with valid times
+    private final DirectConnectionIndex connections;
+
+    private TimetableSnapshot(long version, Map<String, BusScheduleDTO> buses, List<BusScheduleDTO> busList,
+                              Map<String, TrainScheduleDTO> trains, List<TrainScheduleDTO> trainList,
+                              DirectConnectionIndex connections) {
+        this.version = version;
+        this.buses = buses;
+        this.busList = busList;
+        this.trains = trains;
+        this.trainList = trainList;
+        this.connections = connections;
+    }
+
+    /**
+     * Latest published snapshot; hold on to it for the duration of a request
+     */
+    public static TimetableSnapshot current() {
+        return CURRENT.get();
+    }
+
+    /**
+     * Publish the next version with a new set of bus schedules (keyed by bus name)
+     */
+    static TimetableSnapshot publishBuses(Map<String, BusScheduleDTO> buses) {
+        Map<String, BusScheduleDTO> frozen = Collections.unmodifiableMap(new LinkedHashMap<>(buses));
+        List<BusScheduleDTO> valid = new ArrayList<>();
+        for (BusScheduleDTO bus : frozen.values()) {
+            if (bus.hasValidTimes()) {
+                valid.add(bus);
+            }
+        }
+        List<BusScheduleDTO> busList = Collections.unmodifiableList(valid);
+        return CURRENT.updateAndGet(previous -> new TimetableSnapshot(previous.version + 1, frozen, busList,
+            previous.trains, previous.trainList, previous.connections.withBuses(busList)));
+    }
+
+    /**
+     * Publish the next version with a new set of train schedules (keyed by train name)
+     */
+    static TimetableSnapshot publishTrains(Map<String, TrainScheduleDTO> trains) {
+        Map<String, TrainScheduleDTO> frozen = Collections.unmodifiableMap(new LinkedHashMap<>(trains));
+        List<TrainScheduleDTO> valid = new ArrayList<>();
+        for (TrainScheduleDTO train : frozen.values()) {
+            if (train.hasValidTimes()) {
+                valid.add(train);
+            }
+        }
+        List<TrainScheduleDTO> trainList = Collections.unmodifiableList(valid);
+        return CURRENT.updateAndGet(previous -> new TimetableSnapshot(previous.version + 1, previous.buses,
+            previous.busList, frozen, trainList, previous.connections.withTrains(trainList)));
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    /**
+     * Bus schedules that can be searched, i.e. whose times parse
+     */
+    public List<BusScheduleDTO> getBusSchedules() {
+        return busList;
+    }
+
+    /**
+     * Train schedules that can be searched, i.e. whose times parse
+     */
+    public List<TrainScheduleDTO> getTrainSchedules() {
+        return trainList;
+    }
+
+    public Optional<BusScheduleDTO> getBusSchedule(String busName) {
+        return Optional.ofNullable(buses.get(busName));
+    }
+
+    public Optional<TrainScheduleDTO> getTrainSchedule(String trainName) {
+        return Optional.ofNullable(trains.get(trainName));
+    }
+
+    DirectConnectionIndex connections() {
+        return connections;
+    }
+
+    Map<String, BusScheduleDTO> buses() {
+        return buses;
+    }
+
+    Map<String, TrainScheduleDTO> trains() {
+        return trains;
+    }
+}
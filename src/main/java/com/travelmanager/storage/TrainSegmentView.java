@@ -0,0 +1,140 @@
+package com.travelmanager.storage;
+
+import com.travelmanager.model.rest.TimeOfDay;
+import com.travelmanager.model.rest.TrainScheduleDTO;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only view of the part of a train's run between two of its stops
+ * Reads through to the parent train and its parsed stop times instead of copying
+ * them. Setters throw, and since the fields of the DTO are not set it must not be
+ * serialized directly - use copy() for that.
+ */
+final class TrainSegmentView extends TrainScheduleDTO {
+
+    private final TrainScheduleDTO train;
+    private final int from;
+    private final int to;
+    private String duration;
+
+    TrainSegmentView(TrainScheduleDTO train, int from, int to) {
+        this.train = train;
+        this.from = from;
+        this.to = to;
+    }
+
+    /**
+     * Standalone DTO with the same values, safe to serialize or modify
+     */
+    TrainScheduleDTO copy() {
+        TrainScheduleDTO segment = new TrainScheduleDTO(getTrainName(), getStart(), getDestination(),
+            getStartTime(), getArrivalTime(), getFare(), getDuration(), getOffDay());
+        segment.setStops(new ArrayList<>(getStops()));
+        return segment;
+    }
+
+    @Override
+    public String getTrainName() { return train.getTrainName(); }
+
+    @Override
+    public String getStart() { return boarding().getStation(); }
+
+    @Override
+    public String getDestination() { return alighting().getStation(); }
+
+    @Override
+    public String getStartTime() { return boarding().getDepartureTime(); }
+
+    @Override
+    public String getArrivalTime() { return alighting().getArrivalTime(); }
+
+    @Override
+    public double getFare() {
+        return alighting().getCumulativeFare() - boarding().getCumulativeFare();
+    }
+
+    @Override
+    public String getDuration() {
+        if (duration == null) {
+            duration = TimeOfDay.formatDuration(getDurationMinutes());
+        }
+        return duration;
+    }
+
+    @Override
+    public int getStartMinute() { return boarding().getDepartureMinute(); }
+
+    @Override
+    public int getArrivalMinute() { return alighting().getArrivalMinute(); }
+
+    @Override
+    public int getArrivalDayOffset() { return getArrivalMinute() < getStartMinute() ? 1 : 0; }
+
+    @Override
+    public int getDurationMinutes() { return TimeOfDay.minutesBetween(getStartMinute(), getArrivalMinute()); }
+
+    /**
+     * Nothing to parse: the times are the parent's stop times, parsed with the parent
+     */
+    @Override
+    public void parseTimes() {
+    }
+
+    @Override
+    public String getOffDay() { return train.getOffDay(); }
+
+    @Override
+    public int getOffDayMask() { return train.getOffDayMask(); }
+
+    @Override
+    public List<TrainStop> getStops() {
+        return Collections.unmodifiableList(train.getStops().subList(from, to + 1));
+    }
+
+    @Override
+    public void setTrainName(String trainName) { throw readOnly(); }
+
+    @Override
+    public void setStart(String start) { throw readOnly(); }
+
+    @Override
+    public void setDestination(String destination) { throw readOnly(); }
+
+    @Override
+    public void setStartTime(String startTime) { throw readOnly(); }
+
+    @Override
+    public void setArrivalTime(String arrivalTime) { throw readOnly(); }
+
+    @Override
+    public void setFare(double fare) { throw readOnly(); }
+
+    @Override
+    public void setDuration(String duration) { throw readOnly(); }
+
+    @Override
+    public void setOffDay(String offDay) { throw readOnly(); }
+
+    @Override
+    public void setStops(List<TrainStop> stops) { throw readOnly(); }
+
+    @Override
+    public String toString() {
+        return "TrainSegmentView{" + getTrainName() + ", " + getStart() + " -> " + getDestination() + '}';
+    }
+
+    private TrainStop boarding() {
+        return train.getStops().get(from);
+    }
+
+    private TrainStop alighting() {
+        return train.getStops().get(to);
+    }
+
+    private static UnsupportedOperationException readOnly() {
+        return new UnsupportedOperationException("Train segment views are read-only");
+    }
+}
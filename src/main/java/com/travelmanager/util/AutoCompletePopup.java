@@ -10,10 +10,11 @@ import javafx.collections.FXCollections;
 import javafx.collections.ObservableList;
 
 import java.util.List;
-import java.util.stream.Collectors;
 
 /**
  * Autocomplete popup for text fields
+ * Suggestions come from a LocationSuggestIndex, so prefixes of later words,
+ * alternative spellings and small typos match too.
  */
 public class AutoCompletePopup extends PopupControl {
     
@@ -21,7 +22,16 @@ public class AutoCompletePopup extends PopupControl {
     private ObservableList<String> suggestions;
     private TextField textField;
     
+    private static final int MAX_SUGGESTIONS = 10;
+    
     public AutoCompletePopup(TextField textField, List<String> allLocations) {
+        this(textField, LocationSuggestIndex.of(allLocations));
+    }
+    
+    /**
+     * Popup over a shared index, e.g. one ranked by route popularity
+     */
+    public AutoCompletePopup(TextField textField, LocationSuggestIndex index) {
         this.textField = textField;
         this.suggestions = FXCollections.observableArrayList();
         this.listView = new ListView<>(suggestions);
@@ -49,11 +59,7 @@ public class AutoCompletePopup extends PopupControl {
                 return;
             }
             
-            String input = newValue.toLowerCase().trim();
-            List<String> matches = allLocations.stream()
-                .filter(loc -> loc.toLowerCase().startsWith(input))
-                .limit(10)
-                .collect(Collectors.toList());
+            List<String> matches = index.suggest(newValue, MAX_SUGGESTIONS);
             
             if (matches.isEmpty()) {
                 hide();
@@ -0,0 +1,347 @@
+package com.travelmanager.util;
+
+import java.util.*;
+import java.util.function.Predicate;
+
+/**
+ * Weight-bounded cache with segmented LRU eviction and per-entry TTL
+ * New entries go to a probation segment; a second hit promotes them to the protected
+ * segment (80% of the weight budget), so entries read once are evicted before
+ * entries read repeatedly. Expired entries are dropped on read and by sweepExpired.
+ * Entries may carry tags (e.g. the cities a result depends on) so that everything
+ * depending on one tag can be invalidated without scanning the cache.
+ * @param <K> Key type
+ * @param <V> Value type
+ */
+public class BoundedCache<K, V> {
+
+    /**
+     * Weight of a value, e.g. the number of legs in a list of routes
+     */
+    public interface Weigher<V> {
+        int weigh(V value);
+    }
+
+    private static final int PROTECTED_PERCENT = 80;
+
+    private final String name;
+    private final long maxWeight;
+    private final long maxProtectedWeight;
+    private final Weigher<V> weigher;
+
+    // Access-ordered: the eldest entry is the least recently used
+    private final LinkedHashMap<K, Entry<V>> probation = new LinkedHashMap<>(16, 0.75f, true);
+    private final LinkedHashMap<K, Entry<V>> protectedSegment = new LinkedHashMap<>(16, 0.75f, true);
+    private long probationWeight;
+    private long protectedWeight;
+    private final Map<String, Set<K>> tagged = new HashMap<>();
+
+    // Statistics, guarded by this
+    private long hits;
+    private long misses;
+    private long evictions;
+    private long expirations;
+    private long loads;
+    private long totalLoadNanos;
+
+    /**
+     * @param name Region name (for statistics)
+     * @param maxWeight Total weight kept before evicting
+     * @param weigher Weight of each value; at least 1 is charged per entry
+     */
+    public BoundedCache(String name, long maxWeight, Weigher<V> weigher) {
+        if (maxWeight < 1) {
+            throw new IllegalArgumentException("maxWeight must be at least 1");
+        }
+        this.name = name;
+        this.maxWeight = maxWeight;
+        this.maxProtectedWeight = maxWeight * PROTECTED_PERCENT / 100;
+        this.weigher = weigher;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Get a value
+     * @return Cached value or null if expired/not found
+     */
+    public synchronized V get(K key) {
+        long now = System.currentTimeMillis();
+        Entry<V> entry = protectedSegment.get(key);
+        if (entry != null) {
+            if (entry.isExpired(now)) {
+                protectedSegment.remove(key);
+                protectedWeight -= entry.weight;
+                untag(key, entry);
+                expirations++;
+                misses++;
+                return null;
+            }
+            hits++;
+            return entry.value;
+        }
+
+        entry = probation.remove(key);
+        if (entry == null) {
+            misses++;
+            return null;
+        }
+        probationWeight -= entry.weight;
+        if (entry.isExpired(now)) {
+            untag(key, entry);
+            expirations++;
+            misses++;
+            return null;
+        }
+
+        // Second hit: promote, demoting the protected segment's LRU entries if it overflows
+        hits++;
+        protectedSegment.put(key, entry);
+        protectedWeight += entry.weight;
+        Iterator<Map.Entry<K, Entry<V>>> eldest = protectedSegment.entrySet().iterator();
+        while (protectedWeight > maxProtectedWeight && protectedSegment.size() > 1) {
+            Map.Entry<K, Entry<V>> demoted = eldest.next();
+            eldest.remove();
+            protectedWeight -= demoted.getValue().weight;
+            probation.put(demoted.getKey(), demoted.getValue());
+            probationWeight += demoted.getValue().weight;
+        }
+        return entry.value;
+    }
+
+    /**
+     * Store a value with TTL, evicting least valuable entries if over the weight budget
+     * @param ttlSeconds Time to live in seconds
+     */
+    public synchronized void put(K key, V value, int ttlSeconds) {
+        put(key, value, ttlSeconds, Collections.emptySet());
+    }
+
+    /**
+     * Store a value with TTL and the tags it depends on
+     * @param tags Tags to invalidate the entry by, see invalidateTag
+     */
+    public synchronized void put(K key, V value, int ttlSeconds, Collection<String> tags) {
+        removeEntry(key);
+        int weight = Math.max(1, weigher.weigh(value));
+        if (weight > maxWeight) {
+            evictions++;
+            return;
+        }
+        Entry<V> entry = new Entry<>(value, weight, System.currentTimeMillis() + ttlSeconds * 1000L,
+            tags.isEmpty() ? Collections.emptySet() : new HashSet<>(tags));
+        for (String tag : entry.tags) {
+            tagged.computeIfAbsent(tag, t -> new HashSet<>()).add(key);
+        }
+        probation.put(key, entry);
+        probationWeight += weight;
+        evictToBudget();
+    }
+
+    /**
+     * Record the time taken to compute a value that was then put into the cache
+     */
+    public synchronized void recordLoad(long nanos) {
+        loads++;
+        totalLoadNanos += nanos;
+    }
+
+    public synchronized void invalidate(K key) {
+        removeEntry(key);
+    }
+
+    /**
+     * Remove every entry tagged with a tag
+     * @return Number of entries removed
+     */
+    public synchronized int invalidateTag(String tag) {
+        Set<K> keys = tagged.get(tag);
+        if (keys == null) {
+            return 0;
+        }
+        List<K> dependents = new ArrayList<>(keys);
+        for (K key : dependents) {
+            removeEntry(key);
+        }
+        return dependents.size();
+    }
+
+    /**
+     * Remove every entry whose key matches
+     */
+    public synchronized void invalidateIf(Predicate<? super K> condition) {
+        probationWeight -= removeMatching(probation, entry -> condition.test(entry.getKey()));
+        protectedWeight -= removeMatching(protectedSegment, entry -> condition.test(entry.getKey()));
+    }
+
+    public synchronized void invalidateAll() {
+        probation.clear();
+        protectedSegment.clear();
+        tagged.clear();
+        probationWeight = 0;
+        protectedWeight = 0;
+    }
+
+    /**
+     * Drop all expired entries
+     * @return Number of entries dropped
+     */
+    public synchronized int sweepExpired() {
+        long now = System.currentTimeMillis();
+        int before = size();
+        probationWeight -= removeMatching(probation, entry -> entry.getValue().isExpired(now));
+        protectedWeight -= removeMatching(protectedSegment, entry -> entry.getValue().isExpired(now));
+        int swept = before - size();
+        expirations += swept;
+        return swept;
+    }
+
+    public synchronized int size() {
+        return probation.size() + protectedSegment.size();
+    }
+
+    public synchronized long weight() {
+        return probationWeight + protectedWeight;
+    }
+
+    /**
+     * Snapshot of the statistics since the cache was created
+     */
+    public synchronized Stats stats() {
+        return new Stats(name, hits, misses, evictions, expirations, loads, totalLoadNanos,
+            size(), weight(), maxWeight);
+    }
+
+    private void evictToBudget() {
+        while (probationWeight + protectedWeight > maxWeight) {
+            LinkedHashMap<K, Entry<V>> segment = probation.isEmpty() ? protectedSegment : probation;
+            Iterator<Map.Entry<K, Entry<V>>> eldest = segment.entrySet().iterator();
+            Map.Entry<K, Entry<V>> eldestEntry = eldest.next();
+            Entry<V> victim = eldestEntry.getValue();
+            eldest.remove();
+            untag(eldestEntry.getKey(), victim);
+            if (segment == probation) {
+                probationWeight -= victim.weight;
+            } else {
+                protectedWeight -= victim.weight;
+            }
+            evictions++;
+        }
+    }
+
+    private void removeEntry(K key) {
+        Entry<V> entry = probation.remove(key);
+        if (entry != null) {
+            probationWeight -= entry.weight;
+            untag(key, entry);
+        }
+        entry = protectedSegment.remove(key);
+        if (entry != null) {
+            protectedWeight -= entry.weight;
+            untag(key, entry);
+        }
+    }
+
+    private void untag(K key, Entry<V> entry) {
+        for (String tag : entry.tags) {
+            Set<K> keys = tagged.get(tag);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                tagged.remove(tag);
+            }
+        }
+    }
+
+    /**
+     * @return Total weight removed
+     */
+    private long removeMatching(Map<K, Entry<V>> segment, Predicate<Map.Entry<K, Entry<V>>> condition) {
+        long removed = 0;
+        Iterator<Map.Entry<K, Entry<V>>> iterator = segment.entrySet().iterator();
+        while (iterator.hasNext()) {
+            Map.Entry<K, Entry<V>> entry = iterator.next();
+            if (condition.test(entry)) {
+                removed += entry.getValue().weight;
+                iterator.remove();
+                untag(entry.getKey(), entry.getValue());
+            }
+        }
+        return removed;
+    }
+
+    /**
+     * Cached value with its weight, expiry and tags
+     */
+    private static class Entry<V> {
+        final V value;
+        final int weight;
+        final long expiryTime;
+        final Set<String> tags;
+
+        Entry(V value, int weight, long expiryTime, Set<String> tags) {
+            this.value = value;
+            this.weight = weight;
+            this.expiryTime = expiryTime;
+            this.tags = tags;
+        }
+
+        boolean isExpired(long now) {
+            return now > expiryTime;
+        }
+    }
+
+    /**
+     * Immutable statistics of one cache region
+     */
+    public static final class Stats {
+        private final String name;
+        private final long hits;
+        private final long misses;
+        private final long evictions;
+        private final long expirations;
+        private final long loads;
+        private final double averageLoadMillis;
+        private final int size;
+        private final long weight;
+        private final long maxWeight;
+
+        Stats(String name, long hits, long misses, long evictions, long expirations, long loads,
+              long totalLoadNanos, int size, long weight, long maxWeight) {
+            this.name = name;
+            this.hits = hits;
+            this.misses = misses;
+            this.evictions = evictions;
+            this.expirations = expirations;
+            this.loads = loads;
+            this.averageLoadMillis = loads == 0 ? 0.0 : totalLoadNanos / 1_000_000.0 / loads;
+            this.size = size;
+            this.weight = weight;
+            this.maxWeight = maxWeight;
+        }
+
+        public String getName() { return name; }
+        public long getHits() { return hits; }
+        public long getMisses() { return misses; }
+        public long getEvictions() { return evictions; }
+        public long getExpirations() { return expirations; }
+        public long getLoads() { return loads; }
+        public double getAverageLoadMillis() { return averageLoadMillis; }
+        public int getSize() { return size; }
+        public long getWeight() { return weight; }
+        public long getMaxWeight() { return maxWeight; }
+
+        public double getHitRate() {
+            long requests = hits + misses;
+            return requests == 0 ? 0.0 : (double) hits / requests;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%s: %d hits, %d misses (%.1f%%), %d evictions, %d expired, "
+                    + "%d loads (avg %.1f ms), %d entries, weight %d/%d",
+                name, hits, misses, getHitRate() * 100, evictions, expirations,
+                loads, averageLoadMillis, size, weight, maxWeight);
+        }
+    }
+}
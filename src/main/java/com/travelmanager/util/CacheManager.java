@@ -1,97 +1,97 @@
 package com.travelmanager.util;
 
+import java.util.LinkedHashMap;
 import java.util.Map;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Simple in-memory cache manager with TTL support
+ * In-memory cache manager with named, typed regions
+ * Each region is a weight-bounded BoundedCache; a background task sweeps
+ * expired entries from every region.
  */
 public class CacheManager {
-    
+
     private static CacheManager instance;
-    private Map<String, CacheEntry> cache;
-    
+    private final Map<String, BoundedCache<String, ?>> regions;
+    private final ScheduledExecutorService sweeper;
+
     private CacheManager() {
-        this.cache = new ConcurrentHashMap<>();
+        this.regions = new ConcurrentHashMap<>();
+        this.sweeper = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-sweeper");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sweeper.scheduleWithFixedDelay(this::sweepExpired, Constants.CACHE_SWEEP_INTERVAL_SECONDS,
+            Constants.CACHE_SWEEP_INTERVAL_SECONDS, TimeUnit.SECONDS);
     }
-    
+
     public static synchronized CacheManager getInstance() {
         if (instance == null) {
             instance = new CacheManager();
         }
         return instance;
     }
-    
-    /**
-     * Store value in cache with TTL
-     * @param key Cache key
-     * @param value Value to cache
-     * @param ttlSeconds Time to live in seconds
-     */
-    public void put(String key, Object value, int ttlSeconds) {
-        long expiryTime = System.currentTimeMillis() + (ttlSeconds * 1000L);
-        cache.put(key, new CacheEntry(value, expiryTime));
-    }
-    
-    /**
-     * Get value from cache
-     * @param key Cache key
-     * @return Cached value or null if expired/not found
-     */
-    public Object get(String key) {
-        CacheEntry entry = cache.get(key);
-        if (entry == null) {
-            return null;
-        }
-        if (entry.isExpired()) {
-            cache.remove(key);
-            return null;
-        }
-        return entry.value;
-    }
-    
+
     /**
-     * Invalidate specific cache entry
+     * Get or create a cache region
+     * The bound and weigher of the first call win; later calls return the same region.
+     * @param name Region name, one per value type
+     * @param maxWeight Total weight kept before evicting
+     * @param weigher Weight of each value
      */
-    public void invalidate(String key) {
-        cache.remove(key);
+    @SuppressWarnings("unchecked")
+    public synchronized <V> BoundedCache<String, V> region(String name, long maxWeight, BoundedCache.Weigher<V> weigher) {
+        return (BoundedCache<String, V>) regions.computeIfAbsent(name,
+            regionName -> new BoundedCache<>(regionName, maxWeight, weigher));
     }
-    
+
     /**
-     * Invalidate all cache entries matching prefix
+     * Invalidate all cache entries matching prefix, in every region
      */
     public void invalidatePrefix(String prefix) {
-        cache.keySet().removeIf(key -> key.startsWith(prefix));
+        regions.values().forEach(region -> region.invalidateIf(key -> key.startsWith(prefix)));
     }
-    
+
     /**
      * Clear all cache
      */
     public void invalidateAll() {
-        cache.clear();
+        regions.values().forEach(BoundedCache::invalidateAll);
     }
-    
+
     /**
-     * Get cache size
+     * Drop expired entries from every region
+     * @return Number of entries dropped
      */
-    public int size() {
-        return cache.size();
+    public int sweepExpired() {
+        int swept = 0;
+        for (BoundedCache<String, ?> region : regions.values()) {
+            swept += region.sweepExpired();
+        }
+        return swept;
     }
-    
+
     /**
-     * Internal cache entry with expiry
+     * Get cache size over all regions
      */
-    private static class CacheEntry {
-        Object value;
-        long expiryTime;
-        
-        CacheEntry(Object value, long expiryTime) {
-            this.value = value;
-            this.expiryTime = expiryTime;
-        }
-        
-        boolean isExpired() {
-            return System.currentTimeMillis() > expiryTime;
+    public int size() {
+        int size = 0;
+        for (BoundedCache<String, ?> region : regions.values()) {
+            size += region.size();
         }
+        return size;
+    }
+
+    /**
+     * Statistics per region, by region name
+     */
+    public Map<String, BoundedCache.Stats> getStats() {
+        Map<String, BoundedCache.Stats> stats = new LinkedHashMap<>();
+        regions.forEach((name, region) -> stats.put(name, region.stats()));
+        return stats;
     }
 }
@@ -19,6 +19,12 @@ public class Constants {
     public static final int CACHE_TTL_SECONDS = 3600;
     public static final String CACHE_SCHEDULE_PREFIX = "schedule_";
     public static final String CACHE_ROUTE_PREFIX = "route_";
+    public static final int CACHE_SWEEP_INTERVAL_SECONDS = 60;
+    public static final long CACHE_ROUTE_MAX_WEIGHT = 20000;   // Legs over all cached route lists
+    public static final long CACHE_PARETO_MAX_WEIGHT = 5000;   // Journeys over all cached fronts
+    public static final long CACHE_NO_ROUTE_MAX_ENTRIES = 10000;
+    public static final int CACHE_NO_ROUTE_TTL_SECONDS = 300;
+    public static final int SCHEDULE_HORIZON_DAYS = 30;        // Service days materialised after today
     
     // File paths
     public static final String SCHEDULE_DATA_FILE = "schedules-data.json";
@@ -0,0 +1,202 @@
+package com.travelmanager.util;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of place names, each interned to a dense int location ID
+ * Spellings are folded (case, spaces and punctuation ignored) and mapped through
+ * the alias table, so Chattogram/Chittagong, Cox's Bazar/Coxs Bazar and Bogura/Bogra
+ * share one ID. Names are resolved once, when schedules are loaded and when a
+ * request is parsed; everything after that compares IDs.
+ * The 64 districts are registered first and keep IDs 0-63; other places
+ * (stations, upazilas) get the next free ID when first seen.
+ */
+public final class LocationRegistry {
+
+    /**
+     * Location ID of a name that is not registered
+     */
+    public static final int UNKNOWN = -1;
+
+    private static final String[] DISTRICTS = {
+        "Barguna", "Barishal", "Bhola", "Jhalokati", "Patuakhali", "Pirojpur",
+        "Bandarban", "Brahmanbaria", "Chandpur", "Chattogram", "Cox's Bazar", "Cumilla", "Feni", "Khagrachari", "Lakshmipur", "Noakhali", "Rangamati",
+        "Dhaka", "Faridpur", "Gazipur", "Gopalganj", "Kishoreganj", "Madaripur", "Manikganj", "Munshiganj", "Narayanganj", "Narsingdi", "Rajbari", "Shariatpur", "Tangail",
+        "Bagerhat", "Chuadanga", "Jashore", "Jhenaidah", "Khulna", "Kushtia", "Magura", "Meherpur", "Narail", "Satkhira",
+        "Jamalpur", "Mymensingh", "Netrokona", "Sherpur",
+        "Bogura", "Joypurhat", "Naogaon", "Natore", "Chapai Nawabganj", "Pabna", "Rajshahi", "Sirajganj",
+        "Dinajpur", "Gaibandha", "Kurigram", "Lalmonirhat", "Nilphamari", "Panchagarh", "Rangpur", "Thakurgaon",
+        "Habiganj", "Moulvibazar", "Sunamganj", "Sylhet"
+    };
+
+    // Alternative spelling -> registered name
+    private static final String[][] ALIASES = {
+        {"Chittagong", "Chattogram"},
+        {"Barisal", "Barishal"},
+        {"Comilla", "Cumilla"},
+        {"Jessore", "Jashore"},
+        {"Bogra", "Bogura"},
+        {"Netrakona", "Netrokona"},
+        {"Jhalakathi", "Jhalokati"},
+        {"Khagrachhari", "Khagrachari"},
+        {"Maulvibazar", "Moulvibazar"}
+    };
+
+    private static LocationRegistry instance;
+
+    // Folded spelling -> location ID; also caches the exact spellings seen at load time
+    private final Map<String, Integer> ids = new ConcurrentHashMap<>();
+    private final Map<String, Integer> spellings = new ConcurrentHashMap<>();
+    private volatile String[] names = new String[0];
+    private volatile String[] keys = new String[0];
+
+    private LocationRegistry() {
+        for (String district : DISTRICTS) {
+            intern(district);
+        }
+        for (String[] alias : ALIASES) {
+            ids.putIfAbsent(fold(alias[0]), ids.get(fold(alias[1])));
+        }
+    }
+
+    public static synchronized LocationRegistry getInstance() {
+        if (instance == null) {
+            instance = new LocationRegistry();
+        }
+        return instance;
+    }
+
+    /**
+     * Location ID of a name, registering it if it is new (use when loading schedules)
+     */
+    public int intern(String name) {
+        if (name == null) {
+            return UNKNOWN;
+        }
+        Integer id = spellings.get(name);
+        if (id != null) {
+            return id;
+        }
+        String key = fold(name);
+        synchronized (this) {
+            id = ids.get(key);
+            if (id == null) {
+                id = names.length;
+                String[] grownNames = Arrays.copyOf(names, id + 1);
+                String[] grownKeys = Arrays.copyOf(keys, id + 1);
+                grownNames[id] = name.trim();
+                grownKeys[id] = key;
+                keys = grownKeys;
+                names = grownNames;
+                ids.put(key, id);
+            }
+        }
+        spellings.put(name, id);
+        return id;
+    }
+
+    /**
+     * Location ID of a name, or UNKNOWN if no schedule or district has it (use for requests)
+     * Does not register the name, so arbitrary input cannot grow the registry.
+     */
+    public int lookup(String name) {
+        if (name == null) {
+            return UNKNOWN;
+        }
+        Integer id = spellings.get(name);
+        if (id == null) {
+            id = ids.get(fold(name));
+        }
+        return id != null ? id : UNKNOWN;
+    }
+
+    /**
+     * Whether two names denote the same place
+     */
+    public boolean sameLocation(String first, String second) {
+        if (first == null || second == null) {
+            return false;
+        }
+        int id = lookup(first);
+        return id != UNKNOWN ? id == lookup(second) : fold(first).equals(fold(second));
+    }
+
+    /**
+     * Whether a name is one of the 64 districts, under any registered spelling
+     */
+    public boolean isDistrict(String name) {
+        int id = lookup(name);
+        return id != UNKNOWN && id < DISTRICTS.length;
+    }
+
+    /**
+     * Alternative spellings in the alias table that resolve to the same place as a name
+     */
+    public List<String> getAliases(String name) {
+        int id = lookup(name);
+        if (id == UNKNOWN) {
+            return Collections.emptyList();
+        }
+        List<String> aliases = new ArrayList<>();
+        for (String[] alias : ALIASES) {
+            if (ids.get(fold(alias[1])) == id) {
+                aliases.add(alias[0]);
+            }
+        }
+        return aliases;
+    }
+
+    /**
+     * The 64 districts, as registered
+     */
+    public List<String> getDistricts() {
+        return Collections.unmodifiableList(Arrays.asList(DISTRICTS));
+    }
+
+    /**
+     * Registered display name of a location, e.g. "Chattogram" for an ID looked up as "chittagong"
+     */
+    public String name(int id) {
+        return names[id];
+    }
+
+    /**
+     * Stable string key of a location, for cache keys and tags
+     */
+    public String key(int id) {
+        return keys[id];
+    }
+
+    /**
+     * Key of a name: the key of its location if registered, otherwise its folded spelling
+     */
+    public String key(String name) {
+        if (name == null) {
+            return "";
+        }
+        int id = lookup(name);
+        return id != UNKNOWN ? keys[id] : fold(name);
+    }
+
+    /**
+     * Number of registered locations; IDs are 0 .. size() - 1
+     */
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * Lower case letters and digits only, e.g. "Cox's Bazar" -> "coxsbazar"
+     */
+    static String fold(String name) {
+        StringBuilder folded = new StringBuilder(name.length());
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (Character.isLetterOrDigit(c)) {
+                folded.append(Character.toLowerCase(c));
+            }
+        }
+        return folded.toString();
+    }
+}
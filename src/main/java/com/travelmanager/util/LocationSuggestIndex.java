@@ -0,0 +1,228 @@
+package com.travelmanager.util;
+
+import java.util.*;
+
+/**
+ * Immutable type-ahead index over location names
+ * Every name is indexed under its folded spelling, each later word ("bazar" for
+ * Cox's Bazar) and its LocationRegistry aliases, in one sorted key array, so the
+ * keys starting with a query are one binary search away. When prefixes give fewer
+ * than the requested number of suggestions, keys whose prefix is within a small
+ * edit distance of the query (typos, transpositions) fill the rest.
+ * Suggestions are ranked exact match, name prefix, word/alias prefix, then by edit
+ * distance; ties go to the more popular location (more schedules touch it).
+ */
+public final class LocationSuggestIndex {
+
+    public static final int DEFAULT_LIMIT = 10;
+
+    private static final int EXACT = 0;
+    private static final int PREFIX = 1;
+    private static final int WORD_PREFIX = 2;
+    private static final int FUZZY = 3;     // Plus the edit distance
+    private static final int NO_MATCH = Integer.MAX_VALUE;
+
+    // Entry e: names[e], ranked by popularity[e]
+    private final String[] names;
+    private final int[] popularity;
+
+    // Sorted search keys; keys[k] belongs to entry keyEntries[k] and is its full name if fullName[k]
+    private final String[] keys;
+    private final int[] keyEntries;
+    private final boolean[] fullName;
+    private final int maxKeyLength;
+
+    /**
+     * @param popularityByName Location names and how many schedules touch each
+     */
+    public LocationSuggestIndex(Map<String, Integer> popularityByName) {
+        this.names = popularityByName.keySet().toArray(new String[0]);
+        this.popularity = new int[names.length];
+        LocationRegistry locations = LocationRegistry.getInstance();
+        List<SearchKey> entries = new ArrayList<>();
+        Set<String> seen = new HashSet<>();
+        for (int e = 0; e < names.length; e++) {
+            popularity[e] = popularityByName.get(names[e]);
+            String name = LocationRegistry.fold(names[e]);
+            if (name.isEmpty()) {
+                continue;
+            }
+            seen.clear();
+            seen.add(name);
+            entries.add(new SearchKey(name, e, true));
+            String[] words = names[e].trim().split("[\\s-]+");
+            for (int w = 1; w < words.length; w++) {
+                String word = LocationRegistry.fold(words[w]);
+                if (!word.isEmpty() && seen.add(word)) {
+                    entries.add(new SearchKey(word, e, false));
+                }
+            }
+            for (String alias : locations.getAliases(names[e])) {
+                String key = LocationRegistry.fold(alias);
+                if (seen.add(key)) {
+                    entries.add(new SearchKey(key, e, false));
+                }
+            }
+        }
+        entries.sort(Comparator.comparing(entry -> entry.key));
+
+        this.keys = new String[entries.size()];
+        this.keyEntries = new int[entries.size()];
+        this.fullName = new boolean[entries.size()];
+        int longest = 0;
+        for (int k = 0; k < keys.length; k++) {
+            keys[k] = entries.get(k).key;
+            keyEntries[k] = entries.get(k).entry;
+            fullName[k] = entries.get(k).fullName;
+            longest = Math.max(longest, keys[k].length());
+        }
+        this.maxKeyLength = longest;
+    }
+
+    /**
+     * Index over names that are all equally popular (ties ranked alphabetically)
+     */
+    public static LocationSuggestIndex of(Collection<String> names) {
+        Map<String, Integer> popularity = new LinkedHashMap<>();
+        for (String name : names) {
+            popularity.put(name, 0);
+        }
+        return new LocationSuggestIndex(popularity);
+    }
+
+    /**
+     * Best matching location names for what the user has typed so far
+     * @param query Typed text; case, spaces and punctuation are ignored
+     * @param limit Maximum number of names to return
+     */
+    public List<String> suggest(String query, int limit) {
+        String folded = query != null ? LocationRegistry.fold(query) : "";
+        if (folded.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+
+        int[] rank = new int[names.length];
+        Arrays.fill(rank, NO_MATCH);
+        int matched = 0;
+
+        // Keys starting with the query form one range of the sorted array
+        int low = 0;
+        int high = keys.length;
+        while (low < high) {
+            int mid = (low + high) >>> 1;
+            if (keys[mid].compareTo(folded) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        for (int k = low; k < keys.length && keys[k].startsWith(folded); k++) {
+            int match = !fullName[k] ? WORD_PREFIX : keys[k].length() == folded.length() ? EXACT : PREFIX;
+            matched += improve(rank, keyEntries[k], match);
+        }
+
+        // Too few prefix matches: allow typos once a few characters are typed
+        if (matched < limit && folded.length() >= 3) {
+            int maxDistance = folded.length() >= 6 ? 2 : 1;
+            int[][] rows = new int[3][maxKeyLength + 1];
+            for (int k = 0; k < keys.length; k++) {
+                if (rank[keyEntries[k]] <= FUZZY) {
+                    continue;
+                }
+                int distance = prefixDistance(folded, keys[k], maxDistance, rows);
+                if (distance <= maxDistance) {
+                    improve(rank, keyEntries[k], FUZZY + distance);
+                }
+            }
+        }
+
+        List<Integer> candidates = new ArrayList<>();
+        for (int e = 0; e < names.length; e++) {
+            if (rank[e] != NO_MATCH) {
+                candidates.add(e);
+            }
+        }
+        candidates.sort((a, b) -> rank[a] != rank[b] ? Integer.compare(rank[a], rank[b])
+            : popularity[a] != popularity[b] ? Integer.compare(popularity[b], popularity[a])
+            : names[a].compareToIgnoreCase(names[b]));
+
+        List<String> suggestions = new ArrayList<>(Math.min(limit, candidates.size()));
+        for (int i = 0; i < candidates.size() && i < limit; i++) {
+            suggestions.add(names[candidates.get(i)]);
+        }
+        return suggestions;
+    }
+
+    public int size() {
+        return names.length;
+    }
+
+    /**
+     * @return 1 if the entry had no match before
+     */
+    private static int improve(int[] rank, int entry, int match) {
+        int before = rank[entry];
+        if (match < before) {
+            rank[entry] = match;
+        }
+        return before == NO_MATCH ? 1 : 0;
+    }
+
+    /**
+     * Smallest edit distance (with adjacent transpositions) between the query and any
+     * prefix of the key, or more than maxDistance once no prefix can come within it
+     */
+    private static int prefixDistance(String query, String key, int maxDistance, int[][] rows) {
+        int[] previous = rows[0];
+        int[] current = rows[1];
+        int[] beforePrevious = rows[2];
+        int columns = key.length();
+        for (int j = 0; j <= columns; j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= query.length(); i++) {
+            current[0] = i;
+            int rowMin = i;
+            char q = query.charAt(i - 1);
+            for (int j = 1; j <= columns; j++) {
+                char c = key.charAt(j - 1);
+                int cost = q == c ? 0 : 1;
+                int value = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                if (i > 1 && j > 1 && q == key.charAt(j - 2) && query.charAt(i - 2) == c) {
+                    value = Math.min(value, beforePrevious[j - 2] + 1);
+                }
+                current[j] = value;
+                rowMin = Math.min(rowMin, value);
+            }
+            if (rowMin > maxDistance) {
+                return rowMin;
+            }
+            int[] recycled = beforePrevious;
+            beforePrevious = previous;
+            previous = current;
+            current = recycled;
+        }
+
+        // The query may end anywhere in the key
+        int best = previous[0];
+        for (int j = 1; j <= columns; j++) {
+            best = Math.min(best, previous[j]);
+        }
+        return best;
+    }
+
+    /**
+     * One search key while the index is built
+     */
+    private static class SearchKey {
+        final String key;
+        final int entry;
+        final boolean fullName;
+
+        SearchKey(String key, int entry, boolean fullName) {
+            this.key = key;
+            this.entry = entry;
+            this.fullName = fullName;
+        }
+    }
+}
@@ -0,0 +1,187 @@
+package com.travelmanager.util;
+
+import java.util.Map;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Coalesces concurrent identical requests into a single computation
+ * The first caller for a key starts the loader on a worker thread; callers arriving
+ * while it runs wait on the same result instead of starting their own. Each caller
+ * gets its own future, and cancelling it only withdraws that caller: the computation
+ * itself is cancelled once every waiter for its key has gone away.
+ * @param <K> Key type, e.g. a normalised query string
+ * @param <V> Result type
+ */
+public class SingleFlight<K, V> {
+
+    private final Map<K, Flight> flights = new ConcurrentHashMap<>();
+    private final ExecutorService executor;
+
+    private final AtomicLong calls = new AtomicLong();
+    private final AtomicLong savedCalls = new AtomicLong();
+    private final AtomicLong cancelledFlights = new AtomicLong();
+
+    /**
+     * @param name Prefix for the worker thread names
+     */
+    public SingleFlight(String name) {
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, name + "-" + threads.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Join the in-flight computation for a key, or start one
+     * @param key Request key; equal keys share one computation
+     * @param loader Computes the value; only called when nothing is in flight for the key
+     * @return Future for this caller; cancelling it withdraws only this caller
+     */
+    public CompletableFuture<V> submit(K key, Callable<V> loader) {
+        calls.incrementAndGet();
+        while (true) {
+            Flight flight = flights.get(key);
+            if (flight == null) {
+                Flight created = new Flight(key);
+                flight = flights.putIfAbsent(key, created);
+                if (flight == null) {
+                    created.join();
+                    created.start(loader);
+                    return created.waiter();
+                }
+            }
+            if (flight.join()) {
+                savedCalls.incrementAndGet();
+                return flight.waiter();
+            }
+            // Abandoned by all its waiters while we looked it up, start over
+            flights.remove(key, flight);
+        }
+    }
+
+    /**
+     * Blocking form of submit
+     * An interrupted caller withdraws from the flight before the interrupt is rethrown.
+     * @return The loader's value
+     * @throws Exception Whatever the loader threw, or InterruptedException
+     */
+    public V execute(K key, Callable<V> loader) throws Exception {
+        CompletableFuture<V> waiter = submit(key, loader);
+        try {
+            return waiter.get();
+        } catch (InterruptedException e) {
+            waiter.cancel(false);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            throw (Error) cause;
+        }
+    }
+
+    /**
+     * Total calls to submit/execute
+     */
+    public long getCalls() {
+        return calls.get();
+    }
+
+    /**
+     * Calls answered by joining a computation already in flight
+     */
+    public long getSavedCalls() {
+        return savedCalls.get();
+    }
+
+    /**
+     * Computations cancelled because all their waiters went away
+     */
+    public long getCancelledFlights() {
+        return cancelledFlights.get();
+    }
+
+    /**
+     * Number of keys currently being computed
+     */
+    public int inFlight() {
+        return flights.size();
+    }
+
+    /**
+     * One computation and the callers waiting for it
+     */
+    private class Flight {
+        final K key;
+        final CompletableFuture<V> result = new CompletableFuture<>();
+        private int waiters;           // Guarded by this
+        private boolean abandoned;     // Guarded by this
+        private Future<?> task;        // Guarded by this
+
+        Flight(K key) {
+            this.key = key;
+        }
+
+        synchronized boolean join() {
+            if (abandoned) {
+                return false;
+            }
+            waiters++;
+            return true;
+        }
+
+        synchronized void start(Callable<V> loader) {
+            task = executor.submit(() -> {
+                try {
+                    V value = loader.call();
+                    flights.remove(key, this);
+                    result.complete(value);
+                } catch (Throwable t) {
+                    flights.remove(key, this);
+                    result.completeExceptionally(t);
+                }
+            });
+        }
+
+        /**
+         * Future for one waiter, completed with the shared result
+         */
+        CompletableFuture<V> waiter() {
+            CompletableFuture<V> waiter = new CompletableFuture<>();
+            result.whenComplete((value, error) -> {
+                if (error == null) {
+                    waiter.complete(value);
+                } else {
+                    waiter.completeExceptionally(error instanceof CompletionException && error.getCause() != null
+                        ? error.getCause() : error);
+                }
+            });
+            waiter.whenComplete((value, error) -> {
+                if (waiter.isCancelled()) {
+                    leave();
+                }
+            });
+            return waiter;
+        }
+
+        private synchronized void leave() {
+            waiters--;
+            if (waiters > 0 || result.isDone()) {
+                return;
+            }
+            abandoned = true;
+            flights.remove(key, this);
+            if (task != null) {
+                task.cancel(true);
+            }
+            result.cancel(false);
+            cancelledFlights.incrementAndGet();
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.travelmanager.domain;
+
+import com.travelmanager.model.Route;
+import com.travelmanager.model.Schedule;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.travelmanager.domain.TestSchedules.bus;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the Connection Scan Algorithm engine
+ */
+public class ConnectionScanEngineTest {
+
+    @Test
+    public void testLegLimitKeepsDirectTripDominatedByTransfer() {
+        // The transfer leaves later and arrives earlier, so an unlimited scan never returns the direct trip
+        List<Schedule> schedules = List.of(
+            bus("DIRECT", "Dhaka", "Sylhet", 8, 0, 14, 0),
+            bus("LEG1", "Dhaka", "Cumilla", 8, 30, 9, 30),
+            bus("LEG2", "Cumilla", "Sylhet", 10, 0, 12, 0)
+        );
+        ConnectionScanEngine engine = new ConnectionScanEngine(schedules);
+
+        List<Route> unlimited = engine.findRoutes("Dhaka", "Sylhet", 10);
+        assertEquals(1, unlimited.size());
+        assertEquals(2, unlimited.get(0).getSchedules().size());
+
+        List<Route> direct = engine.findRoutes("Dhaka", "Sylhet", 1, 1);
+        assertEquals(1, direct.size());
+        assertEquals("DIRECT", direct.get(0).getSchedules().get(0).getId());
+    }
+}
@@ -0,0 +1,147 @@
+package com.travelmanager.domain;
+
+import com.travelmanager.model.Schedule;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+import static com.travelmanager.domain.TestSchedules.bus;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for Yen's k-shortest loop-free journeys
+ */
+public class KShortestJourneysTest {
+
+    private static final String[] CITIES = { "Dhaka", "Cumilla", "Feni", "Chattogram", "Sylhet" };
+
+    /**
+     * Costs of every loop-free journey from a city to the destination, by depth-first enumeration
+     */
+    private static void enumerate(TimetableGraph graph, double[] weights, int city, int lastEdge, int destination,
+                                  int maxHops, List<Integer> visited, double cost, List<Double> costs) {
+        if (city == destination && lastEdge >= 0) {
+            costs.add(cost);
+            return;
+        }
+        if (visited.size() > maxHops) {
+            return;
+        }
+        int first = lastEdge < 0 ? graph.firstEdge(city) : graph.connectionWindowStart(lastEdge);
+        int end = lastEdge < 0 ? graph.endEdge(city) : graph.connectionWindowEnd(lastEdge);
+        for (int edge = first; edge < end; edge++) {
+            int next = graph.target(edge);
+            if (!visited.contains(next)) {
+                visited.add(next);
+                enumerate(graph, weights, next, edge, destination, maxHops, visited, cost + weights[edge], costs);
+                visited.remove(visited.size() - 1);
+            }
+        }
+    }
+
+    private static List<Double> exhaustiveCosts(TimetableGraph graph, double[] weights, int origin, int destination,
+                                                int maxHops, int k) {
+        List<Double> costs = new ArrayList<>();
+        List<Integer> visited = new ArrayList<>();
+        visited.add(origin);
+        enumerate(graph, weights, origin, -1, destination, maxHops, visited, 0.0, costs);
+        Collections.sort(costs);
+        return costs.subList(0, Math.min(k, costs.size()));
+    }
+
+    private static List<Double> yenCosts(TimetableGraph graph, double[] weights, double[] estimate,
+                                         int origin, int destination, int maxHops, int k) {
+        KShortestJourneys yen = SearchWorkspace.current().yen(graph, weights, estimate,
+            graph.lowerBoundsTo(destination, TimetableGraph.Bound.HOPS), maxHops);
+        int found = yen.find(origin, destination, k);
+        List<Double> costs = new ArrayList<>();
+        for (int j = 0; j < found; j++) {
+            List<Integer> cities = new ArrayList<>();
+            cities.add(origin);
+            double cost = 0.0;
+            for (int i = 0; i < yen.legs(j); i++) {
+                int edge = yen.edge(j, i);
+                if (i > 0) {
+                    int previous = yen.edge(j, i - 1);
+                    assertTrue(edge >= graph.connectionWindowStart(previous)
+                        && edge < graph.connectionWindowEnd(previous), "Missed connection");
+                }
+                assertFalse(cities.contains(graph.target(edge)), "Journey revisits a city");
+                cities.add(graph.target(edge));
+                cost += weights[edge];
+            }
+            assertEquals(destination, (int) cities.get(cities.size() - 1));
+            costs.add(cost);
+        }
+        return costs;
+    }
+
+    private static void assertSameCosts(List<Double> expected, List<Double> actual, String message) {
+        assertEquals(expected.size(), actual.size(), message);
+        for (int i = 0; i < expected.size(); i++) {
+            assertEquals(expected.get(i), actual.get(i), 1e-9, message + " at " + i);
+        }
+    }
+
+    @Test
+    public void testCheaperLoopDoesNotHideLoopFreeJourney() {
+        // Dhaka -> Chattogram -> Cumilla reaches B2 cheaper than Dhaka -> Feni -> Cumilla,
+        // but then loops back through Chattogram; the only loop-free journey goes via Feni
+        List<Schedule> schedules = List.of(
+            bus("LOOP1", "Dhaka", "Chattogram", 0, 0, 0, 30),
+            bus("LOOP2", "Chattogram", "Cumilla", 1, 0, 1, 30),
+            bus("VIA1", "Dhaka", "Feni", 6, 0, 8, 0),
+            bus("VIA2", "Feni", "Cumilla", 9, 0, 10, 0),
+            bus("B2", "Cumilla", "Chattogram", 12, 0, 13, 0),
+            bus("LAST", "Chattogram", "Sylhet", 14, 0, 15, 0)
+        );
+        TimetableGraph graph = new TimetableGraph(schedules);
+        double[] weights = graph.weights(PathfindingEngine.OptimizationCriteria.SHORTEST_TIME);
+        int origin = graph.cityId("Dhaka");
+        int destination = graph.cityId("Sylhet");
+
+        KShortestJourneys yen = SearchWorkspace.current().yen(graph, weights,
+            graph.lowerBoundsTo(destination, TimetableGraph.Bound.DURATION),
+            graph.lowerBoundsTo(destination, TimetableGraph.Bound.HOPS), 5);
+
+        assertEquals(1, yen.find(origin, destination, 3));
+        List<String> ids = new ArrayList<>();
+        for (int leg = 0; leg < yen.legs(0); leg++) {
+            ids.add(graph.schedule(yen.edge(0, leg)).getId());
+        }
+        assertEquals(List.of("VIA1", "VIA2", "B2", "LAST"), ids);
+    }
+
+    @Test
+    public void testMatchesExhaustiveEnumeration() {
+        Random random = new Random(7);
+        List<Schedule> schedules = new ArrayList<>();
+        for (int i = 0; i < 60; i++) {
+            int from = random.nextInt(CITIES.length);
+            int to = (from + 1 + random.nextInt(CITIES.length - 1)) % CITIES.length;
+            int departure = random.nextInt(20 * 60);
+            int arrival = departure + 20 + random.nextInt(180);
+            schedules.add(bus("S" + i, CITIES[from], CITIES[to], departure / 60, departure % 60,
+                arrival / 60, arrival % 60, 100.0 + random.nextInt(900)));
+        }
+        TimetableGraph graph = new TimetableGraph(schedules);
+
+        for (PathfindingEngine.OptimizationCriteria criteria : PathfindingEngine.OptimizationCriteria.values()) {
+            double[] weights = graph.weights(criteria);
+            double[] noEstimate = new double[graph.cityCount()];
+            for (int origin = 0; origin < graph.cityCount(); origin++) {
+                for (int destination = 0; destination < graph.cityCount(); destination++) {
+                    if (origin == destination) {
+                        continue;
+                    }
+                    String pair = criteria + " " + graph.cityName(origin) + " -> " + graph.cityName(destination);
+                    assertSameCosts(exhaustiveCosts(graph, weights, origin, destination, 4, 15),
+                        yenCosts(graph, weights, noEstimate, origin, destination, 4, 15), pair);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,35 @@
+package com.travelmanager.domain;
+
+import com.travelmanager.model.Schedule;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.travelmanager.domain.TestSchedules.bus;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the top-k legacy route search
+ */
+public class LegacyRoutePlannerTest {
+
+    @Test
+    public void testPlanCutByBoundIsRestoredAfterCollapse() {
+        // Offered in departure order: A and B fill the set, P is cut by the bound,
+        // Q dominates A and B, then S would refill the set ahead of P
+        List<Schedule> schedules = new ArrayList<>();
+        schedules.add(bus("A", "Dhaka", "Sylhet", 8, 0, 9, 0, 100));
+        schedules.add(bus("B", "Dhaka", "Sylhet", 9, 0, 10, 10, 95));
+        schedules.add(bus("P", "Dhaka", "Sylhet", 10, 0, 11, 20, 50));
+        schedules.add(bus("Q", "Dhaka", "Sylhet", 11, 0, 11, 50, 90));
+        schedules.add(bus("S", "Dhaka", "Sylhet", 12, 0, 13, 40, 40));
+        LegacyRoutePlanner planner = new LegacyRoutePlanner(new TimetableGraph(schedules));
+
+        List<String> ids = new ArrayList<>();
+        for (LegacyRoutePlanner.JourneyPlan plan : planner.findRoutes("Dhaka", "Sylhet", 1, 2)) {
+            ids.add(plan.getSchedules().get(0).getId());
+        }
+        assertEquals(List.of("Q", "P"), ids);
+    }
+}
@@ -0,0 +1,45 @@
+package com.travelmanager.domain;
+
+import com.travelmanager.model.Schedule;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.List;
+
+import static com.travelmanager.domain.TestSchedules.bus;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the multi-criteria RAPTOR planner and Pareto front picks
+ */
+public class McRaptorEngineTest {
+
+    @Test
+    public void testFrontKeepsTimeFareTradeOffs() {
+        List<Schedule> schedules = List.of(
+            bus("FAST", "Dhaka", "Sylhet", 8, 0, 12, 0, 1200.0),
+            bus("SLOW", "Dhaka", "Sylhet", 8, 0, 15, 0, 600.0),
+            bus("WORSE", "Dhaka", "Sylhet", 8, 0, 16, 0, 700.0),
+            bus("LEG1", "Dhaka", "Cumilla", 7, 0, 9, 0, 200.0),
+            bus("LEG2", "Cumilla", "Sylhet", 10, 0, 13, 0, 250.0)
+        );
+
+        ParetoFront front = new McRaptorEngine(schedules).findParetoFront("Dhaka", "Sylhet");
+
+        assertEquals(3, front.size());
+        assertEquals("FAST", front.fastest().get().getRoute().getSchedules().get(0).getId());
+        assertEquals(450.0, front.cheapest().get().getFare(), 0.001);
+        assertEquals(1, front.cheapest().get().getTransfers());
+        assertEquals(0, front.fewestTransfers().get().getTransfers());
+        assertEquals("FAST", front.cheapestWithin(Duration.ofHours(5)).get()
+            .getRoute().getSchedules().get(0).getId());
+        assertTrue(front.cheapestWithin(Duration.ofHours(3)).isEmpty());
+    }
+
+    @Test
+    public void testUnknownCityReturnsEmptyFront() {
+        List<Schedule> schedules = List.of(bus("DIRECT", "Dhaka", "Sylhet", 8, 0, 14, 0, 500.0));
+
+        assertTrue(new McRaptorEngine(schedules).findParetoFront("Dhaka", "Khulna").isEmpty());
+    }
+}
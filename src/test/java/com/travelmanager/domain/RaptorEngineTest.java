@@ -0,0 +1,54 @@
+package com.travelmanager.domain;
+
+import com.travelmanager.model.Route;
+import com.travelmanager.model.Schedule;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static com.travelmanager.domain.TestSchedules.bus;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the RAPTOR journey planner
+ */
+public class RaptorEngineTest {
+
+    @Test
+    public void testFindsDirectAndTransferJourneys() {
+        List<Schedule> schedules = List.of(
+            bus("DIRECT", "Dhaka", "Sylhet", 8, 0, 14, 0),
+            bus("LEG1", "Dhaka", "Cumilla", 7, 0, 9, 0),
+            bus("LEG2", "Cumilla", "Sylhet", 9, 45, 12, 0)
+        );
+
+        List<Route> routes = new RaptorEngine(schedules).findRoutes("Dhaka", "Sylhet", 10);
+
+        assertEquals(2, routes.size());
+        assertEquals(2, routes.get(0).getSchedules().size());
+        assertEquals("LEG1", routes.get(0).getSchedules().get(0).getId());
+        assertEquals("LEG2", routes.get(0).getSchedules().get(1).getId());
+        assertEquals("DIRECT", routes.get(1).getSchedules().get(0).getId());
+    }
+
+    @Test
+    public void testRespectsMinimumConnectionTime() {
+        List<Schedule> schedules = List.of(
+            bus("LEG1", "Dhaka", "Cumilla", 7, 0, 9, 0),
+            bus("TOO_TIGHT", "Cumilla", "Sylhet", 9, 10, 11, 0),
+            bus("LATER", "Cumilla", "Sylhet", 10, 0, 12, 30)
+        );
+
+        List<Route> routes = new RaptorEngine(schedules).findRoutes("Dhaka", "Sylhet", 10);
+
+        assertEquals(1, routes.size());
+        assertEquals("LATER", routes.get(0).getSchedules().get(1).getId());
+    }
+
+    @Test
+    public void testUnknownCityReturnsNoRoutes() {
+        List<Schedule> schedules = List.of(bus("DIRECT", "Dhaka", "Sylhet", 8, 0, 14, 0));
+
+        assertTrue(new RaptorEngine(schedules).findRoutes("Dhaka", "Khulna", 10).isEmpty());
+    }
+}
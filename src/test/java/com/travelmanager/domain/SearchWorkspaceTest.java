@@ -0,0 +1,134 @@
+package com.travelmanager.domain;
+
+import com.travelmanager.model.BusSchedule;
+import com.travelmanager.model.Schedule;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the reusable search workspace
+ */
+public class SearchWorkspaceTest {
+
+    private static final String[] CITIES = { "Dhaka", "Cumilla", "Feni", "Chattogram", "Sylhet", "Mymensingh" };
+
+    private static List<Schedule> hourlyNetwork() {
+        List<Schedule> schedules = new ArrayList<>();
+        for (int from = 0; from < CITIES.length; from++) {
+            for (int to = 0; to < CITIES.length; to++) {
+                if (from == to) {
+                    continue;
+                }
+                for (int hour = 6; hour < 22; hour += 2) {
+                    LocalDateTime departure = LocalDateTime.of(2025, 11, 27, hour, 0);
+                    String id = CITIES[from] + "-" + CITIES[to] + "-" + hour;
+                    schedules.add(new BusSchedule(id, CITIES[from], CITIES[to], departure,
+                        departure.plusMinutes(90 + 10 * (from + to)), 300.0 + 20 * to, 40, id, "AC"));
+                }
+            }
+        }
+        return schedules;
+    }
+
+    /**
+     * Bytes allocated by this thread, via com.sun.management.ThreadMXBean
+     * Looked up reflectively because the application module does not read the management modules.
+     */
+    private static long allocatedBytes() throws Exception {
+        Object threads = Class.forName("java.lang.management.ManagementFactory")
+            .getMethod("getThreadMXBean").invoke(null);
+        Method method = Class.forName("com.sun.management.ThreadMXBean")
+            .getMethod("getThreadAllocatedBytes", long.class);
+        return (long) method.invoke(threads, Thread.currentThread().getId());
+    }
+
+    @Test
+    public void testHeapPollsInKeyOrderWithDecreaseKey() {
+        SearchWorkspace.IndexedHeap heap = new SearchWorkspace.IndexedHeap(4);
+        heap.clear(10);
+        double[] keys = { 5, 3, 8, 1, 9, 2, 7 };
+        for (int id = 0; id < keys.length; id++) {
+            heap.offer(id, keys[id]);
+        }
+        heap.offer(4, 0.5);   // Decrease
+        heap.offer(3, 6.0);   // Larger key is ignored
+
+        int[] expected = { 4, 3, 5, 1, 0, 6, 2 };
+        for (int id : expected) {
+            assertEquals(id, heap.poll());
+        }
+        assertTrue(heap.isEmpty());
+    }
+
+    @Test
+    public void testSteadyStateSearchDoesNotAllocate() throws Exception {
+        TimetableGraph graph = new TimetableGraph(hourlyNetwork());
+        PathfindingEngine engine = new PathfindingEngine(graph,
+            PathfindingEngine.OptimizationCriteria.SHORTEST_TIME, PathfindingEngine.SearchMode.A_STAR);
+        int origin = graph.cityId("Dhaka");
+        int destination = graph.cityId("Sylhet");
+        SearchWorkspace workspace = SearchWorkspace.current();
+
+        // Warm up: grow the workspace arrays and compute the cached lower bounds
+        for (int i = 0; i < 200; i++) {
+            engine.searchPaths(origin, destination, 50, workspace);
+        }
+
+        long before = allocatedBytes();
+        int found = 0;
+        for (int i = 0; i < 100; i++) {
+            found += engine.searchPaths(origin, destination, 50, workspace);
+        }
+        long allocated = allocatedBytes() - before;
+
+        assertEquals(100 * 50, found);
+        assertTrue(allocated < 100 * 64, "Allocated " + allocated + " bytes over 100 searches");
+    }
+
+    /**
+     * Bytes allocated by 100 warmed-up Yen searches for 10 journeys, and the states they expanded
+     */
+    private static long[] yenAllocation(TimetableGraph graph, double[] estimate) throws Exception {
+        int origin = graph.cityId("Dhaka");
+        int destination = graph.cityId("Sylhet");
+        double[] weights = graph.weights(PathfindingEngine.OptimizationCriteria.SHORTEST_TIME);
+        double[] hopsLeft = graph.lowerBoundsTo(destination, TimetableGraph.Bound.HOPS);
+        SearchWorkspace workspace = SearchWorkspace.current();
+        for (int i = 0; i < 200; i++) {
+            workspace.yen(graph, weights, estimate, hopsLeft, 3).find(origin, destination, 10);
+        }
+
+        long before = allocatedBytes();
+        int found = 0;
+        long expanded = 0;
+        for (int i = 0; i < 100; i++) {
+            KShortestJourneys yen = workspace.yen(graph, weights, estimate, hopsLeft, 3);
+            found += yen.find(origin, destination, 10);
+            expanded += yen.getExpandedStates();
+        }
+        long allocated = allocatedBytes() - before;
+        assertEquals(100 * 10, found);
+        return new long[] { allocated, expanded };
+    }
+
+    @Test
+    public void testWarmYenSearchDoesNotAllocate() throws Exception {
+        TimetableGraph graph = new TimetableGraph(hourlyNetwork());
+        int destination = graph.cityId("Sylhet");
+
+        // Same journeys, found by A* spurs and by plain Dijkstra spurs (no estimate)
+        long[] guided = yenAllocation(graph, graph.lowerBoundsTo(destination, TimetableGraph.Bound.DURATION));
+        long[] blind = yenAllocation(graph, new double[graph.cityCount()]);
+
+        // Journeys, candidates and spur labels all live in the workspace pools
+        assertTrue(blind[1] > 10 * guided[1], "Expanded " + blind[1] + " vs " + guided[1] + " states");
+        assertTrue(guided[0] < 100 * 64, "Allocated " + guided[0] + " bytes over 100 guided searches");
+        assertTrue(blind[0] < 100 * 64, "Allocated " + blind[0] + " bytes over 100 blind searches");
+    }
+}
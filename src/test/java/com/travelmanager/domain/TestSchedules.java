@@ -0,0 +1,30 @@
+package com.travelmanager.domain;
+
+import com.travelmanager.model.BusSchedule;
+
+import java.time.LocalDateTime;
+
+/**
+ * Schedule fixtures shared by the domain tests
+ * Every bus runs on the same day with 40 seats, its ID doubling as the company name.
+ */
+final class TestSchedules {
+
+    private TestSchedules() {
+    }
+
+    /**
+     * Bus at the default fare of 500
+     */
+    static BusSchedule bus(String id, String from, String to, int depHour, int depMin, int arrHour, int arrMin) {
+        return bus(id, from, to, depHour, depMin, arrHour, arrMin, 500.0);
+    }
+
+    static BusSchedule bus(String id, String from, String to, int depHour, int depMin, int arrHour, int arrMin,
+                           double fare) {
+        return new BusSchedule(id, from, to,
+            LocalDateTime.of(2025, 11, 27, depHour, depMin),
+            LocalDateTime.of(2025, 11, 27, arrHour, arrMin),
+            fare, 40, id, "AC");
+    }
+}
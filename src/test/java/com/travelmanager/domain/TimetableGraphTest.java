@@ -0,0 +1,100 @@
+package com.travelmanager.domain;
+
+import com.travelmanager.model.Schedule;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.travelmanager.domain.TestSchedules.bus;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the compiled timetable graph
+ */
+public class TimetableGraphTest {
+
+    private static String describe(TimetableGraph graph, String city) {
+        int id = graph.cityId(city);
+        StringBuilder edges = new StringBuilder();
+        for (int e = graph.firstEdge(id); e < graph.endEdge(id); e++) {
+            edges.append(graph.schedule(e).getId()).append(' ');
+        }
+        return edges.toString().trim();
+    }
+
+    /**
+     * Edge running the schedule with the given ID
+     */
+    private static int edgeOf(TimetableGraph graph, String scheduleId) {
+        for (int e = 0; e < graph.edgeCount(); e++) {
+            if (graph.schedule(e).getId().equals(scheduleId)) {
+                return e;
+            }
+        }
+        throw new AssertionError("No edge for schedule " + scheduleId);
+    }
+
+    @Test
+    public void testPatchMatchesFreshBuild() {
+        List<Schedule> schedules = new ArrayList<>();
+        schedules.add(bus("A", "Dhaka", "Cumilla", 8, 0, 10, 0, 300));
+        schedules.add(bus("B", "Dhaka", "Cumilla", 10, 0, 12, 30, 250));
+        schedules.add(bus("C", "Cumilla", "Feni", 12, 0, 13, 0, 150));
+        schedules.add(bus("D", "Feni", "Chattogram", 14, 0, 15, 30, 200));
+        TimetableGraph graph = new TimetableGraph(schedules);
+
+        Schedule faster = bus("E", "Dhaka", "Cumilla", 9, 0, 10, 30, 400);
+        Schedule direct = bus("F", "Dhaka", "Chattogram", 7, 0, 12, 0, 600);
+        TimetableGraph patched = graph.patch(List.of(schedules.get(1)), List.of(faster, direct));
+
+        List<Schedule> expected = new ArrayList<>(schedules);
+        expected.remove(1);
+        expected.add(faster);
+        expected.add(direct);
+        TimetableGraph fresh = new TimetableGraph(expected);
+
+        assertEquals(1, patched.getVersion());
+        assertEquals(0, graph.getVersion());
+        assertEquals(fresh.edgeCount(), patched.edgeCount());
+        assertEquals("F A E", describe(patched, "Dhaka"));
+        assertEquals("A B", describe(graph, "Dhaka"));    // Base version unchanged
+        assertEquals(describe(fresh, "Cumilla"), describe(patched, "Cumilla"));
+
+        int destination = patched.cityId("Chattogram");
+        for (TimetableGraph.Bound bound : TimetableGraph.Bound.values()) {
+            double[] bounds = patched.lowerBoundsTo(destination, bound);
+            double[] expectedBounds = fresh.lowerBoundsTo(fresh.cityId("Chattogram"), bound);
+            for (String city : List.of("Dhaka", "Cumilla", "Feni")) {
+                assertEquals(expectedBounds[fresh.cityId(city)], bounds[patched.cityId(city)], 1e-9, bound + " " + city);
+            }
+        }
+        assertEquals(90.0, patched.weights(PathfindingEngine.OptimizationCriteria.SHORTEST_TIME)[edgeOf(patched, "E")]);
+    }
+
+    @Test
+    public void testRegisteredProfileIsCompiledOnceAndCarriedAcrossPatches() {
+        List<Schedule> schedules = new ArrayList<>();
+        schedules.add(bus("A", "Dhaka", "Cumilla", 8, 0, 10, 0, 300));
+        schedules.add(bus("B", "Cumilla", "Feni", 12, 0, 13, 0, 150));
+        TimetableGraph graph = new TimetableGraph(schedules);
+        WeightProfile profile = WeightProfile.of("user", 2.0, 0.5, 10.0);
+
+        assertNotSame(graph.weights(profile), graph.weights(profile));   // Not registered: compiled per call
+        double[] registered = graph.registerProfile(profile);
+        assertSame(registered, graph.weights(profile));
+        assertSame(registered, graph.weights(WeightProfile.of("same factors", 2.0, 0.5, 10.0)));
+
+        TimetableGraph patched = graph.patch(List.of(), List.of(bus("C", "Dhaka", "Feni", 9, 0, 10, 30, 400)));
+        double[] carried = patched.weights(profile);
+        assertSame(carried, patched.weights(profile));
+        for (int e = 0; e < patched.edgeCount(); e++) {
+            assertEquals(profile.weigh(patched.durationMinutes(e), patched.fare(e)), carried[e], 1e-9);
+        }
+
+        assertTrue(patched.unregisterProfile(profile));
+        assertFalse(patched.unregisterProfile(profile));
+        assertNotSame(patched.weights(profile), patched.weights(profile));
+        assertSame(registered, graph.weights(profile));    // Base version keeps its registration
+    }
+}
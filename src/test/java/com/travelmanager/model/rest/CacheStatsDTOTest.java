@@ -0,0 +1,29 @@
+package com.travelmanager.model.rest;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.travelmanager.util.BoundedCache;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the cache statistics DTO
+ */
+public class CacheStatsDTOTest {
+
+    @Test
+    public void testSerializesRegionStatistics() {
+        BoundedCache<String, String> cache = new BoundedCache<>("routes", 100, String::length);
+        cache.put("dhaka_sylhet", "route", 3600);
+        cache.get("dhaka_sylhet");
+        cache.get("dhaka_khulna");
+
+        JsonObject json = new Gson().toJsonTree(CacheStatsDTO.fromStats(cache.stats())).getAsJsonObject();
+        assertEquals("routes", json.get("name").getAsString());
+        assertEquals(1, json.get("hits").getAsLong());
+        assertEquals(1, json.get("misses").getAsLong());
+        assertEquals(0.5, json.get("hitRate").getAsDouble(), 1e-9);
+        assertEquals(5, json.get("weight").getAsLong());
+    }
+}
@@ -0,0 +1,54 @@
+package com.travelmanager.model.rest;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for parsed schedule times
+ */
+public class TimeOfDayTest {
+
+    @Test
+    public void testParsesTimesRangesAndDurations() {
+        assertEquals(7 * 60 + 45, TimeOfDay.parseMinute("07:45"));
+        assertEquals(4 * 60, TimeOfDay.parseMinute("04:00-08:30"));
+        assertEquals(5 * 60 + 30, TimeOfDay.parseDuration("5:30h"));
+        assertEquals("10:05h", TimeOfDay.formatDuration(605));
+        assertThrows(IllegalArgumentException.class, () -> TimeOfDay.parseMinute("7.45"));
+        assertThrows(IllegalArgumentException.class, () -> TimeOfDay.parseMinute("25:00"));
+        assertThrows(IllegalArgumentException.class, () -> TimeOfDay.parseDuration("long"));
+    }
+
+    @Test
+    public void testOvernightBusIsParsedOnce() {
+        BusScheduleDTO bus = new BusScheduleDTO("Night Coach", "Dhaka", "Sylhet", "23:30", "05:15", 900, null);
+        bus.parseTimes();
+        assertEquals(23 * 60 + 30, bus.getStartMinute());
+        assertEquals(5 * 60 + 15, bus.getArrivalMinute());
+        assertEquals(1, bus.getArrivalDayOffset());
+        assertEquals(5 * 60 + 45, bus.getDurationMinutes());
+
+        bus.setArrivalTime("5:15pm");
+        assertThrows(IllegalArgumentException.class, bus::parseTimes);
+    }
+
+    @Test
+    public void testOffDaysAreAWeekdayMask() {
+        assertEquals(0, TimeOfDay.parseOffDays("No off day"));
+        assertEquals(0, TimeOfDay.parseOffDays("None"));
+        assertEquals(TimeOfDay.dayBit(DayOfWeek.FRIDAY), TimeOfDay.parseOffDays("friday"));
+        assertEquals(TimeOfDay.dayBit(DayOfWeek.FRIDAY) | TimeOfDay.dayBit(DayOfWeek.SATURDAY),
+            TimeOfDay.parseOffDays("Friday, Saturday"));
+
+        TrainScheduleDTO train = new TrainScheduleDTO("Test Express (701)", "Dhaka", "Sylhet",
+            "06:40", "13:10", 375, "6:30h", "Tuesday");
+        assertFalse(train.runsOn(LocalDate.of(2026, 10, 20)));   // A Tuesday
+        assertTrue(train.runsOn(LocalDate.of(2026, 10, 21)));
+        train.setOffDay("No off day");
+        assertTrue(train.runsOn(LocalDate.of(2026, 10, 20)));
+    }
+}
@@ -0,0 +1,111 @@
+package com.travelmanager.storage;
+
+import com.travelmanager.model.rest.TrainScheduleDTO;
+import com.travelmanager.model.rest.TrainScheduleDTO.TrainStop;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the direct connection index over trains with calling points
+ */
+public class DirectConnectionIndexTest {
+
+    /**
+     * Dhaka -> Tangail -> Jamalpur -> Tangail -> Mymensingh, calling at Tangail twice
+     */
+    private static TrainScheduleDTO loopTrain() {
+        TrainScheduleDTO train = new TrainScheduleDTO("LOOP EXPRESS (701)", "Dhaka", "Mymensingh",
+            "08:00", "13:30", 380.0, "5:30h", "No off day");
+        List<TrainStop> stops = new ArrayList<>();
+        stops.add(new TrainStop("Dhaka", "08:00", "08:00", 0.0));
+        stops.add(new TrainStop("Tangail", "09:30", "09:35", 100.0));
+        stops.add(new TrainStop("Jamalpur", "11:00", "11:05", 220.0));
+        stops.add(new TrainStop("Tangail", "12:30", "12:35", 300.0));
+        stops.add(new TrainStop("Mymensingh", "13:30", "13:30", 380.0));
+        train.setStops(stops);
+        return train;
+    }
+
+    /**
+     * Dhaka -> Bhairab -> Sylhet, arriving after midnight
+     */
+    private static TrainScheduleDTO nightTrain() {
+        TrainScheduleDTO train = new TrainScheduleDTO("NIGHT MAIL (702)", "Dhaka", "Sylhet",
+            "22:00", "04:30", 450.0, "6:30h", "No off day");
+        List<TrainStop> stops = new ArrayList<>();
+        stops.add(new TrainStop("Dhaka", "22:00", "22:00", 0.0));
+        stops.add(new TrainStop("Bhairab", "23:40", "23:45", 150.0));
+        stops.add(new TrainStop("Sylhet", "04:30", "04:30", 450.0));
+        train.setStops(stops);
+        return train;
+    }
+
+    private static DirectConnectionIndex index() {
+        return DirectConnectionIndex.EMPTY.withTrains(List.of(nightTrain(), loopTrain()));
+    }
+
+    @Test
+    public void testTrainCallingAtBothStationsInOrderMatches() {
+        List<TrainScheduleDTO> trains = index().trains("Dhaka", "Jamalpur");
+
+        assertEquals(1, trains.size());
+        TrainScheduleDTO segment = trains.get(0);
+        assertEquals("LOOP EXPRESS (701)", segment.getTrainName());
+        assertEquals("Dhaka", segment.getStart());
+        assertEquals("Jamalpur", segment.getDestination());
+        assertEquals("08:00", segment.getStartTime());
+        assertEquals("11:00", segment.getArrivalTime());
+        assertEquals(List.of("Dhaka", "Tangail", "Jamalpur"),
+            segment.getStops().stream().map(TrainStop::getStation).toList());
+    }
+
+    @Test
+    public void testReverseOrderDoesNotMatch() {
+        assertTrue(index().trains("Jamalpur", "Dhaka").isEmpty());
+        assertTrue(index().trains("Sylhet", "Bhairab").isEmpty());
+    }
+
+    @Test
+    public void testRepeatedStationUsesFirstOccurrence() {
+        DirectConnectionIndex index = index();
+
+        // Boards at the first Tangail call, not the later one
+        List<TrainScheduleDTO> onward = index.trains("Tangail", "Mymensingh");
+        assertEquals(1, onward.size());
+        assertEquals("09:35", onward.get(0).getStartTime());
+        assertEquals(280.0, onward.get(0).getFare(), 1e-9);
+        assertEquals(4, onward.get(0).getStops().size());
+
+        // Alights at the first Tangail call, which comes before Jamalpur
+        assertEquals("09:30", index.trains("Dhaka", "Tangail").get(0).getArrivalTime());
+        assertTrue(index.trains("Jamalpur", "Tangail").isEmpty());
+    }
+
+    @Test
+    public void testSegmentFareAndDuration() {
+        TrainScheduleDTO segment = index().trains("Tangail", "Jamalpur").get(0);
+        assertEquals(120.0, segment.getFare(), 1e-9);
+        assertEquals(85, segment.getDurationMinutes());
+        assertEquals("1:25h", segment.getDuration());
+        assertEquals(0, segment.getArrivalDayOffset());
+
+        TrainScheduleDTO overnight = index().trains("Bhairab", "Sylhet").get(0);
+        assertEquals(300.0, overnight.getFare(), 1e-9);
+        assertEquals(285, overnight.getDurationMinutes());
+        assertEquals("4:45h", overnight.getDuration());
+        assertEquals(1, overnight.getArrivalDayOffset());
+    }
+
+    @Test
+    public void testSegmentsAndRunsSortedByDeparture() {
+        DirectConnectionIndex both = DirectConnectionIndex.EMPTY.withTrains(List.of(nightTrain(), loopTrain(),
+            new TrainScheduleDTO("DIRECT (703)", "Dhaka", "Sylhet", "07:00", "12:00", 400.0, "5:00h", "No off day")));
+        List<TrainScheduleDTO> toSylhet = both.trains("Dhaka", "Sylhet");
+        assertEquals(List.of("DIRECT (703)", "NIGHT MAIL (702)"),
+            toSylhet.stream().map(TrainScheduleDTO::getTrainName).toList());
+    }
+}
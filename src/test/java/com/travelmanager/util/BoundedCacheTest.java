@@ -0,0 +1,61 @@
+package com.travelmanager.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the weight-bounded segmented LRU cache
+ */
+public class BoundedCacheTest {
+
+    @Test
+    public void testStaysWithinWeightAndKeepsFrequentEntries() {
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 10, String::length);
+        cache.put("dhaka_sylhet", "aa", 3600);
+        cache.put("dhaka_khulna", "bb", 3600);
+        assertEquals("aa", cache.get("dhaka_sylhet"));   // Promoted to the protected segment
+
+        // A long tail of one-off entries pushes out other one-offs, not the reused entry
+        for (int i = 0; i < 20; i++) {
+            cache.put("tail_" + i, "cc", 3600);
+            assertTrue(cache.weight() <= 10);
+        }
+        assertEquals("aa", cache.get("dhaka_sylhet"));
+        assertNull(cache.get("dhaka_khulna"));
+
+        BoundedCache.Stats stats = cache.stats();
+        assertEquals(2, stats.getHits());
+        assertEquals(1, stats.getMisses());
+        assertEquals(17, stats.getEvictions());
+        assertEquals(5, stats.getSize());
+    }
+
+    @Test
+    public void testInvalidateTagDropsOnlyDependentEntries() {
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 100, String::length);
+        cache.put("dhaka_chittagong", "a", 3600, List.of("dhaka", "cumilla", "chittagong"));
+        cache.put("sylhet_dhaka", "b", 3600, List.of("sylhet", "dhaka"));
+        cache.put("khulna_jessore", "c", 3600, List.of("khulna", "jessore"));
+
+        assertEquals(1, cache.invalidateTag("cumilla"));
+        assertNull(cache.get("dhaka_chittagong"));
+        assertEquals(1, cache.invalidateTag("dhaka"));
+        assertEquals("c", cache.get("khulna_jessore"));
+        assertEquals(0, cache.invalidateTag("dhaka"));
+    }
+
+    @Test
+    public void testExpiredEntriesAreSwept() {
+        BoundedCache<String, String> cache = new BoundedCache<>("test", 100, String::length);
+        cache.put("expired", "x", -1);
+        cache.put("fresh", "y", 3600);
+
+        assertEquals(1, cache.sweepExpired());
+        assertEquals(1, cache.size());
+        assertEquals("y", cache.get("fresh"));
+        assertEquals(1, cache.stats().getExpirations());
+    }
+}
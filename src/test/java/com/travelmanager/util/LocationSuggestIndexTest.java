@@ -0,0 +1,33 @@
+package com.travelmanager.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for the location suggestion index
+ */
+public class LocationSuggestIndexTest {
+
+    private final LocationSuggestIndex index = new LocationSuggestIndex(Map.of(
+        "Dhaka", 40, "Dinajpur", 3, "Chattogram", 25, "Chandpur", 2, "Cox's Bazar", 8, "Sylhet", 12));
+
+    @Test
+    public void testPrefixesRankedByPopularity() {
+        assertEquals(List.of("Dhaka", "Dinajpur"), index.suggest("d", 10));
+        assertEquals(List.of("Chattogram", "Chandpur"), index.suggest("Ch", 10));
+        assertEquals(List.of("Dhaka"), index.suggest("d", 1));
+    }
+
+    @Test
+    public void testWordsAliasesAndTyposMatch() {
+        assertEquals(List.of("Cox's Bazar"), index.suggest("bazar", 10));
+        assertEquals(List.of("Cox's Bazar"), index.suggest("coxs b", 10));
+        assertEquals(List.of("Chattogram"), index.suggest("chittag", 10));
+        assertEquals(List.of("Sylhet"), index.suggest("sylet", 10));
+        assertTrue(index.suggest("xyz", 10).isEmpty());
+    }
+}
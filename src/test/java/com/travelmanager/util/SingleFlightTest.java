@@ -0,0 +1,74 @@
+package com.travelmanager.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Test class for single-flight request coalescing
+ */
+public class SingleFlightTest {
+
+    @Test
+    public void testConcurrentCallsShareOneComputation() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>("test");
+        AtomicInteger loads = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<CompletableFuture<Integer>> waiters = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            waiters.add(flight.submit("dhaka_chittagong", () -> {
+                loads.incrementAndGet();
+                release.await();
+                return 42;
+            }));
+        }
+        release.countDown();
+
+        for (CompletableFuture<Integer> waiter : waiters) {
+            assertEquals(42, waiter.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, loads.get());
+        assertEquals(8, flight.getCalls());
+        assertEquals(7, flight.getSavedCalls());
+        assertEquals(0, flight.inFlight());
+    }
+
+    @Test
+    public void testComputationCancelledOnlyWhenAllWaitersLeave() throws Exception {
+        SingleFlight<String, Integer> flight = new SingleFlight<>("test");
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch interrupted = new CountDownLatch(1);
+
+        CompletableFuture<Integer> first = flight.submit("key", () -> {
+            started.countDown();
+            try {
+                Thread.sleep(60_000);
+            } catch (InterruptedException e) {
+                interrupted.countDown();
+            }
+            return 1;
+        });
+        CompletableFuture<Integer> second = flight.submit("key", () -> 2);
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        first.cancel(false);
+        assertEquals(1, flight.inFlight());
+        assertEquals(0, flight.getCancelledFlights());
+
+        second.cancel(false);
+        assertTrue(interrupted.await(5, TimeUnit.SECONDS));
+        assertEquals(1, flight.getCancelledFlights());
+        assertEquals(0, flight.inFlight());
+
+        // A new caller starts a fresh computation
+        assertEquals(3, flight.execute("key", () -> 3));
+    }
+}